@@ -27,6 +27,8 @@ dependencies {
 //    implementation(libs.annotations)
     implementation("com.alibaba.fastjson2:fastjson2:2.0.42")
     implementation("com.github.jsqlparser:jsqlparser:4.2")
+    implementation("org.apache.httpcomponents:httpasyncclient:4.1.5")
+    testImplementation(libs.junit)
 }
 
 // Set the JVM language level used to build the project. Use Java 11 for good compatibility
@@ -4,8 +4,12 @@ import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import com.github.hanfeng21050.config.EasyEnvConfig;
 import com.github.hanfeng21050.config.SeeConfig;
+import com.github.hanfeng21050.controller.session.ApplicationIndex;
+import com.github.hanfeng21050.controller.session.SeeSessionManager;
+import com.github.hanfeng21050.controller.sync.CompiledRuleSet;
+import com.github.hanfeng21050.controller.sync.ConfigFileSyncer;
+import com.github.hanfeng21050.controller.sync.ConfigSyncReport;
 import com.github.hanfeng21050.extensions.EasyEnvConfigComponent;
-import com.github.hanfeng21050.utils.CommonValidateUtil;
 import com.github.hanfeng21050.utils.HttpClientUtil;
 import com.github.hanfeng21050.utils.Logger;
 import com.github.hanfeng21050.utils.ServiceUtils;
@@ -13,18 +17,19 @@ import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.vfs.LocalFileSystem;
-import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.apache.commons.codec.binary.Base64;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
@@ -35,6 +40,11 @@ import java.util.zip.ZipInputStream;
  * Date  2023/11/1 0:26
  */
 public class EnvConfigController {
+    /**
+     * 同时写入的文件数
+     */
+    private static final int WRITE_PARALLELISM = 4;
+    private static final ExecutorService WRITE_EXECUTOR = AppExecutorUtil.createBoundedApplicationPoolExecutor("EasyEnv Config Writer", WRITE_PARALLELISM);
 
     private final EasyEnvConfig config = ServiceUtils.getService(EasyEnvConfigComponent.class).getState();
     private final SeeConfig seeConfig;
@@ -51,34 +61,21 @@ public class EnvConfigController {
     public void getEnvConfig() {
         String name = project.getName();
         String applicationName = name + "-svr";
-        try {
-            // 登录并获取 auth 信息
+        try (Logger.Scope ignored = Logger.withContext(name, seeConfig.getAddress())) {
+            // 复用环境会话中的 auth 信息，会话失效时自动重新登录
             Logger.info(String.format("[%s] 开始获取auth信息...", name));
-            SeeRequestController.login(seeConfig);
-
-            boolean stackMode = false;
-            String auth = SeeRequestController.getAuth(seeConfig);
-            Logger.info(String.format("[%s] auth获取成功", name));
-
-            Logger.info(String.format("[%s] 开始获取应用ID，应用名称: %s", name, applicationName));
-            String applicationId = SeeRequestController.getApplication(seeConfig, applicationName, auth);
-            Logger.info(String.format("[%s] 获取应用ID成功: %s", name, applicationId));
-
-            if (StringUtils.isEmpty(applicationId)) {
-                // 获取应用id
-                Logger.info(String.format("[%s] 应用ID获取为空, 开始获取Stack应用ID，应用名称: %s", name, applicationName));
-                applicationId = SeeRequestController.getStackApplication(seeConfig, applicationName, auth);
-                Logger.info(String.format("[%s] 获取应用Stack成功: %s", name, applicationId));
-                stackMode = true;
+            JSONObject configInfo;
+            try (Logger.Scope phase = Logger.phase("获取配置")) {
+                configInfo = fetchConfigInfo(name, applicationName);
+                phase.success();
             }
 
-            if (StringUtils.isNotBlank(applicationId)) {
-                Logger.info(String.format("[%s] 尝试获取See配置...", name));
-                JSONObject config = SeeRequestController.getConfigInfo(seeConfig, applicationId, auth);
-                Logger.info(String.format("[%s] 旧版See配置获取成功", name));
-
+            if (configInfo != null) {
                 // 保存配置
-                saveConfigToFile(config, applicationName);
+                try (Logger.Scope phase = Logger.phase("保存配置")) {
+                    saveConfigToFile(configInfo, applicationName);
+                    phase.success();
+                }
             } else {
                 Logger.warn(String.format("[%s] 未获取到应用ID", name));
                 ApplicationManager.getApplication().invokeLater(() -> {
@@ -95,6 +92,129 @@ public class EnvConfigController {
         }
     }
 
+    /**
+     * 获取应用的配置信息
+     *
+     * @param name            项目名称
+     * @param applicationName 微服务名称
+     * @return 配置信息，未获取到应用ID时返回null
+     */
+    private JSONObject fetchConfigInfo(String name, String applicationName) throws Exception {
+        SeeRequestController.getCachedAuth(seeConfig);
+        Logger.info(String.format("[%s] auth获取成功", name));
+        // 会话失效时整体重试，重试时不会重复输出上面的日志
+        return SeeRequestController.callWithAuth(seeConfig, auth -> {
+            // 优先使用本地索引中的应用ID
+            ApplicationIndex.Entry entry = ApplicationIndex.get(seeConfig, applicationName);
+            if (entry != null) {
+                Logger.info(String.format("[%s] 命中应用索引: %s", name, entry.getAppId()));
+                JSONObject response = SeeRequestController.getConfigInfo(seeConfig, entry.getAppId(), auth);
+                if (isConfigValid(response, applicationName, entry.isStackMode())) {
+                    if (entry.shouldRevalidate()) {
+                        rebuildIndexAsync(applicationName);
+                    }
+                    Logger.info(String.format("[%s] 旧版See配置获取成功", name));
+                    return response;
+                }
+                Logger.info(String.format("[%s] 应用索引已失效，重新获取应用ID", name));
+                ApplicationIndex.invalidate(seeConfig, applicationName);
+            }
+
+            entry = resolveApplication(applicationName, auth);
+            if (entry == null) {
+                return null;
+            }
+            Logger.info(String.format("[%s] 尝试获取See配置...", name));
+            JSONObject response = SeeRequestController.getConfigInfo(seeConfig, entry.getAppId(), auth);
+            Logger.info(String.format("[%s] 旧版See配置获取成功", name));
+            return response;
+        });
+    }
+
+    /**
+     * 查询应用ID并写入索引
+     *
+     * @param applicationName 微服务名称
+     * @param auth            auth
+     * @return 索引条目，未找到时返回null
+     */
+    private ApplicationIndex.Entry resolveApplication(String applicationName, String auth) throws IOException {
+        String name = project.getName();
+        Logger.info(String.format("[%s] 开始获取应用ID，应用名称: %s", name, applicationName));
+        JSONObject application = SeeRequestController.getApplicationInfo(seeConfig, applicationName, auth);
+        ApplicationIndex.Entry entry = null;
+        if (application != null) {
+            entry = ApplicationIndex.Entry.of(application, false);
+            Logger.info(String.format("[%s] 获取应用ID成功: %s", name, entry.getAppId()));
+        } else {
+            // 获取应用id
+            Logger.info(String.format("[%s] 应用ID获取为空, 开始获取Stack应用ID，应用名称: %s", name, applicationName));
+            Map<String, JSONObject> stackAppIndex = SeeSessionManager.getSession(seeConfig).getStackAppIndex();
+            // 会话中的合并包索引可能已过期，重新查询
+            stackAppIndex.remove(applicationName);
+            JSONObject stackApp = SeeRequestController.getStackApplicationInfo(seeConfig, applicationName, auth,
+                    SeeRequestController.DEFAULT_STACK_QUERY_PARALLELISM);
+            // 查询过程中得到的其他微服务归属一并写入索引
+            ApplicationIndex.putStackApps(seeConfig, stackAppIndex);
+            if (stackApp != null) {
+                entry = ApplicationIndex.Entry.of(stackApp, true);
+                Logger.info(String.format("[%s] 获取应用Stack成功: %s", name, entry.getAppId()));
+            }
+        }
+        if (entry == null || StringUtils.isBlank(entry.getAppId())) {
+            return null;
+        }
+        ApplicationIndex.put(seeConfig, applicationName, entry);
+        return entry;
+    }
+
+    /**
+     * 后台重新查询应用ID，更新索引
+     *
+     * @param applicationName 微服务名称
+     */
+    private void rebuildIndexAsync(String applicationName) {
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+            try {
+                ApplicationIndex.Entry entry = SeeRequestController.callWithAuth(seeConfig, auth -> resolveApplication(applicationName, auth));
+                if (entry == null) {
+                    ApplicationIndex.invalidate(seeConfig, applicationName);
+                }
+            } catch (Exception e) {
+                Logger.warn(String.format("[%s] 后台更新应用索引失败: %s", project.getName(), e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * 校验通过索引中的应用ID获取的配置是否有效
+     *
+     * @param response        配置信息
+     * @param applicationName 微服务名称
+     * @param stackMode       是否为合并包
+     * @return 是否有效
+     */
+    private boolean isConfigValid(JSONObject response, String applicationName, boolean stackMode) {
+        if (response == null || StringUtils.isNotBlank(response.getString("error_info"))) {
+            return false;
+        }
+        JSONObject data = response.getJSONObject("data");
+        JSONArray nodes = data == null ? null : data.getJSONArray("node");
+        if (nodes == null || nodes.isEmpty()) {
+            return false;
+        }
+        if (!stackMode) {
+            return true;
+        }
+        // 合并包需要包含当前微服务
+        for (int i = 0; i < nodes.size(); i++) {
+            if (applicationName.equals(nodes.getJSONObject(i).getString("name"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * @param jsonObject
      */
@@ -108,20 +228,28 @@ public class EnvConfigController {
         }
 
         Logger.info(String.format("[%s] 开始保存配置文件...", project.getName()));
+        ConfigFileSyncer syncer = new ConfigFileSyncer(project.getBasePath());
+        List<File> resourceDirectories = getResourceDirectories();
+        Map<File, byte[]> targets = new LinkedHashMap<>();
+        Pattern pattern = Pattern.compile("([^/]+)$");
+        // 规则在整个同步中只编译一次
+        CompiledRuleSet ruleSet = CompiledRuleSet.of(config);
         JSONArray array = mergeNonEmptyConfig(jsonObject);
         for (int i = 0; i < array.size(); i++) {
             JSONObject config = array.getJSONObject(i);
             // 获取文件名称
             String path = (String) config.get("path");
-            Pattern pattern = Pattern.compile("([^/]+)$");
             Matcher matcher = pattern.matcher(path);
             if (matcher.find()) {
                 String fileName = matcher.group(1);
                 String content = (String) config.get("content");
-                saveFile(fileName, content);
+                collectFile(fileName, content, ruleSet, resourceDirectories, targets);
             }
         }
-        Logger.info(String.format("[%s] 配置文件保存完成", project.getName()));
+        writeFiles(targets, syncer);
+        ConfigSyncReport report = syncer.finish();
+        refreshWrittenFiles(report);
+        Logger.info(String.format("[%s] 配置文件保存完成: %s", project.getName(), report));
     }
 
     /**
@@ -130,6 +258,7 @@ public class EnvConfigController {
      */
     private void saveConfigToFileNew(JSONObject jsonObject, boolean stackMode) {
         Logger.info(String.format("[%s] 开始保存新版配置文件...", project.getName()));
+        ConfigFileSyncer syncer = new ConfigFileSyncer(project.getBasePath());
         if (jsonObject != null) {
             String fileName = jsonObject.getJSONObject("data").getString("fileName");
             String path = jsonObject.getJSONObject("data").getString("path");
@@ -158,7 +287,8 @@ public class EnvConfigController {
                                 Logger.warn(String.format("[%s] 文件删除失败: %s", project.getName(), file.getPath()));
                             }
                         }
-                        try (CloseableHttpResponse response = HttpClientUtil.httpGetResponse(seeConfig.getAddress() + "/acm/" + path)) {
+                        try (CloseableHttpResponse response = HttpClientUtil.httpGetResponse(seeConfig.getAddress() + "/acm/" + path,
+                                SeeSessionManager.getSession(seeConfig).newContext())) {
                             int statusCode = response.getStatusLine().getStatusCode();
                             if (statusCode == 200) {
                                 HttpEntity entity = response.getEntity();
@@ -174,7 +304,7 @@ public class EnvConfigController {
                                 }
                                 Logger.info(String.format("[%s] 文件下载成功: %s", project.getName(), file.getCanonicalPath()));
                                 // 解压文件， 获取配置
-                                extractFilesFromNestedZip(resourceDirectory.getPath() + "/" + fileName, resourceDirectory.getPath(), stackMode);
+                                extractFilesFromNestedZip(resourceDirectory.getPath() + "/" + fileName, resourceDirectory.getPath(), stackMode, syncer);
                             }
                         }
                     } catch (Exception e) {
@@ -184,13 +314,16 @@ public class EnvConfigController {
                 }
             }
         }
-        Logger.info(String.format("[%s] 新版配置文件保存完成", project.getName()));
+        ConfigSyncReport report = syncer.finish();
+        refreshWrittenFiles(report);
+        Logger.info(String.format("[%s] 新版配置文件保存完成: %s", project.getName(), report));
     }
 
-    public void extractFilesFromNestedZip(String zipFilePath, String outputDir, boolean stackMode) throws IOException {
+    public void extractFilesFromNestedZip(String zipFilePath, String outputDir, boolean stackMode, ConfigFileSyncer syncer) throws IOException {
         Logger.info(String.format("[%s] 开始解压嵌套ZIP文件: %s", project.getName(), zipFilePath));
         String regex = "home/hundsun/*(/config|/cust-config)/";
         Pattern pattern = Pattern.compile(regex);
+        CompiledRuleSet ruleSet = CompiledRuleSet.of(config);
 
         try (ZipInputStream zis = new ZipInputStream(new FileInputStream(zipFilePath))) {
             ZipEntry zipEntry;
@@ -219,20 +352,13 @@ public class EnvConfigController {
                             if (matcher.find()) {
                                 String fileName = filePath.replaceAll(regex, "");
                                 // 判断是否在过滤列表内，如果在则跳过
-                                List<EasyEnvConfig.ExcludedFile> excludedFiles = config.getExcludedFiles();
-                                Optional<EasyEnvConfig.ExcludedFile> any = excludedFiles.stream().filter(excludedFile -> CommonValidateUtil.isFileNameMatch(fileName, excludedFile.getFileName())).findAny();
-                                if (any.isPresent()) {
+                                if (ruleSet.isExcluded(fileName)) {
                                     Logger.info(String.format("[%s] 文件在排除列表中，跳过: %s", project.getName(), fileName));
                                     continue;
                                 }
 
                                 File outputFile = new File(outputDir, fileName);
-                                if (outputFile.exists()) {
-                                    outputFile.delete();
-                                }
-
-                                new File(outputFile.getParent()).mkdirs();
-                                try (FileOutputStream fos = new FileOutputStream(outputFile)) {
+                                try (ByteArrayOutputStream fos = new ByteArrayOutputStream()) {
                                     byte[] buffer = new byte[1024];
                                     int length;
 
@@ -241,26 +367,19 @@ public class EnvConfigController {
                                             fos.write(buffer, 0, length);
                                         }
                                     } else {
+                                        // 根据配置规则替换文本内容
+                                        List<CompiledRuleSet.CompiledRule> rules = ruleSet.getRules(fileName);
+                                        logRules(rules);
                                         while ((length = nestedZis.read(buffer)) > 0) {
-                                            String content = new String(buffer, 0, length);
-                                            // 根据配置规则替换文本内容
-                                            List<EasyEnvConfig.ConfigReplaceRule> configReplaceRules = config.getConfigReplaceRules();
-                                            for (EasyEnvConfig.ConfigReplaceRule configReplaceRule : configReplaceRules) {
-                                                if (CommonValidateUtil.isFileNameMatch(fileName, configReplaceRule.getFileName())) {
-                                                    Logger.info(String.format("[%s] 应用替换规则: %s -> %s", project.getName(),
-                                                            configReplaceRule.getRegExpression(), configReplaceRule.getReplaceStr()));
-                                                    String regExpression = configReplaceRule.getRegExpression();
-                                                    String replaceStr = configReplaceRule.getReplaceStr();
-
-                                                    Pattern pattern1 = Pattern.compile(regExpression);
-                                                    Matcher matcher1 = pattern1.matcher(content);
-                                                    content = matcher1.replaceAll(replaceStr);
-                                                }
-                                            }
+                                            String content = CompiledRuleSet.apply(rules, new String(buffer, 0, length));
                                             fos.write(content.getBytes());
                                         }
                                     }
-                                    Logger.info(String.format("[%s] 文件保存成功: %s", project.getName(), outputFile.getCanonicalPath()));
+                                    if (syncer.write(outputFile, fos.toByteArray()) == ConfigSyncReport.Status.UNCHANGED) {
+                                        Logger.info(String.format("[%s] 文件未变化，跳过: %s", project.getName(), outputFile.getCanonicalPath()));
+                                    } else {
+                                        Logger.info(String.format("[%s] 文件保存成功: %s", project.getName(), outputFile.getCanonicalPath()));
+                                    }
                                 }
                             }
                             nestedZis.closeEntry();
@@ -314,71 +433,98 @@ public class EnvConfigController {
     }
 
     /**
-     * 保存文件
+     * 获取所有 deploy 模块的资源目录
      *
-     * @param fileName
-     * @param content
+     * @return 资源目录
      */
-    public void saveFile(String fileName, String content) {
-        // 判断是否在过滤列表内
-        List<EasyEnvConfig.ExcludedFile> excludedFiles = config.getExcludedFiles();
-        for (EasyEnvConfig.ExcludedFile excludedFile : excludedFiles) {
-            String excludeFileName = excludedFile.getFileName();
-            if (CommonValidateUtil.isFileNameMatch(fileName, excludeFileName)) {
-                Logger.info(String.format("[%s] 文件在排除列表中，跳过: %s", project.getName(), fileName));
-                return;
+    private List<File> getResourceDirectories() {
+        List<File> resourceDirectories = new ArrayList<>();
+        VirtualFile[] modules = project.getBaseDir().getChildren();
+        for (VirtualFile module : modules) {
+            if (module.getPath().contains("deploy")) {
+                String resourceDirPath = "src/main/resources"; // 根据项目结构适当修改路径
+                VirtualFile resourceDirectory = LocalFileSystem.getInstance().findFileByPath(module.getPath() + "/" + resourceDirPath);
+                if (resourceDirectory != null) {
+                    resourceDirectories.add(new File(resourceDirectory.getPath()));
+                }
             }
         }
+        return resourceDirectories;
+    }
 
-        // 应用配置替换规则
-        List<EasyEnvConfig.ConfigReplaceRule> configReplaceRules = config.getConfigReplaceRules();
-        for (EasyEnvConfig.ConfigReplaceRule configReplaceRule : configReplaceRules) {
-            if (CommonValidateUtil.isFileNameMatch(fileName, configReplaceRule.getFileName())) {
-                Logger.info(String.format("[%s] 应用替换规则: %s -> %s", project.getName(),
-                        configReplaceRule.getRegExpression(), configReplaceRule.getReplaceStr()));
-                String regExpression = configReplaceRule.getRegExpression();
-                String replaceStr = configReplaceRule.getReplaceStr();
-
-                Pattern pattern = Pattern.compile(regExpression);
-                Matcher matcher = pattern.matcher(content);
-                content = matcher.replaceAll(replaceStr);
-            }
+    /**
+     * 应用替换规则，收集需要写入各资源目录的文件
+     *
+     * @param fileName            文件名
+     * @param content             文件内容
+     * @param ruleSet             本次同步编译好的规则
+     * @param resourceDirectories 资源目录
+     * @param targets             目标文件 -> 文件内容
+     */
+    private void collectFile(String fileName, String content, CompiledRuleSet ruleSet, List<File> resourceDirectories, Map<File, byte[]> targets) {
+        // 判断是否在过滤列表内
+        if (ruleSet.isExcluded(fileName)) {
+            Logger.info(String.format("[%s] 文件在排除列表中，跳过: %s", project.getName(), fileName));
+            return;
         }
 
-        VirtualFile[] modules = project.getBaseDir().getChildren();
-        for (VirtualFile module : modules) {
-            if (module.getPath().contains("deploy")) {
-                try {
-                    String resourceDirPath = "src/main/resources"; // 根据项目结构适当修改路径
-                    VirtualFile resourceDirectory = LocalFileSystem.getInstance().findFileByPath(module.getPath() + "/" + resourceDirPath);
-
-                    if (resourceDirectory == null) {
-                        continue;
-                    }
+        // 应用配置替换规则
+        List<CompiledRuleSet.CompiledRule> rules = ruleSet.getRules(fileName);
+        logRules(rules);
+        content = CompiledRuleSet.apply(rules, content);
 
-                    File file = new File(resourceDirectory.getPath() + "/" + fileName);
-                    if (file.exists()) {
-                        if (!file.delete()) {
-                            Logger.warn(String.format("[%s] 文件删除失败: %s", project.getName(), file.getPath()));
-                        }
-                    }
+        byte[] bytes = fileName.contains(".dat") ? Base64.decodeBase64(content) : content.getBytes(StandardCharsets.UTF_8);
+        for (File resourceDirectory : resourceDirectories) {
+            targets.put(new File(resourceDirectory, fileName), bytes);
+        }
+    }
 
-                    if (fileName.contains(".dat")) {
-                        byte[] bytes = Base64.decodeBase64(content);
-                        FileUtils.writeByteArrayToFile(file, bytes);
+    /**
+     * 并行写入所有文件，内容未变化的文件不重新写入
+     *
+     * @param targets 目标文件 -> 文件内容
+     * @param syncer  同步器
+     */
+    private void writeFiles(Map<File, byte[]> targets, ConfigFileSyncer syncer) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Map.Entry<File, byte[]> target : targets.entrySet()) {
+            File file = target.getKey();
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    ConfigSyncReport.Status status = syncer.write(file, target.getValue());
+                    if (status == ConfigSyncReport.Status.UNCHANGED) {
+                        Logger.info(String.format("[%s] 文件未变化，跳过: %s", project.getName(), file.getCanonicalPath()));
                     } else {
-                        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+                        Logger.info(String.format("[%s] 文件保存成功: %s", project.getName(), file.getCanonicalPath()));
                     }
-                    Logger.info(String.format("[%s] 文件保存成功: %s", project.getName(), file.getCanonicalPath()));
-
-                    // 刷新资源目录
-                    VfsUtil.markDirtyAndRefresh(true, true, true, resourceDirectory);
                 } catch (IOException e) {
                     Logger.error(String.format("[%s] 保存文件失败: %s, 错误: %s",
-                            project.getName(), fileName, e.getMessage()));
-                    throw new RuntimeException(e);
+                            project.getName(), file.getName(), e.getMessage()));
+                    throw new CompletionException(e);
                 }
-            }
+            }, WRITE_EXECUTOR));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void logRules(List<CompiledRuleSet.CompiledRule> rules) {
+        for (CompiledRuleSet.CompiledRule rule : rules) {
+            Logger.info(String.format("[%s] 应用替换规则: %s -> %s", project.getName(), rule.getRegExpression(), rule.getReplaceStr()));
+        }
+    }
+
+    /**
+     * 只刷新被写入的文件，所有文件一次异步刷新，避免整个资源目录重新索引
+     *
+     * @param report 同步结果
+     */
+    private void refreshWrittenFiles(ConfigSyncReport report) {
+        if (report.hasChanges()) {
+            LocalFileSystem.getInstance().refreshIoFiles(report.getWrittenFiles(), true, false, null);
         }
     }
 }
@@ -2,17 +2,37 @@ package com.github.hanfeng21050.controller;
 
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONReader;
 import com.github.hanfeng21050.config.SeeConfig;
+import com.github.hanfeng21050.controller.session.SeeSession;
+import com.github.hanfeng21050.controller.session.SeeSessionManager;
+import com.github.hanfeng21050.exception.SeeSessionExpiredException;
+import com.github.hanfeng21050.extensions.EasyEnvConfigComponent;
+import com.github.hanfeng21050.utils.HttpAsyncClientUtil;
 import com.github.hanfeng21050.utils.HttpClientUtil;
+import com.github.hanfeng21050.utils.ServiceUtils;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.ui.Messages;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.protocol.HttpClientContext;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -33,15 +53,37 @@ public class SeeRequestController {
     private static final String ACM_GOVERNANCE_SERVICE_SERVICEINFOQUERY_URL = "/acm/governance/service/serviceInfoQuery.json";
     private static final String ACM_BROKER_APPMENU_LOACALCACHEREFRESH_URL = "/acm/broker/appMenu/localCacheRefresh.json";
     private static final String ACM_HSSERVER_APP_GETAPPDETAIL_URL = "/acm/hsserver/app/getAppDetail.json";
+    // 无法从token中解析过期时间时使用的有效期
+    private static final long DEFAULT_AUTH_TTL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    // 认证信息在过期前多久视为失效并提前刷新
+    private static final long AUTH_REFRESH_AHEAD_MILLIS = TimeUnit.MINUTES.toMillis(2);
+    // 会话超过该时间未使用则不再后台刷新
+    private static final long SESSION_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(60);
+    private static final long MIN_REFRESH_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    // 查询合并包详情的默认并发数
+    public static final int DEFAULT_STACK_QUERY_PARALLELISM = 8;
+    // 查询合并包详情的总超时时间
+    private static final long STACK_QUERY_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * 使用认证信息执行请求
+     *
+     * @param <T> 返回类型
+     */
+    public interface AuthCallable<T> {
+        T call(String auth) throws Exception;
+    }
 
 
     // 登录方法
     public static void login(SeeConfig seeConfig) throws Exception {
-        HttpClientUtil.clearCookie();
+        // 每个环境使用独立的会话，只清除当前环境的cookie
+        SeeSession session = SeeSessionManager.getSession(seeConfig);
+        session.reset();
 
         // 获取登录页面
         String loginUrl = seeConfig.getAddress() + CAS_LOGIN_URL + "?get-lt=true";
-        String response = HttpClientUtil.httpGet(loginUrl);
+        String response = HttpClientUtil.httpGet(loginUrl, null, null, session.newContext());
 
         // 从响应中提取 lt 和 execution 的值
 
@@ -67,11 +109,12 @@ public class SeeRequestController {
         loginParams.put("_eventId", "submit");
 
         // 发起登录请求
-        String res = HttpClientUtil.httpPost(seeConfig.getAddress() + CAS_LOGIN_URL, loginParams);
+        String res = HttpClientUtil.httpPost(seeConfig.getAddress() + CAS_LOGIN_URL, loginParams, null, session.newContext());
 
         if (SUCCESS.equals(res)) {
             // 页面跳转，获取cookie
-            String s = HttpClientUtil.httpGet(seeConfig.getAddress() + ACM_URL);
+            String s = HttpClientUtil.httpGet(seeConfig.getAddress() + ACM_URL, null, null, session.newContext());
+            session.setLoggedIn(true);
         } else {
             throw new Exception("用户验证失败");
         }
@@ -79,8 +122,295 @@ public class SeeRequestController {
 
     // 获取认证信息方法
     public static String getAuth(SeeConfig seeConfig) throws URISyntaxException, IOException {
-        String authJsonUrl = seeConfig.getAddress() + ACM_SYSTEM_AUTH_JSON_URL;
-        return extractValueFromResponse(HttpClientUtil.httpPost(authJsonUrl, new HashMap<>()), "\"token\":\"(.*?)\"");
+        SeeSession session = SeeSessionManager.getSession(seeConfig);
+        String auth = requestAuth(seeConfig);
+        session.updateAuth(auth, parseExpireAt(auth));
+        scheduleAuthRefresh(seeConfig.getUuid(), session);
+        return auth;
+    }
+
+    /**
+     * 用当前会话请求新的认证信息，不修改会话
+     */
+    private static String requestAuth(SeeConfig seeConfig) throws IOException {
+        String response = post(seeConfig, ACM_SYSTEM_AUTH_JSON_URL, new HashMap<>(), null);
+        String auth = extractValueFromResponse(response, "\"token\":\"(.*?)\"");
+        if (StringUtils.isBlank(auth)) {
+            throw new SeeSessionExpiredException("认证信息获取失败");
+        }
+        return auth;
+    }
+
+    /**
+     * 获取缓存的认证信息
+     * 认证信息有效时直接复用，过期时先尝试用现有会话刷新，会话失效才重新走CAS登录
+     *
+     * @param seeConfig 环境配置
+     * @return 认证信息
+     */
+    public static String getCachedAuth(SeeConfig seeConfig) throws Exception {
+        SeeSession session = SeeSessionManager.getSession(seeConfig);
+        session.touch();
+        if (session.isAuthValid(AUTH_REFRESH_AHEAD_MILLIS)) {
+            return session.getAuth();
+        }
+        synchronized (session) {
+            // 等待锁期间可能已被其他线程刷新
+            if (session.isAuthValid(AUTH_REFRESH_AHEAD_MILLIS)) {
+                return session.getAuth();
+            }
+            if (session.isLoggedIn()) {
+                try {
+                    return getAuth(seeConfig);
+                } catch (SeeSessionExpiredException e) {
+                    LOGGER.info("SEE session expired, login again: " + seeConfig.getAddress());
+                }
+            }
+            login(seeConfig);
+            return getAuth(seeConfig);
+        }
+    }
+
+    /**
+     * 使用缓存的认证信息执行请求，会话失效时重新登录并重试一次
+     *
+     * @param seeConfig 环境配置
+     * @param callable  请求
+     * @return 请求结果
+     */
+    public static <T> T callWithAuth(SeeConfig seeConfig, AuthCallable<T> callable) throws Exception {
+        String auth = null;
+        try {
+            auth = getCachedAuth(seeConfig);
+            return callable.call(auth);
+        } catch (SeeSessionExpiredException e) {
+            if (auth != null) {
+                // 只重置本次使用的认证信息，其他线程可能已经重新登录
+                SeeSessionManager.getSession(seeConfig).resetIfAuth(auth);
+            }
+            return callable.call(getCachedAuth(seeConfig));
+        }
+    }
+
+    /**
+     * 异步使用缓存的认证信息执行请求，会话失效时重新登录并重试一次
+     * 认证信息有效时不会切换线程，需要登录时在后台线程中完成
+     *
+     * @param seeConfig 环境配置
+     * @param callable  请求
+     * @return 请求结果
+     */
+    public static <T> CompletableFuture<T> callWithAuthAsync(SeeConfig seeConfig, Function<String, CompletableFuture<T>> callable) {
+        AtomicReference<String> usedAuth = new AtomicReference<>();
+        return authAsync(seeConfig).thenCompose(auth -> {
+            usedAuth.set(auth);
+            return callable.apply(auth);
+        }).handle((result, ex) -> {
+            if (ex == null) {
+                return CompletableFuture.completedFuture(result);
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof SeeSessionExpiredException) {
+                if (usedAuth.get() != null) {
+                    // 只重置本次使用的认证信息，其他线程可能已经重新登录
+                    SeeSessionManager.getSession(seeConfig).resetIfAuth(usedAuth.get());
+                }
+                return authAsync(seeConfig).thenCompose(callable);
+            }
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(cause);
+            return failed;
+        }).thenCompose(Function.identity());
+    }
+
+    private static CompletableFuture<String> authAsync(SeeConfig seeConfig) {
+        SeeSession session = SeeSessionManager.getSession(seeConfig);
+        session.touch();
+        if (session.isAuthValid(AUTH_REFRESH_AHEAD_MILLIS)) {
+            return CompletableFuture.completedFuture(session.getAuth());
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return getCachedAuth(seeConfig);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, AppExecutorUtil.getAppExecutorService());
+    }
+
+    /**
+     * 在认证信息过期前后台刷新，长时间未使用的会话不再刷新
+     * 刷新时重新读取环境配置，会话已被替换或移除时不再刷新；请求不持有会话锁，
+     * 完成后仅当认证信息未被其他线程更新时才替换
+     */
+    private static void scheduleAuthRefresh(String uuid, SeeSession session) {
+        long remaining = session.getAuthExpireAt() - System.currentTimeMillis();
+        long delay = Math.max(Math.max(remaining - AUTH_REFRESH_AHEAD_MILLIS, remaining / 2), MIN_REFRESH_DELAY_MILLIS);
+        session.setRefreshTask(AppExecutorUtil.getAppScheduledExecutorService().schedule(() -> {
+            if (System.currentTimeMillis() - session.getLastAccess() > SESSION_IDLE_MILLIS) {
+                return;
+            }
+            SeeConfig seeConfig = findSeeConfig(uuid);
+            if (seeConfig == null || !SeeSessionManager.isCurrent(session) || !session.matches(seeConfig)) {
+                return;
+            }
+            String previous = session.getAuth();
+            if (previous.isEmpty()) {
+                // 已被重置，下次使用时重新登录
+                return;
+            }
+            try {
+                String auth = requestAuth(seeConfig);
+                if (session.compareAndSetAuth(previous, auth, parseExpireAt(auth))) {
+                    scheduleAuthRefresh(uuid, session);
+                }
+            } catch (SeeSessionExpiredException e) {
+                // 会话已失效，下次使用时重新登录
+                session.resetIfAuth(previous);
+            } catch (Exception e) {
+                LOGGER.warn("Refresh SEE auth failed: " + e.getMessage());
+            }
+        }, delay, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * 按ID读取环境当前的配置，环境已被删除时返回null
+     */
+    private static SeeConfig findSeeConfig(String uuid) {
+        return ServiceUtils.getService(EasyEnvConfigComponent.class).getState().getSeeConnectInfos().stream()
+                .filter(x -> x.getUuid().equals(uuid))
+                .findFirst()
+                .map(SeeConfig::new)
+                .orElse(null);
+    }
+
+    /**
+     * 解析token的过期时间，token为JWT时读取exp字段，否则使用默认有效期
+     *
+     * @param auth token
+     * @return 过期时间
+     */
+    private static long parseExpireAt(String auth) {
+        String[] parts = auth.split("\\.");
+        if (parts.length == 3) {
+            try {
+                String payload = new String(Base64.decodeBase64(parts[1]), StandardCharsets.UTF_8);
+                Long exp = JSONObject.parse(payload).getLong("exp");
+                if (exp != null) {
+                    return TimeUnit.SECONDS.toMillis(exp);
+                }
+            } catch (Exception e) {
+                LOGGER.debug("Parse token expire time failed: " + e.getMessage());
+            }
+        }
+        return System.currentTimeMillis() + DEFAULT_AUTH_TTL_MILLIS;
+    }
+
+    /**
+     * 检查会话是否失效：响应为401，或者被重定向到CAS登录页
+     *
+     * @param context 请求上下文
+     */
+    private static void checkSession(HttpClientContext context) throws SeeSessionExpiredException {
+        HttpResponse response = context.getResponse();
+        if (response != null) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode == HttpStatus.SC_UNAUTHORIZED) {
+                throw new SeeSessionExpiredException("会话已失效: 401");
+            }
+            Header location = response.getFirstHeader("Location");
+            if (statusCode / 100 == 3 && location != null && location.getValue().contains(CAS_LOGIN_URL)) {
+                throw new SeeSessionExpiredException("会话已失效: 重定向到登录页");
+            }
+        }
+        List<URI> redirectLocations = context.getRedirectLocations();
+        if (redirectLocations != null) {
+            for (URI uri : redirectLocations) {
+                if (uri.getPath() != null && uri.getPath().startsWith(CAS_LOGIN_URL)) {
+                    throw new SeeSessionExpiredException("会话已失效: 重定向到登录页");
+                }
+            }
+        }
+    }
+
+    private static String post(SeeConfig seeConfig, String path, Map<String, String> body, Map<String, String> header) throws IOException {
+        HttpClientContext context = newContext(seeConfig);
+        String response = HttpClientUtil.httpPost(seeConfig.getAddress() + path, body, header, context);
+        checkSession(context);
+        return response;
+    }
+
+    /**
+     * post请求，使用 parser 流式解析响应，避免整个响应体转为字符串
+     */
+    private static <T> T post(SeeConfig seeConfig, String path, Map<String, String> body, Map<String, String> header,
+                              Function<JSONReader, T> parser) throws IOException {
+        HttpClientContext context = newContext(seeConfig);
+        return HttpClientUtil.httpPost(seeConfig.getAddress() + path, body, header, context, response -> {
+            checkSession(context);
+            return readStream(response, parser);
+        });
+    }
+
+    private static <T> T readStream(HttpResponse response, Function<JSONReader, T> parser) throws IOException {
+        HttpEntity entity = response.getEntity();
+        return readStream(response, entity == null ? null : entity.getContent(), parser);
+    }
+
+    private static <T> T readStream(HttpResponse response, InputStream content, Function<JSONReader, T> parser) throws IOException {
+        if (response.getEntity() == null) {
+            return parser.apply(JSONReader.of("{}"));
+        }
+        try (InputStream inputStream = content;
+             JSONReader reader = JSONReader.of(inputStream, StandardCharsets.UTF_8)) {
+            return parser.apply(reader);
+        }
+    }
+
+    private static String postJSON(SeeConfig seeConfig, String path, Map<String, Object> body, Map<String, String> header) throws IOException {
+        HttpClientContext context = newContext(seeConfig);
+        String response = HttpClientUtil.httpPostJSON(seeConfig.getAddress() + path, body, header, context);
+        checkSession(context);
+        return response;
+    }
+
+    private static String get(SeeConfig seeConfig, String path, Map<String, String> params, Map<String, String> header) throws IOException, URISyntaxException {
+        HttpClientContext context = newContext(seeConfig);
+        String response = HttpClientUtil.httpGet(seeConfig.getAddress() + path, params, header, context);
+        checkSession(context);
+        return response;
+    }
+
+    private static CompletableFuture<JSONObject> postAsync(SeeConfig seeConfig, String path, Map<String, String> body, Map<String, String> header) {
+        HttpClientContext context = newContext(seeConfig);
+        CompletableFuture<String> request = HttpAsyncClientUtil.httpPostAsync(seeConfig.getAddress() + path, body, header, context);
+        return HttpAsyncClientUtil.propagateCancel(request, request.thenApply(response -> parseChecked(context, response)));
+    }
+
+    private static CompletableFuture<JSONObject> getAsync(SeeConfig seeConfig, String path, Map<String, String> params, Map<String, String> header) {
+        HttpClientContext context = newContext(seeConfig);
+        CompletableFuture<String> request = HttpAsyncClientUtil.httpGetAsync(seeConfig.getAddress() + path, params, header, context);
+        return HttpAsyncClientUtil.propagateCancel(request, request.thenApply(response -> parseChecked(context, response)));
+    }
+
+    private static CompletableFuture<JSONObject> postJSONAsync(SeeConfig seeConfig, String path, Map<String, Object> body, Map<String, String> header) {
+        HttpClientContext context = newContext(seeConfig);
+        CompletableFuture<String> request = HttpAsyncClientUtil.httpPostJSONAsync(seeConfig.getAddress() + path, body, header, context);
+        return HttpAsyncClientUtil.propagateCancel(request, request.thenApply(response -> parseChecked(context, response)));
+    }
+
+    private static JSONObject parseChecked(HttpClientContext context, String response) {
+        try {
+            checkSession(context);
+        } catch (SeeSessionExpiredException e) {
+            throw new CompletionException(e);
+        }
+        return JSONObject.parse(response);
+    }
+
+    // 获取环境会话的请求上下文
+    private static HttpClientContext newContext(SeeConfig seeConfig) {
+        return SeeSessionManager.getSession(seeConfig).newContext();
     }
 
     // 从响应中提取指定模式的值
@@ -99,6 +429,43 @@ public class SeeRequestController {
      * @throws IOException
      */
     public static String getStackApplication(SeeConfig seeConfig, String applicationName, String auth) throws IOException, URISyntaxException {
+        return getStackApplication(seeConfig, applicationName, auth, DEFAULT_STACK_QUERY_PARALLELISM);
+    }
+
+    /**
+     * 从轻量化合并包中获取
+     * 并发查询各合并包的详情，找到第一个包含该微服务的合并包后取消其余请求；
+     * 查询过程中得到的 微服务名称 -> 合并包ID 会记录在环境会话中，后续查询直接命中
+     *
+     * @param seeConfig
+     * @param applicationName
+     * @param auth
+     * @param parallelism     同时查询的合并包数量
+     * @return
+     * @throws IOException
+     */
+    public static String getStackApplication(SeeConfig seeConfig, String applicationName, String auth, int parallelism) throws IOException {
+        JSONObject stackApp = getStackApplicationInfo(seeConfig, applicationName, auth, parallelism);
+        return stackApp == null ? "" : stackApp.getString("id");
+    }
+
+    /**
+     * 获取包含该微服务的合并包信息
+     *
+     * @param seeConfig
+     * @param applicationName
+     * @param auth
+     * @param parallelism     同时查询的合并包数量
+     * @return 合并包信息，未找到时返回null
+     * @throws IOException
+     */
+    public static JSONObject getStackApplicationInfo(SeeConfig seeConfig, String applicationName, String auth, int parallelism) throws IOException {
+        Map<String, JSONObject> stackAppIndex = SeeSessionManager.getSession(seeConfig).getStackAppIndex();
+        JSONObject indexed = stackAppIndex.get(applicationName);
+        if (indexed != null) {
+            return indexed;
+        }
+
         Map<String, String> body = new HashMap<>();
         Map<String, String> header = new HashMap<>();
         body.put("pageNo", "1");
@@ -108,74 +475,153 @@ public class SeeRequestController {
         header.put("Authorization", "Bearer " + auth);
 
         // 发起获取应用信息的请求
-        String response = HttpClientUtil.httpPost(seeConfig.getAddress() + ACM_DSSP_APPLICATION_QUERY_JSON_URL, body, header);
+        String response = post(seeConfig, ACM_DSSP_APPLICATION_QUERY_JSON_URL, body, header);
         JSONObject parse = JSONObject.parse(response);
 
         // 处理响应
         String errorInfo = parse.getString("error_info");
-        if (StringUtils.isBlank(errorInfo)) {
-            JSONArray jsonArray = parse.getJSONObject("data").getJSONArray("items");
-            if (!jsonArray.isEmpty()) {
-                for (int i = 0; i < jsonArray.size(); i++) {
-                    JSONObject jsonObject = jsonArray.getJSONObject(i);
-                    String id = jsonObject.getString("id");
-                    String productId = jsonObject.getString("productId");
-                    boolean b = existMacroSvr(seeConfig, auth, id, productId, applicationName);
-                    if (b) {
-                        return id;
-                    }
-                }
-            }
-        } else {
+        if (StringUtils.isNotBlank(errorInfo)) {
             // 处理错误信息
             handleError(errorInfo);
         }
-        return "";
+        JSONArray jsonArray = parse.getJSONObject("data").getJSONArray("items");
+        if (jsonArray.isEmpty()) {
+            return null;
+        }
 
+        List<JSONObject> apps = new ArrayList<>();
+        for (int i = 0; i < jsonArray.size(); i++) {
+            apps.add(jsonArray.getJSONObject(i));
+        }
+        CompletableFuture<JSONObject> found = new CompletableFuture<>();
+        Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(apps.size());
+        Runnable[] launch = new Runnable[1];
+        launch[0] = () -> {
+            int i = next.getAndIncrement();
+            if (i >= apps.size() || found.isDone()) {
+                return;
+            }
+            JSONObject app = apps.get(i);
+            CompletableFuture<List<String>> future;
+            try {
+                future = getSubProductTypeNamesAsync(seeConfig, auth, app.getString("id"), app.getString("productId"));
+            } catch (RuntimeException e) {
+                found.completeExceptionally(e);
+                return;
+            }
+            inFlight.add(future);
+            future.whenComplete((productTypeNames, ex) -> {
+                inFlight.remove(future);
+                if (ex != null) {
+                    found.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                    return;
+                }
+                try {
+                    for (String productTypeName : productTypeNames) {
+                        if (productTypeName != null) {
+                            stackAppIndex.putIfAbsent(productTypeName, app);
+                        }
+                    }
+                    if (productTypeNames.contains(applicationName)) {
+                        found.complete(app);
+                    } else if (remaining.decrementAndGet() == 0) {
+                        // 所有合并包都不包含该微服务
+                        found.complete(null);
+                    }
+                    launch[0].run();
+                } catch (RuntimeException e) {
+                    // 回调中的异常不会传给 found，需要显式结束，否则调用线程会一直等待
+                    found.completeExceptionally(e);
+                }
+            });
+        };
+        for (int i = 0; i < Math.min(Math.max(parallelism, 1), apps.size()); i++) {
+            launch[0].run();
+        }
+
+        try {
+            return found.get(STACK_QUERY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("查询合并包信息超时", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof StackAppQueryException) {
+                handleError(cause.getMessage());
+            }
+            throw new IOException(cause);
+        } finally {
+            // 已找到或失败时取消剩余的请求
+            for (CompletableFuture<?> future : inFlight) {
+                future.cancel(true);
+            }
+        }
     }
 
     /**
-     * 判断微服务是否在合并包中
+     * 获取合并包中包含的微服务名称
      *
      * @param seeConfig
      * @param auth
      * @param appId
-     * @param applicationName
+     * @param productId
      * @return
-     * @throws IOException
      */
-    private static boolean existMacroSvr(SeeConfig seeConfig, String auth, String appId, String productId, String applicationName) throws URISyntaxException, IOException {
+    private static CompletableFuture<List<String>> getSubProductTypeNamesAsync(SeeConfig seeConfig, String auth, String appId, String productId) {
         Map<String, String> body = new HashMap<>();
         Map<String, String> header = new HashMap<>();
         header.put("Authorization", "Bearer " + auth);
         body.put("appId", appId);
         body.put("instance_id", productId);
 
-        String response = HttpClientUtil.httpGet(seeConfig.getAddress() + ACM_HSSERVER_APP_GETAPPDETAIL_URL, body, header);
-
-        JSONObject parse = JSONObject.parse(response);
-        // 处理响应
-        String errorInfo = parse.getString("error_info");
-        if (StringUtils.isBlank(errorInfo)) {
+        CompletableFuture<JSONObject> request = getAsync(seeConfig, ACM_HSSERVER_APP_GETAPPDETAIL_URL, body, header);
+        return HttpAsyncClientUtil.propagateCancel(request, request.thenApply(parse -> {
+            // 处理响应
+            String errorInfo = parse.getString("error_info");
+            if (StringUtils.isNotBlank(errorInfo)) {
+                throw new StackAppQueryException(errorInfo);
+            }
+            List<String> productTypeNames = new ArrayList<>();
             JSONArray jsonArray = parse.getJSONObject("data").getJSONArray("subProductInfoList");
-            if (!jsonArray.isEmpty()) {
-                for (int i = 0; i < jsonArray.size(); i++) {
-                    JSONObject jsonObject = jsonArray.getJSONObject(i);
-                    String productTypeName = jsonObject.getString("productTypeName");
-                    if (applicationName.equals(productTypeName)) {
-                        return true;
-                    }
-                }
+            for (int i = 0; i < jsonArray.size(); i++) {
+                productTypeNames.add(jsonArray.getJSONObject(i).getString("productTypeName"));
             }
-        } else {
-            // 处理错误信息
-            handleError(errorInfo);
+            return productTypeNames;
+        }));
+    }
+
+    /**
+     * 合并包查询返回的错误信息
+     */
+    private static class StackAppQueryException extends RuntimeException {
+        StackAppQueryException(String message) {
+            super(message);
         }
-        return false;
     }
 
     // 获取应用信息方法
     public static String getApplication(SeeConfig seeConfig, String applicationName, String auth) throws IOException {
+        JSONObject application = getApplicationInfo(seeConfig, applicationName, auth);
+        return application == null ? "" : application.getString("id");
+    }
+
+    /**
+     * 获取应用信息
+     *
+     * @param seeConfig
+     * @param applicationName
+     * @param auth
+     * @return 应用信息，未找到时返回null
+     * @throws IOException
+     */
+    public static JSONObject getApplicationInfo(SeeConfig seeConfig, String applicationName, String auth) throws IOException {
         Map<String, String> body = new HashMap<>();
         Map<String, String> header = new HashMap<>();
         body.put("pageNo", "1");
@@ -185,7 +631,7 @@ public class SeeRequestController {
         header.put("Authorization", "Bearer " + auth);
 
         // 发起获取应用信息的请求
-        String response = HttpClientUtil.httpPost(seeConfig.getAddress() + ACM_DSSP_APPLICATION_QUERY_JSON_URL, body, header);
+        String response = post(seeConfig, ACM_DSSP_APPLICATION_QUERY_JSON_URL, body, header);
         JSONObject parse = JSONObject.parse(response);
 
         // 处理响应
@@ -193,14 +639,13 @@ public class SeeRequestController {
         if (StringUtils.isBlank(errorInfo)) {
             JSONArray jsonArray = parse.getJSONObject("data").getJSONArray("items");
             if (!jsonArray.isEmpty()) {
-                JSONObject jsonObject = jsonArray.getJSONObject(0);
-                return jsonObject.getString("id");
+                return jsonArray.getJSONObject(0);
             }
         } else {
             // 处理错误信息
             handleError(errorInfo);
         }
-        return "";
+        return null;
     }
 
     // 获取配置文件信息
@@ -210,9 +655,8 @@ public class SeeRequestController {
         header.put("Authorization", "Bearer " + auth);
         body.put("applicationId", applicationId);
 
-        // 发起获取配置信息的请求
-        String response = HttpClientUtil.httpPost(seeConfig.getAddress() + ACM_DSSP_CONFIG_GET_COMPARE_CONFIG_JSON_URL, body, header);
-        return JSONObject.parse(response);
+        // 发起获取配置信息的请求，配置内容较大，流式解析
+        return post(seeConfig, ACM_DSSP_CONFIG_GET_COMPARE_CONFIG_JSON_URL, body, header, SeeResponseParser::readConfigInfo);
     }
 
     // 获取新版配置文件
@@ -223,7 +667,7 @@ public class SeeRequestController {
         body.put("appId", applicationId);
 
         // 发起获取配置信息的请求
-        String response = HttpClientUtil.httpPost(seeConfig.getAddress() + ACM_BROKER_UF30DEPLOY_EXPORTAPPCONFIG_URL, body, header);
+        String response = post(seeConfig, ACM_BROKER_UF30DEPLOY_EXPORTAPPCONFIG_URL, body, header);
         return JSONObject.parse(response);
     }
 
@@ -231,7 +675,7 @@ public class SeeRequestController {
         Map<String, String> header = new HashMap<>();
         header.put("Authorization", "Bearer " + auth);
         // 发起获取应用信息的请求
-        String response = HttpClientUtil.httpGet(seeConfig.getAddress() + ACM_APPLICATION_COMPUTERSTATUS_UF30ANDXONEAPPS_URL, null, header);
+        String response = get(seeConfig, ACM_APPLICATION_COMPUTERSTATUS_UF30ANDXONEAPPS_URL, null, header);
         return JSONObject.parse(response);
     }
 
@@ -241,10 +685,19 @@ public class SeeRequestController {
         header.put("Authorization", "Bearer " + auth);
         params.put("appId", appId);
         // 发起获取应用信息的请求
-        String response = HttpClientUtil.httpGet(seeConfig.getAddress() + ACM_BROKER_APPMENU_LOCALCACHEFORMDATAONLYCOMPUTER_URL, params, header);
+        String response = get(seeConfig, ACM_BROKER_APPMENU_LOCALCACHEFORMDATAONLYCOMPUTER_URL, params, header);
         return JSONObject.parse(response);
     }
 
+    public static CompletableFuture<JSONObject> getLocalCacheFormDataOnlyTableAsync(SeeConfig seeConfig, String auth, String ip, String port) {
+        Map<String, String> header = new HashMap<>();
+        Map<String, Object> body = new HashMap<>();
+        header.put("Authorization", "Bearer " + auth);
+        body.put("ip", ip);
+        body.put("port", port);
+        return postJSONAsync(seeConfig, ACM_BROKER_APPMENU_LOCALCACHEFORMDATAONLYTABLE_URL, body, header);
+    }
+
     public static JSONObject getLocalCacheFormDataOnlyTable(SeeConfig seeConfig, String auth, String ip, String port) throws IOException, URISyntaxException {
         Map<String, String> header = new HashMap<>();
         Map<String, Object> body = new HashMap<>();
@@ -252,19 +705,52 @@ public class SeeRequestController {
         body.put("ip", ip);
         body.put("port", port);
         // 发起获取应用信息的请求
-        String response = HttpClientUtil.httpPostJSON(seeConfig.getAddress() + ACM_BROKER_APPMENU_LOCALCACHEFORMDATAONLYTABLE_URL, body, header);
+        String response = postJSON(seeConfig, ACM_BROKER_APPMENU_LOCALCACHEFORMDATAONLYTABLE_URL, body, header);
         return JSONObject.parse(response);
     }
 
 
     public static JSONObject getCacheData(String url, Map<String, Object> params) throws IOException, URISyntaxException {
         Map<String, String> header = new HashMap<>();
-        // 发起获取应用信息的请求
-        String response = HttpClientUtil.httpPostJSON(url, params, header);
-        return JSONObject.parse(response);
+        // 发起获取缓存数据的请求，数据量较大，流式解析
+        return HttpClientUtil.httpPostJSON(url, params, header, null,
+                response -> readStream(response, SeeResponseParser::readCacheData));
+    }
+
+
+    public static CompletableFuture<JSONObject> getCacheDataAsync(String url, Map<String, Object> params) {
+        // 与同步版本一样流式解析，数据边接收边解析，不把整个响应体读为字符串
+        return HttpAsyncClientUtil.httpPostJSONStreamAsync(url, params, new HashMap<>(), null,
+                (response, content) -> readStream(response, content, SeeResponseParser::readCacheData));
     }
 
 
+    /**
+     * 分页查询节点上的内存表数据
+     *
+     * @param nodeIp    节点地址 ip:port
+     * @param tableName 内存表
+     * @param pageNum   页码，从1开始
+     * @param pageSize  每页行数
+     * @return 响应中的 data
+     */
+    public static CompletableFuture<JSONObject> getCacheByPageAsync(String nodeIp, String tableName, int pageNum, int pageSize) {
+        String[] split = nodeIp.split(":");
+        String url = "http://" + split[0].trim() + ":" + split[1].trim() + "/localCache/getCacheByPage";
+        Map<String, Object> params = new HashMap<>();
+        params.put("tableName", tableName);
+        params.put("pageNum", String.valueOf(pageNum));
+        params.put("pageSize", String.valueOf(pageSize));
+        CompletableFuture<JSONObject> request = getCacheDataAsync(url, params);
+        return HttpAsyncClientUtil.propagateCancel(request, request.thenApply(cacheData -> {
+            if (!"true".equals(cacheData.getString("success"))) {
+                throw new CompletionException(new IOException("查询缓存失败: " + tableName));
+            }
+            JSONObject data = cacheData.getJSONObject("data");
+            return data == null ? new JSONObject() : data;
+        }));
+    }
+
     // 处理错误信息方法
     private static void handleError(String errorInfo) {
         ApplicationManager.getApplication().invokeLater(() -> {
@@ -283,7 +769,7 @@ public class SeeRequestController {
         body.put("runStatus", "running");
 
         // 发起获取应用信息的请求
-        String response = HttpClientUtil.httpPost(seeConfig.getAddress() + ACM_GOVERNANCE_SERVICE_PAGESERVICELIST_URL, body, header);
+        String response = post(seeConfig, ACM_GOVERNANCE_SERVICE_PAGESERVICELIST_URL, body, header);
         JSONObject parse = JSONObject.parse(response);
         return parse;
     }
@@ -293,16 +779,28 @@ public class SeeRequestController {
         header.put("Authorization", "Bearer " + auth);
 
         // 发起获取应用信息的请求
-        String response = HttpClientUtil.httpPost(seeConfig.getAddress() + ACM_GOVERNANCE_SERVICE_SERVICEINFOQUERY_URL, body, header);
+        String response = post(seeConfig, ACM_GOVERNANCE_SERVICE_SERVICEINFOQUERY_URL, body, header);
         return JSONObject.parse(response);
     }
 
+    public static CompletableFuture<JSONObject> getServiceInfoAsync(SeeConfig seeConfig, String auth, Map<String, String> body) {
+        Map<String, String> header = new HashMap<>();
+        header.put("Authorization", "Bearer " + auth);
+        return postAsync(seeConfig, ACM_GOVERNANCE_SERVICE_SERVICEINFOQUERY_URL, body, header);
+    }
+
     public static JSONObject localCacheRefresh(SeeConfig seeConfig, String auth, Map<String, Object> body) throws IOException {
         Map<String, String> header = new HashMap<>();
         header.put("Authorization", "Bearer " + auth);
 
         // 发起获取应用信息的请求
-        String response = HttpClientUtil.httpPostJSON(seeConfig.getAddress() + ACM_BROKER_APPMENU_LOACALCACHEREFRESH_URL, body, header);
+        String response = postJSON(seeConfig, ACM_BROKER_APPMENU_LOACALCACHEREFRESH_URL, body, header);
         return JSONObject.parse(response);
     }
+
+    public static CompletableFuture<JSONObject> localCacheRefreshAsync(SeeConfig seeConfig, String auth, Map<String, Object> body) {
+        Map<String, String> header = new HashMap<>();
+        header.put("Authorization", "Bearer " + auth);
+        return postJSONAsync(seeConfig, ACM_BROKER_APPMENU_LOACALCACHEREFRESH_URL, body, header);
+    }
 }
@@ -0,0 +1,198 @@
+package com.github.hanfeng21050.controller;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONReader;
+
+/**
+ * SEE响应流式解析
+ * 配置文件、缓存数据等响应体积较大，使用 {@link JSONReader} 逐个读取字段，只保留用到的部分，其余直接跳过
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+class SeeResponseParser {
+    private static final String ALL_ROW_KEY = "all#";
+
+    /**
+     * 解析配置文件响应 getCompareConfig.json
+     * 只保留顶层的状态字段和 data.node[]，每个节点只保留 name 以及节点下所有 config[] 中的 path、content，
+     * 返回结构与原响应一致：{"error_info": .., "data": {"node": [{"name": .., "config": [{"path": .., "content": ..}]}]}}
+     *
+     * @param reader 响应读取器
+     * @return {@link JSONObject}
+     */
+    static JSONObject readConfigInfo(JSONReader reader) {
+        JSONObject result = new JSONObject();
+        if (!reader.nextIfObjectStart()) {
+            reader.skipValue();
+            return result;
+        }
+        while (!reader.nextIfObjectEnd()) {
+            String fieldName = reader.readFieldName();
+            if ("data".equals(fieldName) && reader.isObject()) {
+                result.put(fieldName, readConfigData(reader));
+            } else {
+                readScalar(reader, fieldName, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 解析缓存数据响应 getCacheByPage
+     * 只保留顶层的状态字段和 data.data，跳过汇总行 all#，每行只保留第一条记录
+     *
+     * @param reader 响应读取器
+     * @return {@link JSONObject}
+     */
+    static JSONObject readCacheData(JSONReader reader) {
+        JSONObject result = new JSONObject();
+        if (!reader.nextIfObjectStart()) {
+            reader.skipValue();
+            return result;
+        }
+        while (!reader.nextIfObjectEnd()) {
+            String fieldName = reader.readFieldName();
+            if ("data".equals(fieldName) && reader.isObject()) {
+                JSONObject data = new JSONObject();
+                reader.nextIfObjectStart();
+                while (!reader.nextIfObjectEnd()) {
+                    String dataFieldName = reader.readFieldName();
+                    if ("data".equals(dataFieldName) && reader.isObject()) {
+                        data.put(dataFieldName, readCacheRows(reader));
+                    } else {
+                        readScalar(reader, dataFieldName, data);
+                    }
+                }
+                result.put(fieldName, data);
+            } else {
+                readScalar(reader, fieldName, result);
+            }
+        }
+        return result;
+    }
+
+    private static JSONObject readCacheRows(JSONReader reader) {
+        JSONObject rows = new JSONObject();
+        reader.nextIfObjectStart();
+        while (!reader.nextIfObjectEnd()) {
+            String rowKey = reader.readFieldName();
+            if (ALL_ROW_KEY.equals(rowKey) || !reader.isArray()) {
+                reader.skipValue();
+                continue;
+            }
+            JSONArray row = new JSONArray();
+            reader.nextIfArrayStart();
+            if (reader.isObject()) {
+                row.add(reader.read(JSONObject.class));
+            }
+            while (!reader.nextIfArrayEnd()) {
+                reader.skipValue();
+            }
+            if (!row.isEmpty()) {
+                rows.put(rowKey, row);
+            }
+        }
+        return rows;
+    }
+
+    private static JSONObject readConfigData(JSONReader reader) {
+        JSONObject data = new JSONObject();
+        JSONArray nodes = new JSONArray();
+        reader.nextIfObjectStart();
+        while (!reader.nextIfObjectEnd()) {
+            String fieldName = reader.readFieldName();
+            if ("node".equals(fieldName) && reader.isArray()) {
+                reader.nextIfArrayStart();
+                while (!reader.nextIfArrayEnd()) {
+                    if (reader.isObject()) {
+                        nodes.add(readConfigNode(reader));
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+        data.put("node", nodes);
+        return data;
+    }
+
+    private static JSONObject readConfigNode(JSONReader reader) {
+        JSONObject node = new JSONObject();
+        JSONArray configs = new JSONArray();
+        reader.nextIfObjectStart();
+        while (!reader.nextIfObjectEnd()) {
+            String fieldName = reader.readFieldName();
+            if ("name".equals(fieldName) && reader.isString()) {
+                node.put(fieldName, reader.readString());
+            } else {
+                collectConfigs(reader, fieldName, configs);
+            }
+        }
+        node.put("config", configs);
+        return node;
+    }
+
+    /**
+     * 递归收集所有 config[] 中的配置文件
+     *
+     * @param reader    响应读取器
+     * @param fieldName 当前字段名
+     * @param configs   配置文件集合
+     */
+    private static void collectConfigs(JSONReader reader, String fieldName, JSONArray configs) {
+        if ("config".equals(fieldName) && reader.isArray()) {
+            reader.nextIfArrayStart();
+            while (!reader.nextIfArrayEnd()) {
+                if (reader.isObject()) {
+                    JSONObject config = readConfigFile(reader);
+                    if (config.containsKey("path")) {
+                        configs.add(config);
+                    }
+                } else {
+                    reader.skipValue();
+                }
+            }
+        } else if (reader.isObject()) {
+            reader.nextIfObjectStart();
+            while (!reader.nextIfObjectEnd()) {
+                collectConfigs(reader, reader.readFieldName(), configs);
+            }
+        } else if (reader.isArray()) {
+            reader.nextIfArrayStart();
+            while (!reader.nextIfArrayEnd()) {
+                collectConfigs(reader, null, configs);
+            }
+        } else {
+            reader.skipValue();
+        }
+    }
+
+    private static JSONObject readConfigFile(JSONReader reader) {
+        JSONObject config = new JSONObject();
+        reader.nextIfObjectStart();
+        while (!reader.nextIfObjectEnd()) {
+            String fieldName = reader.readFieldName();
+            if (("path".equals(fieldName) || "content".equals(fieldName)) && reader.isString()) {
+                config.put(fieldName, reader.readString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        return config;
+    }
+
+    /**
+     * 读取状态字段，对象和数组直接跳过
+     */
+    private static void readScalar(JSONReader reader, String fieldName, JSONObject target) {
+        if (reader.isObject() || reader.isArray()) {
+            reader.skipValue();
+        } else {
+            target.put(fieldName, reader.readAny());
+        }
+    }
+}
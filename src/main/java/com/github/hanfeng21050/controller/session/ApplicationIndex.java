@@ -0,0 +1,246 @@
+package com.github.hanfeng21050.controller.session;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.github.hanfeng21050.config.SeeConfig;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 应用ID索引
+ * 按环境持久化 微服务名称 -> 应用ID 的映射，保存在插件的system目录下，切换环境时可直接命中，无需重新查询
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class ApplicationIndex {
+    private static final Logger LOGGER = Logger.getInstance(ApplicationIndex.class);
+
+    /**
+     * 索引条目超过该时间后，命中时在后台重新校验
+     */
+    public static final long REVALIDATE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final String INDEX_DIR = "easy-env/app-index";
+
+    /**
+     * 环境uuid -> 索引，索引记录所属的环境地址
+     */
+    private static final Map<String, Index> INDEXES = new ConcurrentHashMap<>();
+
+    /**
+     * 获取索引条目
+     *
+     * @param seeConfig       环境配置
+     * @param applicationName 微服务名称
+     * @return 索引条目，不存在时返回null
+     */
+    public static Entry get(SeeConfig seeConfig, String applicationName) {
+        return getIndex(seeConfig).get(applicationName);
+    }
+
+    /**
+     * 写入索引条目并在后台保存
+     *
+     * @param seeConfig       环境配置
+     * @param applicationName 微服务名称
+     * @param entry           索引条目
+     */
+    public static void put(SeeConfig seeConfig, String applicationName, Entry entry) {
+        getIndex(seeConfig).put(applicationName, entry);
+        saveAsync(seeConfig);
+    }
+
+    /**
+     * 批量写入合并包索引，合并包查询时会得到多个微服务的归属，一并记录
+     *
+     * @param seeConfig 环境配置
+     * @param stackApps 微服务名称 -> 合并包应用信息
+     */
+    public static void putStackApps(SeeConfig seeConfig, Map<String, JSONObject> stackApps) {
+        if (stackApps.isEmpty()) {
+            return;
+        }
+        Map<String, Entry> index = getIndex(seeConfig);
+        stackApps.forEach((name, app) -> index.put(name, Entry.of(app, true)));
+        saveAsync(seeConfig);
+    }
+
+    /**
+     * 移除失效的索引条目
+     *
+     * @param seeConfig       环境配置
+     * @param applicationName 微服务名称
+     */
+    public static void invalidate(SeeConfig seeConfig, String applicationName) {
+        if (getIndex(seeConfig).remove(applicationName) != null) {
+            saveAsync(seeConfig);
+        }
+    }
+
+    /**
+     * 环境的索引，环境地址变更后旧索引不再可用，重新读取
+     */
+    private static Map<String, Entry> getIndex(SeeConfig seeConfig) {
+        return INDEXES.compute(seeConfig.getUuid(), (uuid, index) ->
+                index != null && index.address.equals(seeConfig.getAddress()) ? index : new Index(seeConfig.getAddress(), load(seeConfig))).entries;
+    }
+
+    private static Path getIndexFile(String uuid) {
+        return Paths.get(PathManager.getSystemPath(), INDEX_DIR, uuid + ".json");
+    }
+
+    private static Map<String, Entry> load(SeeConfig seeConfig) {
+        Map<String, Entry> index = new ConcurrentHashMap<>();
+        Path file = getIndexFile(seeConfig.getUuid());
+        if (!Files.isRegularFile(file)) {
+            return index;
+        }
+        try {
+            IndexFile indexFile = JSON.parseObject(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), IndexFile.class);
+            // 环境地址变更后旧索引不再可用
+            if (indexFile != null && seeConfig.getAddress().equals(indexFile.getAddress()) && indexFile.getEntries() != null) {
+                index.putAll(indexFile.getEntries());
+            }
+        } catch (Exception e) {
+            LOGGER.warn("读取应用索引失败: " + file, e);
+        }
+        return index;
+    }
+
+    private static void saveAsync(SeeConfig seeConfig) {
+        String uuid = seeConfig.getUuid();
+        String address = seeConfig.getAddress();
+        AppExecutorUtil.getAppExecutorService().execute(() -> save(uuid, address));
+    }
+
+    private static void save(String uuid, String address) {
+        Index current = INDEXES.get(uuid);
+        // 保存前环境地址已变更，旧地址的索引不再保存
+        if (current == null || !current.address.equals(address)) {
+            return;
+        }
+        Map<String, Entry> index = current.entries;
+        IndexFile indexFile = new IndexFile();
+        indexFile.setAddress(address);
+        indexFile.setEntries(index);
+        Path file = getIndexFile(uuid);
+        synchronized (index) {
+            try {
+                Files.createDirectories(file.getParent());
+                // 先写临时文件再替换，避免写入中断导致索引损坏
+                Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+                Files.write(tmp, JSON.toJSONString(indexFile).getBytes(StandardCharsets.UTF_8));
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                LOGGER.warn("保存应用索引失败: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * 一个环境的索引
+     */
+    private static class Index {
+        private final String address;
+        private final Map<String, Entry> entries;
+
+        Index(String address, Map<String, Entry> entries) {
+            this.address = address;
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * 索引文件
+     */
+    public static class IndexFile {
+        private String address;
+        private Map<String, Entry> entries;
+
+        public String getAddress() {
+            return address;
+        }
+
+        public void setAddress(String address) {
+            this.address = address;
+        }
+
+        public Map<String, Entry> getEntries() {
+            return entries;
+        }
+
+        public void setEntries(Map<String, Entry> entries) {
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * 索引条目
+     */
+    public static class Entry {
+        private String appId;
+        private String productId;
+        private boolean stackMode;
+        private long updateTime;
+
+        public static Entry of(JSONObject application, boolean stackMode) {
+            Entry entry = new Entry();
+            entry.setAppId(application.getString("id"));
+            entry.setProductId(application.getString("productId"));
+            entry.setStackMode(stackMode);
+            entry.setUpdateTime(System.currentTimeMillis());
+            return entry;
+        }
+
+        /**
+         * 是否需要重新校验
+         */
+        public boolean shouldRevalidate() {
+            return System.currentTimeMillis() - updateTime > REVALIDATE_MILLIS;
+        }
+
+        public String getAppId() {
+            return appId;
+        }
+
+        public void setAppId(String appId) {
+            this.appId = appId;
+        }
+
+        public String getProductId() {
+            return productId;
+        }
+
+        public void setProductId(String productId) {
+            this.productId = productId;
+        }
+
+        public boolean isStackMode() {
+            return stackMode;
+        }
+
+        public void setStackMode(boolean stackMode) {
+            this.stackMode = stackMode;
+        }
+
+        public long getUpdateTime() {
+            return updateTime;
+        }
+
+        public void setUpdateTime(long updateTime) {
+            this.updateTime = updateTime;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.hanfeng21050.controller.session;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 环境元数据缓存，如微服务列表、节点列表、内存表列表
+ * 在有效期内直接返回；过期后先返回旧值，同时在后台重新加载，加载结果有变化时通知调用方；
+ * 超过最长保留时间的值不再使用，等待重新加载。同一个键同时只会有一个加载请求
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class MetadataCache {
+    private static final Logger LOGGER = Logger.getInstance(MetadataCache.class);
+
+    /**
+     * 有效期
+     */
+    public static final long FRESH_MILLIS = 60 * 1000;
+    /**
+     * 最长保留时间
+     */
+    public static final long MAX_STALE_MILLIS = 60 * 60 * 1000;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 获取缓存的值
+     *
+     * @param key           键
+     * @param loader        加载
+     * @param onRevalidated 返回旧值后，后台加载到不同的值时回调，在后台线程上执行
+     * @return 值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> get(String key, Supplier<CompletableFuture<T>> loader, Consumer<T> onRevalidated) {
+        Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+        long age = System.currentTimeMillis() - entry.loadedAt;
+        if (entry.loaded && age < FRESH_MILLIS) {
+            return CompletableFuture.completedFuture((T) entry.value);
+        }
+        if (entry.loaded && age < MAX_STALE_MILLIS) {
+            T stale = (T) entry.value;
+            load(key, entry, loader).thenAccept(value -> {
+                if (!Objects.equals(stale, value)) {
+                    onRevalidated.accept(value);
+                }
+            }).exceptionally(ex -> {
+                LOGGER.warn("刷新元数据失败: " + key, ex);
+                return null;
+            });
+            return CompletableFuture.completedFuture(stale);
+        }
+        return load(key, entry, loader);
+    }
+
+    /**
+     * 清除指定前缀的缓存
+     *
+     * @param prefix 键前缀，为空时清除全部
+     */
+    public void invalidate(String prefix) {
+        entries.keySet().removeIf(key -> prefix == null || key.startsWith(prefix));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> load(String key, Entry entry, Supplier<CompletableFuture<T>> loader) {
+        synchronized (entry) {
+            if (entry.inFlight != null) {
+                return (CompletableFuture<T>) entry.inFlight;
+            }
+            CompletableFuture<T> future = loader.get();
+            entry.inFlight = future;
+            future.whenComplete((value, ex) -> {
+                synchronized (entry) {
+                    entry.inFlight = null;
+                    if (ex == null) {
+                        entry.value = value;
+                        entry.loadedAt = System.currentTimeMillis();
+                        entry.loaded = true;
+                    }
+                }
+            });
+            return future;
+        }
+    }
+
+    private static class Entry {
+        private volatile Object value;
+        private volatile long loadedAt;
+        private volatile boolean loaded;
+        private CompletableFuture<?> inFlight;
+    }
+}
@@ -0,0 +1,199 @@
+package com.github.hanfeng21050.controller.session;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.github.hanfeng21050.config.SeeConfig;
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.BasicCookieStore;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * SEE环境会话
+ * 每个环境拥有独立的cookie和认证信息，不同环境之间互不影响
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class SeeSession {
+    private final String uuid;
+    private final String address;
+    private final String username;
+    private final CookieStore cookieStore = new BasicCookieStore();
+    /**
+     * 微服务名称 -> 合并包应用信息
+     */
+    private final Map<String, JSONObject> stackAppIndex = new ConcurrentHashMap<>();
+    /**
+     * 微服务、节点、内存表等元数据
+     */
+    private final MetadataCache metadataCache = new MetadataCache();
+    private volatile String auth = "";
+    /**
+     * 认证信息过期时间
+     */
+    private volatile long authExpireAt;
+    /**
+     * 最近一次使用时间，长时间未使用的会话不再后台刷新
+     */
+    private volatile long lastAccess;
+    /**
+     * 是否已完成CAS登录
+     */
+    private volatile boolean loggedIn;
+    private ScheduledFuture<?> refreshTask;
+
+    SeeSession(String uuid, String address, String username) {
+        this.uuid = uuid;
+        this.address = address;
+        this.username = username;
+    }
+
+    /**
+     * 会话是否对应环境当前的地址和用户名
+     */
+    public boolean matches(SeeConfig seeConfig) {
+        return address.equals(seeConfig.getAddress()) && Objects.equals(username, seeConfig.getUsername());
+    }
+
+    /**
+     * 创建请求上下文
+     * HttpClientContext 不是线程安全的，每次请求都需要新建，cookie在同一会话内共享
+     *
+     * @return {@link HttpClientContext}
+     */
+    public HttpClientContext newContext() {
+        HttpClientContext context = HttpClientContext.create();
+        context.setCookieStore(cookieStore);
+        return context;
+    }
+
+    /**
+     * 重置会话，清除cookie和认证信息
+     */
+    public synchronized void reset() {
+        cookieStore.clear();
+        auth = "";
+        authExpireAt = 0;
+        loggedIn = false;
+        cancelRefresh();
+    }
+
+    /**
+     * 认证信息仍为失效的那一个时才重置会话，已被其他线程刷新时保留新的认证信息
+     *
+     * @param failedAuth 请求时使用、已失效的认证信息
+     * @return 是否重置
+     */
+    public synchronized boolean resetIfAuth(String failedAuth) {
+        if (!auth.equals(failedAuth)) {
+            return false;
+        }
+        reset();
+        return true;
+    }
+
+    /**
+     * 认证信息是否在有效期内
+     *
+     * @param marginMillis 提前失效的时间
+     * @return 是否有效
+     */
+    public boolean isAuthValid(long marginMillis) {
+        return !auth.isEmpty() && System.currentTimeMillis() + marginMillis < authExpireAt;
+    }
+
+    /**
+     * 更新认证信息
+     *
+     * @param auth     认证信息
+     * @param expireAt 过期时间
+     */
+    public void updateAuth(String auth, long expireAt) {
+        this.auth = auth;
+        this.authExpireAt = expireAt;
+    }
+
+    /**
+     * 认证信息仍为 expected 时才更新，已被其他线程刷新或重置时不更新
+     *
+     * @param expected 请求前的认证信息
+     * @param auth     新的认证信息
+     * @param expireAt 过期时间
+     * @return 是否更新
+     */
+    public synchronized boolean compareAndSetAuth(String expected, String auth, long expireAt) {
+        if (!this.auth.equals(expected)) {
+            return false;
+        }
+        updateAuth(auth, expireAt);
+        return true;
+    }
+
+    /**
+     * 记录会话被使用
+     */
+    public void touch() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    /**
+     * 设置后台刷新任务，取消上一次的任务
+     *
+     * @param refreshTask 刷新任务
+     */
+    public synchronized void setRefreshTask(ScheduledFuture<?> refreshTask) {
+        cancelRefresh();
+        this.refreshTask = refreshTask;
+    }
+
+    private void cancelRefresh() {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+            refreshTask = null;
+        }
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public Map<String, JSONObject> getStackAppIndex() {
+        return stackAppIndex;
+    }
+
+    public MetadataCache getMetadataCache() {
+        return metadataCache;
+    }
+
+    public String getAuth() {
+        return auth;
+    }
+
+    public void setAuth(String auth) {
+        this.auth = auth;
+    }
+
+    public long getAuthExpireAt() {
+        return authExpireAt;
+    }
+
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    public boolean isLoggedIn() {
+        return loggedIn;
+    }
+
+    public void setLoggedIn(boolean loggedIn) {
+        this.loggedIn = loggedIn;
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.hanfeng21050.controller.session;
+
+import com.github.hanfeng21050.config.SeeConfig;
+import com.github.hanfeng21050.utils.HttpAsyncClientUtil;
+import com.github.hanfeng21050.utils.HttpClientUtil;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SEE环境会话管理
+ * 以 {@link SeeConfig#getUuid()} 为键保存各环境的会话
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class SeeSessionManager {
+    /**
+     * 每个环境的路由最大连接数，低于连接池默认的每路由20个，避免单个环境的批量请求占满连接池
+     */
+    private static final int MAX_PER_ROUTE = 8;
+
+    private static final Map<String, SeeSession> SESSIONS = new ConcurrentHashMap<>();
+
+    /**
+     * 获取环境对应的会话，不存在或地址、用户名变更时新建
+     * 被替换的旧会话会被重置，停止其后台刷新
+     *
+     * @param seeConfig 环境配置
+     * @return {@link SeeSession}
+     */
+    public static SeeSession getSession(SeeConfig seeConfig) {
+        SeeSession session = SESSIONS.get(seeConfig.getUuid());
+        if (session != null && session.matches(seeConfig)) {
+            return session;
+        }
+        SeeSession created = new SeeSession(seeConfig.getUuid(), seeConfig.getAddress(), seeConfig.getUsername());
+        SeeSession[] replaced = new SeeSession[1];
+        session = SESSIONS.compute(seeConfig.getUuid(), (uuid, current) -> {
+            if (current != null && current.matches(seeConfig)) {
+                return current;
+            }
+            replaced[0] = current;
+            return created;
+        });
+        if (session == created) {
+            // 连接池配置和旧会话的重置不在 compute 中进行，避免持有锁时初始化客户端
+            if (replaced[0] != null) {
+                replaced[0].reset();
+            }
+            HttpClientUtil.setMaxPerRoute(seeConfig.getAddress(), MAX_PER_ROUTE);
+            HttpAsyncClientUtil.setMaxPerRoute(seeConfig.getAddress(), MAX_PER_ROUTE);
+        }
+        return session;
+    }
+
+    /**
+     * 会话是否仍是环境当前使用的会话，被替换或移除的会话不应再刷新认证信息
+     *
+     * @param session 会话
+     * @return 是否为当前会话
+     */
+    public static boolean isCurrent(SeeSession session) {
+        return SESSIONS.get(session.getUuid()) == session;
+    }
+
+    /**
+     * 移除环境对应的会话并重置，环境被修改或删除时调用
+     *
+     * @param uuid 环境ID
+     */
+    public static void removeSession(String uuid) {
+        SeeSession session = SESSIONS.remove(uuid);
+        if (session != null) {
+            session.reset();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.github.hanfeng21050.controller.sync;
+
+import com.github.hanfeng21050.config.EasyEnvConfig;
+
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 预编译的替换规则和排除规则
+ * 配置变化时重新构建，正则和文件名匹配器只编译一次，每个文件名对应的规则也只计算一次
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class CompiledRuleSet {
+    private static volatile CompiledRuleSet cached;
+
+    /**
+     * 构建时的规则内容，用于判断配置是否变化
+     */
+    private final List<String> fingerprint;
+    private final List<CompiledRule> rules;
+    private final List<PathMatcher> excludedMatchers;
+    private final Map<String, List<CompiledRule>> rulesByFileName = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> excludedByFileName = new ConcurrentHashMap<>();
+
+    private CompiledRuleSet(List<String> fingerprint, EasyEnvConfig config) {
+        this.fingerprint = fingerprint;
+        List<CompiledRule> rules = new ArrayList<>();
+        for (EasyEnvConfig.ConfigReplaceRule rule : config.getConfigReplaceRules()) {
+            rules.add(new CompiledRule(rule));
+        }
+        this.rules = Collections.unmodifiableList(rules);
+        List<PathMatcher> excludedMatchers = new ArrayList<>();
+        for (EasyEnvConfig.ExcludedFile excludedFile : config.getExcludedFiles()) {
+            excludedMatchers.add(globMatcher(excludedFile.getFileName()));
+        }
+        this.excludedMatchers = Collections.unmodifiableList(excludedMatchers);
+    }
+
+    /**
+     * 获取配置对应的规则集，配置未变化时直接复用
+     *
+     * @param config 插件配置
+     * @return {@link CompiledRuleSet}
+     */
+    public static CompiledRuleSet of(EasyEnvConfig config) {
+        List<String> fingerprint = fingerprint(config);
+        CompiledRuleSet ruleSet = cached;
+        if (ruleSet == null || !ruleSet.fingerprint.equals(fingerprint)) {
+            ruleSet = new CompiledRuleSet(fingerprint, config);
+            cached = ruleSet;
+        }
+        return ruleSet;
+    }
+
+    /**
+     * 文件是否在排除列表内
+     *
+     * @param fileName 文件名
+     * @return 是否排除
+     */
+    public boolean isExcluded(String fileName) {
+        return excludedByFileName.computeIfAbsent(fileName, name -> {
+            for (PathMatcher matcher : excludedMatchers) {
+                if (matcher.matches(Paths.get(name))) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * 获取文件适用的替换规则
+     *
+     * @param fileName 文件名
+     * @return 替换规则，按配置顺序
+     */
+    public List<CompiledRule> getRules(String fileName) {
+        return rulesByFileName.computeIfAbsent(fileName, name -> {
+            List<CompiledRule> matched = new ArrayList<>();
+            for (CompiledRule rule : rules) {
+                if (rule.fileMatcher.matches(Paths.get(name))) {
+                    matched.add(rule);
+                }
+            }
+            return matched.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(matched);
+        });
+    }
+
+    /**
+     * 对内容依次应用规则
+     *
+     * @param rules   替换规则
+     * @param content 文件内容
+     * @return 替换后的内容
+     */
+    public static String apply(List<CompiledRule> rules, String content) {
+        for (CompiledRule rule : rules) {
+            content = rule.pattern.matcher(content).replaceAll(rule.replaceStr);
+        }
+        return content;
+    }
+
+    private static List<String> fingerprint(EasyEnvConfig config) {
+        List<String> fingerprint = new ArrayList<>();
+        for (EasyEnvConfig.ConfigReplaceRule rule : config.getConfigReplaceRules()) {
+            fingerprint.add(rule.getFileName());
+            fingerprint.add(rule.getRegExpression());
+            fingerprint.add(rule.getReplaceStr());
+        }
+        // 分隔替换规则和排除规则
+        fingerprint.add(null);
+        for (EasyEnvConfig.ExcludedFile excludedFile : config.getExcludedFiles()) {
+            fingerprint.add(excludedFile.getFileName());
+        }
+        return fingerprint;
+    }
+
+    private static PathMatcher globMatcher(String pattern) {
+        return FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+    }
+
+    /**
+     * 编译后的替换规则
+     */
+    public static class CompiledRule {
+        private final String regExpression;
+        private final PathMatcher fileMatcher;
+        private final Pattern pattern;
+        private final String replaceStr;
+
+        CompiledRule(EasyEnvConfig.ConfigReplaceRule rule) {
+            this.regExpression = rule.getRegExpression();
+            this.fileMatcher = globMatcher(rule.getFileName());
+            this.pattern = Pattern.compile(regExpression);
+            this.replaceStr = rule.getReplaceStr();
+        }
+
+        public Pattern getPattern() {
+            return pattern;
+        }
+
+        public String getReplaceStr() {
+            return replaceStr;
+        }
+
+        public String getRegExpression() {
+            return regExpression;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.github.hanfeng21050.controller.sync;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.TypeReference;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 配置文件增量同步
+ * 比较新内容与磁盘文件的哈希，只写入有变化的文件；
+ * 已同步文件的 大小、修改时间、哈希 记录在清单中，文件未被改动时无需重新读取计算哈希
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class ConfigFileSyncer {
+    private static final Logger LOGGER = Logger.getInstance(ConfigFileSyncer.class);
+
+    private static final String MANIFEST_DIR = "easy-env/sync-manifest";
+
+    private final Path manifestFile;
+    private final Map<String, ManifestEntry> manifest;
+    private final ConfigSyncReport report = new ConfigSyncReport();
+
+    /**
+     * @param projectBasePath 项目根目录，每个项目使用单独的清单
+     */
+    public ConfigFileSyncer(String projectBasePath) {
+        this.manifestFile = Paths.get(PathManager.getSystemPath(), MANIFEST_DIR, DigestUtils.md5Hex(projectBasePath) + ".json");
+        this.manifest = loadManifest(manifestFile);
+    }
+
+    /**
+     * 同步文件内容，内容未变化时不写入
+     *
+     * @param file    目标文件
+     * @param content 文件内容
+     * @return 同步状态
+     */
+    public ConfigSyncReport.Status write(File file, byte[] content) throws IOException {
+        String hash = DigestUtils.sha256Hex(content);
+        String key = file.getAbsolutePath();
+        ConfigSyncReport.Status status;
+        if (!file.exists()) {
+            status = ConfigSyncReport.Status.ADDED;
+        } else if (hash.equals(diskHash(key, file, content.length))) {
+            status = ConfigSyncReport.Status.UNCHANGED;
+        } else {
+            status = ConfigSyncReport.Status.CHANGED;
+        }
+
+        if (status != ConfigSyncReport.Status.UNCHANGED) {
+            writeAtomically(file.toPath(), content);
+        }
+        manifest.put(key, new ManifestEntry(file.length(), file.lastModified(), hash));
+        report.record(status, file);
+        return status;
+    }
+
+    /**
+     * 先写入同目录下的临时文件再替换目标文件，避免写入中断留下不完整的文件
+     */
+    private static void writeAtomically(Path target, byte[] content) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+        try {
+            Files.write(tmp, content);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 保存清单
+     *
+     * @return 同步结果
+     */
+    public ConfigSyncReport finish() {
+        try {
+            Files.createDirectories(manifestFile.getParent());
+            Path tmp = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+            Files.write(tmp, JSON.toJSONString(manifest).getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("保存同步清单失败: " + manifestFile, e);
+        }
+        return report;
+    }
+
+    public ConfigSyncReport getReport() {
+        return report;
+    }
+
+    /**
+     * 获取磁盘文件的哈希，大小不同时直接视为变化
+     */
+    private String diskHash(String key, File file, long expectedLength) throws IOException {
+        long length = file.length();
+        if (length != expectedLength) {
+            return null;
+        }
+        ManifestEntry entry = manifest.get(key);
+        if (entry != null && entry.getSize() == length && entry.getLastModified() == file.lastModified()) {
+            return entry.getHash();
+        }
+        try (InputStream inputStream = new FileInputStream(file)) {
+            return DigestUtils.sha256Hex(inputStream);
+        }
+    }
+
+    private static Map<String, ManifestEntry> loadManifest(Path manifestFile) {
+        Map<String, ManifestEntry> manifest = new ConcurrentHashMap<>();
+        if (Files.isRegularFile(manifestFile)) {
+            try {
+                Map<String, ManifestEntry> entries = JSON.parseObject(new String(Files.readAllBytes(manifestFile), StandardCharsets.UTF_8),
+                        new TypeReference<Map<String, ManifestEntry>>() {
+                        });
+                if (entries != null) {
+                    manifest.putAll(entries);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("读取同步清单失败: " + manifestFile, e);
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * 清单条目
+     */
+    public static class ManifestEntry {
+        private long size;
+        private long lastModified;
+        private String hash;
+
+        public ManifestEntry() {
+        }
+
+        public ManifestEntry(long size, long lastModified, String hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public void setSize(long size) {
+            this.size = size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public void setLastModified(long lastModified) {
+            this.lastModified = lastModified;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public void setHash(String hash) {
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.hanfeng21050.controller.sync;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 配置文件同步结果
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class ConfigSyncReport {
+
+    public enum Status {
+        /**
+         * 新增
+         */
+        ADDED,
+        /**
+         * 内容变化
+         */
+        CHANGED,
+        /**
+         * 内容未变化，未写入
+         */
+        UNCHANGED
+    }
+
+    private final List<File> added = Collections.synchronizedList(new ArrayList<>());
+    private final List<File> changed = Collections.synchronizedList(new ArrayList<>());
+    private final List<File> unchanged = Collections.synchronizedList(new ArrayList<>());
+
+    public void record(Status status, File file) {
+        switch (status) {
+            case ADDED:
+                added.add(file);
+                break;
+            case CHANGED:
+                changed.add(file);
+                break;
+            default:
+                unchanged.add(file);
+                break;
+        }
+    }
+
+    /**
+     * 是否有文件被写入
+     */
+    public boolean hasChanges() {
+        return !added.isEmpty() || !changed.isEmpty();
+    }
+
+    /**
+     * 被写入的文件，包括新增和修改
+     */
+    public List<File> getWrittenFiles() {
+        List<File> files = new ArrayList<>(added);
+        files.addAll(changed);
+        return files;
+    }
+
+    public List<File> getAdded() {
+        return added;
+    }
+
+    public List<File> getChanged() {
+        return changed;
+    }
+
+    public List<File> getUnchanged() {
+        return unchanged;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("新增 %d 个, 修改 %d 个, 未变化 %d 个", added.size(), changed.size(), unchanged.size());
+    }
+}
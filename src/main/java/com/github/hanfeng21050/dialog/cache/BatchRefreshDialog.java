@@ -0,0 +1,193 @@
+package com.github.hanfeng21050.dialog.cache;
+
+import com.github.hanfeng21050.extensions.ToolWindow.cache.CacheRefreshBatch;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.ui.JBColor;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.util.List;
+import java.util.*;
+
+/**
+ * 批量刷新缓存对话框
+ * 选择多张表和多个节点后一次刷新，结果按 表 x 节点 实时显示，失败的条目可以单独重试
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class BatchRefreshDialog extends DialogWrapper {
+    private static final Color SUCCESS_BACKGROUND = new JBColor(new Color(220, 245, 220), new Color(45, 75, 45));
+    private static final Color FAILED_BACKGROUND = new JBColor(new Color(255, 220, 220), new Color(94, 56, 56));
+
+    private final JBList<String> tableList;
+    private final JBList<String> nodeList;
+    private final RefreshStatusTableModel statusModel = new RefreshStatusTableModel();
+    private final JBTable statusTable = new JBTable(statusModel);
+    private final JBLabel summary = new JBLabel(" ");
+    private final CacheRefreshBatch.RefreshRequest request;
+    private final Action retryAction;
+    private CacheRefreshBatch batch;
+
+    /**
+     * @param parent         父组件
+     * @param tables         可选的内存表
+     * @param nodes          可选的节点
+     * @param selectedTables 默认选中的表
+     * @param selectedNodes  默认选中的节点
+     * @param request        发送刷新请求
+     */
+    public BatchRefreshDialog(Component parent, List<String> tables, List<String> nodes,
+                              Collection<String> selectedTables, Collection<String> selectedNodes,
+                              CacheRefreshBatch.RefreshRequest request) {
+        super(parent, true);
+        setTitle("批量刷新缓存");
+        setModal(false);
+        this.request = request;
+
+        tableList = createList(tables, selectedTables);
+        nodeList = createList(nodes, selectedNodes);
+        statusTable.setDefaultEditor(Object.class, null);
+        statusTable.setDefaultRenderer(Object.class, new StatusRenderer());
+
+        retryAction = new DialogWrapperAction("重试失败") {
+            @Override
+            protected void doAction(ActionEvent e) {
+                start(statusModel.getRetryable());
+            }
+        };
+        retryAction.setEnabled(false);
+        setOKButtonText("刷新");
+        setCancelButtonText("关闭");
+        init();
+    }
+
+    private static JBList<String> createList(List<String> items, Collection<String> selected) {
+        JBList<String> list = new JBList<>(items);
+        list.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (selected.contains(items.get(i))) {
+                indices.add(i);
+            }
+        }
+        list.setSelectedIndices(indices.stream().mapToInt(Integer::intValue).toArray());
+        return list;
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setPreferredSize(new Dimension(800, 560));
+
+        // 上方选择表和节点，支持多选
+        JPanel selection = new JPanel(new GridLayout(1, 2, 8, 0));
+        selection.add(labeled("内存表（可多选）", tableList));
+        selection.add(labeled("节点（可多选）", nodeList));
+        selection.setPreferredSize(new Dimension(800, 200));
+        panel.add(selection, BorderLayout.NORTH);
+
+        // 下方显示每张表在每个节点上的刷新结果
+        panel.add(new JBScrollPane(statusTable), BorderLayout.CENTER);
+        panel.add(summary, BorderLayout.SOUTH);
+        return panel;
+    }
+
+    private static JComponent labeled(String label, JComponent component) {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(new JBLabel(label), BorderLayout.NORTH);
+        panel.add(new JBScrollPane(component), BorderLayout.CENTER);
+        return panel;
+    }
+
+    @Override
+    protected Action[] createActions() {
+        return new Action[]{getOKAction(), retryAction, getCancelAction()};
+    }
+
+    /**
+     * 刷新选中的表和节点，不关闭对话框
+     */
+    @Override
+    protected void doOKAction() {
+        List<String> tables = tableList.getSelectedValuesList();
+        List<String> nodes = nodeList.getSelectedValuesList();
+        if (tables.isEmpty() || nodes.isEmpty()) {
+            Messages.showWarningDialog("请至少选择一张表和一个节点", "警告");
+            return;
+        }
+        statusModel.reset(tables, nodes);
+        Map<String, List<String>> tablesByNode = new LinkedHashMap<>();
+        for (String node : nodes) {
+            tablesByNode.put(node, tables);
+        }
+        start(tablesByNode);
+    }
+
+    private void start(Map<String, List<String>> tablesByNode) {
+        if (tablesByNode.isEmpty()) {
+            return;
+        }
+        setOKActionEnabled(false);
+        retryAction.setEnabled(false);
+        summary.setText("刷新中...");
+
+        CacheRefreshBatch current = new CacheRefreshBatch(request, (node, tables, status, message) ->
+                ApplicationManager.getApplication().invokeLater(() -> statusModel.setStatus(node, tables, status, message)));
+        batch = current;
+        current.run(tablesByNode).whenComplete((v, ex) -> ApplicationManager.getApplication().invokeLater(() -> {
+            if (batch != current) {
+                return;
+            }
+            setOKActionEnabled(true);
+            retryAction.setEnabled(!statusModel.getRetryable().isEmpty());
+            summary.setText(String.format("成功 %d 个，失败 %d 个，已取消 %d 个",
+                    statusModel.count(CacheRefreshBatch.Status.SUCCESS),
+                    statusModel.count(CacheRefreshBatch.Status.FAILED),
+                    statusModel.count(CacheRefreshBatch.Status.CANCELLED)));
+        }));
+    }
+
+    /**
+     * 关闭对话框时中止未完成的请求
+     */
+    @Override
+    protected void dispose() {
+        if (batch != null) {
+            batch.cancel();
+        }
+        super.dispose();
+    }
+
+    /**
+     * 按刷新状态着色，鼠标悬停显示失败原因
+     */
+    private static class StatusRenderer extends DefaultTableCellRenderer {
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+            Component component = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            RefreshStatusTableModel model = (RefreshStatusTableModel) table.getModel();
+            CacheRefreshBatch.Status status = model.getStatus(row, column);
+            if (!isSelected) {
+                if (status == CacheRefreshBatch.Status.SUCCESS) {
+                    component.setBackground(SUCCESS_BACKGROUND);
+                } else if (status != null && status.isRetryable()) {
+                    component.setBackground(FAILED_BACKGROUND);
+                } else {
+                    component.setBackground(table.getBackground());
+                }
+            }
+            setToolTipText(model.getMessage(row, column));
+            return component;
+        }
+    }
+}
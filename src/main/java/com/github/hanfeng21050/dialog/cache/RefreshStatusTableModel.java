@@ -0,0 +1,130 @@
+package com.github.hanfeng21050.dialog.cache;
+
+import com.github.hanfeng21050.extensions.ToolWindow.cache.CacheRefreshBatch;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.*;
+
+/**
+ * 批量刷新的状态表格，每行一张表，每列一个节点
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class RefreshStatusTableModel extends AbstractTableModel {
+    private List<String> tables = new ArrayList<>();
+    private List<String> nodes = new ArrayList<>();
+    private final Map<String, Integer> tableIndex = new HashMap<>();
+    private final Map<String, Integer> nodeIndex = new HashMap<>();
+    private CacheRefreshBatch.Status[][] statuses = new CacheRefreshBatch.Status[0][0];
+    private String[][] messages = new String[0][0];
+
+    /**
+     * 重新设置表和节点，清空状态
+     *
+     * @param tables 内存表
+     * @param nodes  节点
+     */
+    public void reset(List<String> tables, List<String> nodes) {
+        this.tables = new ArrayList<>(tables);
+        this.nodes = new ArrayList<>(nodes);
+        tableIndex.clear();
+        nodeIndex.clear();
+        for (int i = 0; i < this.tables.size(); i++) {
+            tableIndex.put(this.tables.get(i), i);
+        }
+        for (int i = 0; i < this.nodes.size(); i++) {
+            nodeIndex.put(this.nodes.get(i), i);
+        }
+        statuses = new CacheRefreshBatch.Status[this.tables.size()][this.nodes.size()];
+        messages = new String[this.tables.size()][this.nodes.size()];
+        fireTableStructureChanged();
+    }
+
+    /**
+     * 更新节点上若干表的状态
+     */
+    public void setStatus(String node, List<String> tables, CacheRefreshBatch.Status status, String message) {
+        Integer col = nodeIndex.get(node);
+        if (col == null) {
+            return;
+        }
+        for (String table : tables) {
+            Integer row = tableIndex.get(table);
+            if (row != null) {
+                statuses[row][col] = status;
+                messages[row][col] = message;
+                fireTableCellUpdated(row, col + 1);
+            }
+        }
+    }
+
+    /**
+     * 失败或被取消的条目
+     *
+     * @return 节点 -> 需要重试的表
+     */
+    public Map<String, List<String>> getRetryable() {
+        Map<String, List<String>> retryable = new LinkedHashMap<>();
+        for (int col = 0; col < nodes.size(); col++) {
+            for (int row = 0; row < tables.size(); row++) {
+                CacheRefreshBatch.Status status = statuses[row][col];
+                if (status != null && status.isRetryable()) {
+                    retryable.computeIfAbsent(nodes.get(col), k -> new ArrayList<>()).add(tables.get(row));
+                }
+            }
+        }
+        return retryable;
+    }
+
+    /**
+     * 指定状态的条目数
+     */
+    public int count(CacheRefreshBatch.Status status) {
+        int count = 0;
+        for (CacheRefreshBatch.Status[] row : statuses) {
+            for (CacheRefreshBatch.Status s : row) {
+                if (s == status) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public CacheRefreshBatch.Status getStatus(int rowIndex, int columnIndex) {
+        return columnIndex == 0 ? null : statuses[rowIndex][columnIndex - 1];
+    }
+
+    public String getMessage(int rowIndex, int columnIndex) {
+        return columnIndex == 0 ? null : messages[rowIndex][columnIndex - 1];
+    }
+
+    @Override
+    public int getRowCount() {
+        return tables.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return nodes.size() + 1;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return column == 0 ? "内存表" : nodes.get(column - 1);
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        if (columnIndex == 0) {
+            return tables.get(rowIndex);
+        }
+        CacheRefreshBatch.Status status = statuses[rowIndex][columnIndex - 1];
+        String message = messages[rowIndex][columnIndex - 1];
+        if (status == null) {
+            return "";
+        }
+        return message == null ? status.toString() : status + ": " + message;
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.hanfeng21050.dialog.cache;
+
+import com.github.hanfeng21050.extensions.ToolWindow.cache.CacheSnapshot;
+import com.github.hanfeng21050.extensions.ToolWindow.cache.CacheSnapshotStore;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 内存表快照对话框
+ * 选择一个快照时与节点上的当前数据对比，选择两个快照时相互对比，按时间先后作为旧值和新值
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class SnapshotDialog extends DialogWrapper {
+    private final CacheSnapshotStore store;
+    private final SnapshotTableModel tableModel;
+    private final JBTable snapshotTable;
+    private final Action deleteAction;
+
+    /**
+     * @param parent    父组件
+     * @param store     快照目录
+     * @param snapshots 可选的快照
+     */
+    public SnapshotDialog(Component parent, CacheSnapshotStore store, List<CacheSnapshot> snapshots) {
+        super(parent, true);
+        setTitle("内存表快照");
+        this.store = store;
+        this.tableModel = new SnapshotTableModel(snapshots);
+        this.snapshotTable = new JBTable(tableModel);
+        snapshotTable.setDefaultEditor(Object.class, null);
+        snapshotTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        snapshotTable.getSelectionModel().addListSelectionListener(e -> updateActions());
+
+        deleteAction = new DialogWrapperAction("删除") {
+            @Override
+            protected void doAction(ActionEvent e) {
+                deleteSelected();
+            }
+        };
+        setOKButtonText("对比");
+        setCancelButtonText("关闭");
+        init();
+        updateActions();
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setPreferredSize(new Dimension(720, 360));
+        panel.add(new JBLabel("选择一个快照与当前数据对比，或选择两个快照相互对比"), BorderLayout.NORTH);
+        panel.add(new JBScrollPane(snapshotTable), BorderLayout.CENTER);
+        return panel;
+    }
+
+    @Override
+    protected Action[] createActions() {
+        return new Action[]{getOKAction(), deleteAction, getCancelAction()};
+    }
+
+    /**
+     * 选中的快照，按时间先后排序
+     */
+    public List<CacheSnapshot> getSelectedSnapshots() {
+        List<CacheSnapshot> selected = new ArrayList<>();
+        for (int row : snapshotTable.getSelectedRows()) {
+            selected.add(tableModel.getSnapshot(snapshotTable.convertRowIndexToModel(row)));
+        }
+        selected.sort(Comparator.comparingLong(CacheSnapshot::getCreatedAt));
+        return selected;
+    }
+
+    private void updateActions() {
+        int selected = snapshotTable.getSelectedRowCount();
+        setOKActionEnabled(selected == 1 || selected == 2);
+        deleteAction.setEnabled(selected > 0);
+    }
+
+    private void deleteSelected() {
+        List<CacheSnapshot> selected = getSelectedSnapshots();
+        if (selected.isEmpty() || Messages.showYesNoDialog("删除选中的 " + selected.size() + " 个快照？", "删除快照",
+                Messages.getQuestionIcon()) != Messages.YES) {
+            return;
+        }
+        for (CacheSnapshot snapshot : selected) {
+            try {
+                store.delete(snapshot);
+                tableModel.remove(snapshot);
+            } catch (IOException e) {
+                Messages.showErrorDialog("删除快照失败：" + e.getMessage(), "错误");
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.hanfeng21050.dialog.cache;
+
+import com.github.hanfeng21050.extensions.ToolWindow.cache.CacheSnapshot;
+
+import javax.swing.table.AbstractTableModel;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 快照列表
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class SnapshotTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"内存表", "节点", "时间", "行数", "大小"};
+
+    private final List<CacheSnapshot> snapshots;
+
+    public SnapshotTableModel(List<CacheSnapshot> snapshots) {
+        this.snapshots = new ArrayList<>(snapshots);
+    }
+
+    public CacheSnapshot getSnapshot(int row) {
+        return snapshots.get(row);
+    }
+
+    public void remove(CacheSnapshot snapshot) {
+        int row = snapshots.indexOf(snapshot);
+        if (row >= 0) {
+            snapshots.remove(row);
+            fireTableRowsDeleted(row, row);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return snapshots.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        CacheSnapshot snapshot = snapshots.get(rowIndex);
+        switch (columnIndex) {
+            case 0:
+                return snapshot.getTableName();
+            case 1:
+                return snapshot.getNode();
+            case 2:
+                return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(snapshot.getCreatedAt()));
+            case 3:
+                return snapshot.getRowCount();
+            default:
+                return formatSize(snapshot.getFileSize());
+        }
+    }
+
+    private static String formatSize(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+}
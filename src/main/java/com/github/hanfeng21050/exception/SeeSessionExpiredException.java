@@ -0,0 +1,14 @@
+package com.github.hanfeng21050.exception;
+
+import java.io.IOException;
+
+/**
+ * SEE会话失效异常
+ * 响应为401或被重定向到CAS登录页时抛出，需要重新登录
+ */
+public class SeeSessionExpiredException extends IOException {
+
+    public SeeSessionExpiredException(String message) {
+        super(message);
+    }
+}
@@ -5,33 +5,63 @@ import com.alibaba.fastjson2.JSONObject;
 import com.github.hanfeng21050.config.EasyEnvConfig;
 import com.github.hanfeng21050.config.SeeConfig;
 import com.github.hanfeng21050.controller.SeeRequestController;
+import com.github.hanfeng21050.controller.session.MetadataCache;
+import com.github.hanfeng21050.controller.session.SeeSessionManager;
+import com.github.hanfeng21050.dialog.cache.BatchRefreshDialog;
+import com.github.hanfeng21050.dialog.cache.SnapshotDialog;
+import com.github.hanfeng21050.extensions.ToolWindow.cache.*;
 import com.github.hanfeng21050.utils.EasyIcons;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.*;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.JBColor;
 import com.intellij.ui.table.JBTable;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
 import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.StringSelection;
 import java.awt.event.KeyEvent;
+import java.io.File;
 import java.io.IOException;
-import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class CacheMgrWindow {
     private static final Logger log = LoggerFactory.getLogger(CacheMgrWindow.class);
     private static final String TITLE_CACHE = "缓存数据";
     private static final String[] REQUIRED_FIELDS = {"环境", "微服务", "节点IP", "内存表"};
+    // 元数据缓存的键
+    private static final String SERVICES_KEY = "services";
+    private static final String NODES_KEY_PREFIX = "nodes|";
+    private static final String TABLES_KEY_PREFIX = "tables|";
+    // 监视间隔，单位秒
+    private static final int[] WATCH_INTERVALS = {1, 2, 5, 10, 30};
+    private static final int DEFAULT_WATCH_INTERVAL_SECONDS = 5;
     // 数据模型
     private final EasyEnvConfig config;
     // UI组件
+    private final SimpleToolWindowPanel rootPanel = new SimpleToolWindowPanel(true, true);
     private JPanel panel;
     private JComboBox<String> macroSvr;
     private JComboBox<String> nodeIp;
@@ -41,11 +71,22 @@ public class CacheMgrWindow {
     private JButton refreshButton;
     private JButton queryButton;
     private JButton updateButton;
+    private JButton stopButton;
     private JBTable table1;
     private Model model;
-    private String auth = "";
     private List<ServerInfo> serverInfos;
     private String appId;
+    // 正在更新下拉框选项，不触发联动
+    private boolean updatingItems;
+    // 进行中的查询和更新，新的操作会中止旧的操作
+    private CacheRequestTask queryTask;
+    private CacheRequestTask updateTask;
+    // 最近一次多节点对比的结果
+    private NodeCacheDiff nodeDiff;
+    // 监视模式定时重新加载可见的页
+    private javax.swing.Timer watchTimer;
+    private int watchIntervalSeconds = DEFAULT_WATCH_INTERVAL_SECONDS;
+    private boolean watchPolling;
 
     /**
      * 构造函数
@@ -57,31 +98,7 @@ public class CacheMgrWindow {
         initializeComponents();
         setupListeners();
         setupTableFeatures();
-    }
-
-    /**
-     * 将List转换为二维数组
-     *
-     * @param list
-     * @return
-     */
-    public static String[][] listTo2DArray(List<List<String>> list) {
-        if (list == null || list.isEmpty()) {
-            return new String[0][0];
-        }
-
-        int rows = list.size();
-        int cols = list.get(0).size();
-        String[][] array = new String[rows][cols];
-
-        for (int i = 0; i < rows; i++) {
-            List<String> rowList = list.get(i);
-            for (int j = 0; j < cols; j++) {
-                array[i][j] = rowList.get(j);
-            }
-        }
-
-        return array;
+        setupToolbar();
     }
 
     /**
@@ -133,6 +150,11 @@ public class CacheMgrWindow {
     private void setupListeners() {
         // 环境选择事件
         env.addActionListener(e -> {
+            if (updatingItems) {
+                return;
+            }
+            // 对比结果只对应对比时选择的环境、服务和表
+            nodeDiff = null;
             String selectedItem = (String) env.getSelectedItem();
             if (selectedItem != null) {
                 config.getSeeConnectInfos().stream()
@@ -144,6 +166,10 @@ public class CacheMgrWindow {
 
         // 微服务选择事件
         macroSvr.addActionListener(e -> {
+            if (updatingItems) {
+                return;
+            }
+            nodeDiff = null;
             String selectedEnv = (String) env.getSelectedItem();
             String selectedMacro = (String) macroSvr.getSelectedItem();
             model.setMacroName(selectedMacro);
@@ -158,6 +184,10 @@ public class CacheMgrWindow {
 
         // 节点IP选择事件
         nodeIp.addActionListener(e -> {
+            if (updatingItems) {
+                return;
+            }
+            nodeDiff = null;
             String selectedEnv = (String) env.getSelectedItem();
             String selectedNodeIp = (String) nodeIp.getSelectedItem();
             model.setNodeIp(selectedNodeIp);
@@ -172,6 +202,10 @@ public class CacheMgrWindow {
 
         // 内存表选择事件
         memoryTable.addActionListener(e -> {
+            if (updatingItems) {
+                return;
+            }
+            nodeDiff = null;
             String selectedMemoryTable = (String) memoryTable.getSelectedItem();
             model.setMemoryTable(selectedMemoryTable);
         });
@@ -186,6 +220,9 @@ public class CacheMgrWindow {
         // 重置按钮事件
         refreshButton.addActionListener(e -> resetForm());
 
+        // 停止按钮事件
+        stopButton.addActionListener(e -> stopTasks());
+
         // 更新按钮事件
         updateButton.addActionListener(e -> {
             if (validateInputs()) {
@@ -193,10 +230,113 @@ public class CacheMgrWindow {
             }
         });
 
+        // 检索条件变化时重新过滤
+        condition.setToolTipText(CacheFilter.SYNTAX);
+        condition.getDocument().addDocumentListener(new DocumentAdapter() {
+            @Override
+            protected void textChanged(@NotNull DocumentEvent e) {
+                applyFilter();
+            }
+        });
+
         // 设置表格复制功能
         setupTableCopyFeature();
     }
 
+    /**
+     * 设置工具栏
+     */
+    private void setupToolbar() {
+        DefaultActionGroup actionGroup = new DefaultActionGroup();
+        actionGroup.addAction(new AnAction("对比全部节点", "并发查询所有节点上的内存表并对比差异", AllIcons.Actions.Diff) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                if (validateCompareInputs()) {
+                    compareNodes();
+                }
+            }
+        });
+        actionGroup.addAction(new AnAction("刷新差异节点", "只刷新与多数节点不一致的节点上的缓存", AllIcons.Actions.Refresh) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                refreshStaleNodes();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(nodeDiff != null && !nodeDiff.getStaleNodes().isEmpty());
+            }
+        });
+
+        actionGroup.addSeparator();
+        actionGroup.addAction(new ToggleAction("监视", "定时重新查询当前可见的数据，高亮变化的行", AllIcons.Debugger.Watch) {
+            @Override
+            public boolean isSelected(@NotNull AnActionEvent e) {
+                return watchTimer != null;
+            }
+
+            @Override
+            public void setSelected(@NotNull AnActionEvent e, boolean state) {
+                if (state) {
+                    startWatch();
+                } else {
+                    stopWatch();
+                }
+            }
+        });
+        DefaultActionGroup intervalGroup = new DefaultActionGroup("监视间隔", true);
+        intervalGroup.getTemplatePresentation().setIcon(AllIcons.General.Settings);
+        for (int interval : WATCH_INTERVALS) {
+            intervalGroup.add(new ToggleAction(interval + " 秒") {
+                @Override
+                public boolean isSelected(@NotNull AnActionEvent e) {
+                    return watchIntervalSeconds == interval;
+                }
+
+                @Override
+                public void setSelected(@NotNull AnActionEvent e, boolean state) {
+                    watchIntervalSeconds = interval;
+                    if (watchTimer != null) {
+                        watchTimer.setDelay(interval * 1000);
+                    }
+                }
+            });
+        }
+        actionGroup.add(intervalGroup);
+
+        actionGroup.addSeparator();
+        actionGroup.addAction(new AnAction("批量刷新", "同时刷新多个节点上的多张内存表", AllIcons.Actions.Execute) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                openBatchRefresh();
+            }
+        });
+        actionGroup.addAction(new AnAction("导出", "将当前内存表或节点上全部内存表导出为 CSV 或 JSON Lines 文件", AllIcons.ToolbarDecorator.Export) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                exportCache();
+            }
+        });
+        actionGroup.addSeparator();
+        actionGroup.addAction(new AnAction("保存快照", "将当前节点上的内存表保存为本地快照", AllIcons.Actions.MenuSaveall) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                saveSnapshot();
+            }
+        });
+        actionGroup.addAction(new AnAction("快照对比", "将快照与当前数据或另一个快照对比", AllIcons.Vcs.History) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                openSnapshots();
+            }
+        });
+
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("EasyEnvCacheMgr", actionGroup, true);
+        toolbar.setTargetComponent(panel);
+        rootPanel.setToolbar(toolbar.getComponent());
+        rootPanel.setContent(panel);
+    }
+
     /**
      * 设置表格特性
      */
@@ -265,10 +405,46 @@ public class CacheMgrWindow {
         return true;
     }
 
+    /**
+     * 验证多节点对比的输入，不需要选择节点
+     */
+    private boolean validateCompareInputs() {
+        if (env.getSelectedItem() == null || macroSvr.getSelectedItem() == null || memoryTable.getSelectedItem() == null) {
+            Messages.showErrorDialog("请选择必填项：环境、微服务、内存表", "输入验证失败");
+            return false;
+        }
+        if (getNodeIps().isEmpty()) {
+            Messages.showErrorDialog("微服务没有可用的节点", "输入验证失败");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 节点下拉框中的所有节点
+     */
+    private List<String> getNodeIps() {
+        List<String> nodeIps = new ArrayList<>();
+        for (int i = 0; i < nodeIp.getItemCount(); i++) {
+            String item = nodeIp.getItemAt(i);
+            if (StringUtils.isNotBlank(item)) {
+                nodeIps.add(item);
+            }
+        }
+        return nodeIps;
+    }
+
     /**
      * 重置表单
      */
     private void resetForm() {
+        stopTasks();
+        nodeDiff = null;
+        // 重置时重新查询当前环境的元数据
+        SeeConfig seeConfig = getSelectedSeeConfig();
+        if (seeConfig != null) {
+            SeeSessionManager.getSession(seeConfig).getMetadataCache().invalidate(null);
+        }
         env.removeAllItems();
         macroSvr.removeAllItems();
         nodeIp.removeAllItems();
@@ -280,6 +456,7 @@ public class CacheMgrWindow {
 
     /**
      * 刷新微服务列表
+     * 列表按环境缓存，过期后先显示缓存的列表，再在后台更新
      *
      * @param seeConfig
      */
@@ -287,49 +464,65 @@ public class CacheMgrWindow {
         macroSvr.removeAllItems();
         nodeIp.removeAllItems();
         memoryTable.removeAllItems();
-        auth = "";
 
-        // 更新 UI 必须在事件调度线程上进行
-        ApplicationManager.getApplication().invokeLater(() -> {
-            CompletableFuture.supplyAsync(() -> {
-                try {
-                    SeeRequestController.login(seeConfig);
-                    auth = SeeRequestController.getAuth(seeConfig);
-                    appId = SeeRequestController.getApplication(seeConfig, "服务控制台", auth);
-                    JSONObject serviceList = SeeRequestController.getServiceList(seeConfig, appId, auth);
-
-                    serverInfos = new ArrayList<>();
-                    if (serviceList != null && serviceList.getString("message").equals("success")) {
-                        JSONArray jsonArray = serviceList.getJSONObject("data").getJSONArray("data_list");
-                        for (int i = 0; i < jsonArray.size(); i++) {
-                            ServerInfo serverInfo = new ServerInfo();
-                            JSONObject server = jsonArray.getJSONObject(i);
-
-                            serverInfo.setMacroName(server.getString("service_name"));
-                            serverInfo.setGroup(server.getString("group"));
-                            serverInfo.setVersion(server.getString("version"));
-                            serverInfos.add(serverInfo);
-                        }
+        String envItem = (String) env.getSelectedItem();
+        MetadataCache metadataCache = SeeSessionManager.getSession(seeConfig).getMetadataCache();
+        metadataCache.<ServiceCatalog>get(SERVICES_KEY,
+                () -> CompletableFuture.supplyAsync(() -> loadServices(seeConfig), AppExecutorUtil.getAppExecutorService()),
+                catalog -> ApplicationManager.getApplication().invokeLater(() -> {
+                    if (Objects.equals(envItem, env.getSelectedItem())) {
+                        showServices(catalog);
                     }
+                })).whenComplete((catalog, ex) -> ApplicationManager.getApplication().invokeLater(() -> {
+            if (ex != null) {
+                log.error("刷新微服务失败：{}", ex.getMessage(), ex);
+                handleError(new RuntimeException(ex.getMessage(), ex));
+                return;
+            }
+            // 环境已切换时丢弃结果
+            if (Objects.equals(envItem, env.getSelectedItem())) {
+                showServices(catalog);
+            }
+        }));
+    }
 
-                    return serverInfos;
-                } catch (Exception ex) {
-                    handleError(ex);
-                    return null;
-                }
-            }).thenAccept(serviceList -> {
-                if (!serviceList.isEmpty()) {
-                    macroSvr.removeAllItems();
-                    macroSvr.addItem(null);
-                    for (ServerInfo serverInfo : serverInfos) {
-                        macroSvr.addItem(serverInfo.getMacroName());
+    /**
+     * 查询服务控制台的应用ID和运行中的微服务
+     */
+    private static ServiceCatalog loadServices(SeeConfig seeConfig) {
+        try {
+            return SeeRequestController.callWithAuth(seeConfig, auth -> {
+                String appId = SeeRequestController.getApplication(seeConfig, "服务控制台", auth);
+                JSONObject serviceList = SeeRequestController.getServiceList(seeConfig, appId, auth);
+
+                List<ServerInfo> serverInfos = new ArrayList<>();
+                if (serviceList != null && "success".equals(serviceList.getString("message"))) {
+                    JSONArray jsonArray = serviceList.getJSONObject("data").getJSONArray("data_list");
+                    for (int i = 0; i < jsonArray.size(); i++) {
+                        ServerInfo serverInfo = new ServerInfo();
+                        JSONObject server = jsonArray.getJSONObject(i);
+
+                        serverInfo.setMacroName(server.getString("service_name"));
+                        serverInfo.setGroup(server.getString("group"));
+                        serverInfo.setVersion(server.getString("version"));
+                        serverInfos.add(serverInfo);
                     }
                 }
-            }).exceptionally(ex -> {
-                log.error("刷新微服务失败：{}", ex.getMessage(), ex);
-                return null;
+                return new ServiceCatalog(appId, serverInfos);
             });
-        });
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void showServices(ServiceCatalog catalog) {
+        appId = catalog.getAppId();
+        serverInfos = catalog.getServerInfos();
+        List<String> macroNames = new ArrayList<>();
+        for (ServerInfo serverInfo : serverInfos) {
+            macroNames.add(serverInfo.getMacroName());
+        }
+        setItems(macroSvr, macroNames);
     }
 
     /**
@@ -341,51 +534,51 @@ public class CacheMgrWindow {
         nodeIp.removeAllItems();
         memoryTable.removeAllItems();
 
-        ApplicationManager.getApplication().invokeLater(() -> {
-            CompletableFuture.supplyAsync(() -> {
-                try {
-                    String value = (String) macroSvr.getSelectedItem();
-                    if (value != null) {
-                        Optional<ServerInfo> any = serverInfos.stream().filter(e -> e.getMacroName().equals(value)).findAny();
-                        if (any.isPresent()) {
-                            ServerInfo serverInfo = any.get();
-                            Map<String, String> body = new HashMap<>();
-                            body.put("service_name", serverInfo.getMacroName());
-                            body.put("group", serverInfo.getGroup());
-                            body.put("version", serverInfo.getVersion());
-                            body.put("m_pid", "pid");
-                            body.put("appId", appId);
-                            JSONObject serviceInfo = SeeRequestController.getServiceInfo(seeConfig, auth, body);
-
-                            JSONArray data = serviceInfo.getJSONObject("data").getJSONArray("data");
-                            List<String> nodeIps = new ArrayList<>();
-                            for (int i = 0; i < data.size(); i++) {
-                                JSONObject item = data.getJSONObject(i);
-                                String protocol = item.getString("protocol");
-                                if (protocol.equals("http")) {
-                                    nodeIps.add(item.getString("addr"));
-                                }
-                            }
-                            return nodeIps;
+        String value = (String) macroSvr.getSelectedItem();
+        if (value == null || serverInfos == null) {
+            return;
+        }
+        Optional<ServerInfo> any = serverInfos.stream().filter(e -> e.getMacroName().equals(value)).findAny();
+        if (!any.isPresent()) {
+            return;
+        }
+        ServerInfo serverInfo = any.get();
+        Map<String, String> body = new HashMap<>();
+        body.put("service_name", serverInfo.getMacroName());
+        body.put("group", serverInfo.getGroup());
+        body.put("version", serverInfo.getVersion());
+        body.put("m_pid", "pid");
+        body.put("appId", appId);
+
+        // 请求在异步客户端上执行，结果回到事件调度线程更新 UI
+        String key = NODES_KEY_PREFIX + serverInfo.getMacroName() + "|" + serverInfo.getGroup() + "|" + serverInfo.getVersion();
+        SeeSessionManager.getSession(seeConfig).getMetadataCache().<List<String>>get(key,
+                () -> SeeRequestController.callWithAuthAsync(seeConfig,
+                        auth -> SeeRequestController.getServiceInfoAsync(seeConfig, auth, body)).thenApply(serviceInfo -> {
+                    JSONArray data = serviceInfo.getJSONObject("data").getJSONArray("data");
+                    List<String> nodeIps = new ArrayList<>();
+                    for (int i = 0; i < data.size(); i++) {
+                        JSONObject item = data.getJSONObject(i);
+                        String protocol = item.getString("protocol");
+                        if (protocol.equals("http")) {
+                            nodeIps.add(item.getString("addr"));
                         }
                     }
-                } catch (Exception ex) {
-                    handleError(ex);
-                    return null;
-                }
-                return null;
-            }).thenAccept(nodeIps -> {
-                if (!nodeIps.isEmpty()) {
-                    nodeIp.removeAllItems();
-                    nodeIp.addItem(null);
-                    for (String ip : nodeIps) {
-                        nodeIp.addItem(ip);
+                    return nodeIps;
+                }),
+                nodeIps -> ApplicationManager.getApplication().invokeLater(() -> {
+                    if (value.equals(macroSvr.getSelectedItem())) {
+                        setItems(nodeIp, nodeIps);
                     }
-                }
-            }).exceptionally(ex -> {
-                log.error("刷新节点IP失败：{}", ex.getMessage(), ex);
-                return null;
-            });
+                })).thenAccept(nodeIps -> ApplicationManager.getApplication().invokeLater(() -> {
+            // 微服务已切换时丢弃结果
+            if (value.equals(macroSvr.getSelectedItem())) {
+                setItems(nodeIp, nodeIps);
+            }
+        })).exceptionally(ex -> {
+            log.error("刷新节点IP失败：{}", ex.getMessage(), ex);
+            ApplicationManager.getApplication().invokeLater(() -> handleError(new RuntimeException(ex.getMessage(), ex)));
+            return null;
         });
     }
 
@@ -396,41 +589,75 @@ public class CacheMgrWindow {
      */
     private void refreshMemoryTable(SeeConfig seeConfig) {
         memoryTable.removeAllItems();
-        // 更新 UI 必须在事件调度线程上进行
-        ApplicationManager.getApplication().invokeLater(() -> {
-            CompletableFuture.supplyAsync(() -> {
-                try {
-                    String nodeIp = model.getNodeIp();
-                    if (StringUtils.isNotBlank(nodeIp)) {
-                        String[] split = nodeIp.split(":");
-                        JSONObject localCacheFormDataOnlyTable = SeeRequestController.getLocalCacheFormDataOnlyTable(seeConfig, auth, split[0].trim(), split[1].trim());
-                        return localCacheFormDataOnlyTable.getJSONArray("data");
-                    }
-                } catch (IOException | URISyntaxException e) {
-                    handleError(e);
-                    return null;
-                }
-                return null;
-            }).thenAccept(data -> {
-                if (data != null) {
-                    memoryTable.addItem(null);
-                    for (int i = 0; i < data.size(); i++) {
-                        String table = data.getString(i);
-                        memoryTable.addItem(table);
+
+        String nodeIp = model.getNodeIp();
+        if (StringUtils.isBlank(nodeIp)) {
+            return;
+        }
+        String[] split = nodeIp.split(":");
+        // 请求在异步客户端上执行，结果回到事件调度线程更新 UI
+        SeeSessionManager.getSession(seeConfig).getMetadataCache().<List<String>>get(TABLES_KEY_PREFIX + nodeIp,
+                () -> SeeRequestController.callWithAuthAsync(seeConfig,
+                                auth -> SeeRequestController.getLocalCacheFormDataOnlyTableAsync(seeConfig, auth, split[0].trim(), split[1].trim()))
+                        .thenApply(localCacheFormDataOnlyTable -> {
+                            JSONArray data = localCacheFormDataOnlyTable.getJSONArray("data");
+                            List<String> tables = new ArrayList<>();
+                            if (data != null) {
+                                for (int i = 0; i < data.size(); i++) {
+                                    tables.add(data.getString(i));
+                                }
+                            }
+                            return tables;
+                        }),
+                tables -> ApplicationManager.getApplication().invokeLater(() -> {
+                    if (nodeIp.equals(model.getNodeIp())) {
+                        setItems(memoryTable, tables);
                     }
-                }
-            }).exceptionally(ex -> {
-                log.error("刷新内存表失败：{}", ex.getMessage(), ex);
-                return null;
-            });
+                })).thenAccept(tables -> ApplicationManager.getApplication().invokeLater(() -> {
+            // 节点已切换时丢弃结果
+            if (nodeIp.equals(model.getNodeIp())) {
+                setItems(memoryTable, tables);
+            }
+        })).exceptionally(ex -> {
+            log.error("刷新内存表失败：{}", ex.getMessage(), ex);
+            ApplicationManager.getApplication().invokeLater(() -> handleError(new RuntimeException(ex.getMessage(), ex)));
+            return null;
         });
     }
 
+    /**
+     * 更新下拉框的选项
+     * 原来选中的项仍然存在时保持选中，且不触发下级下拉框的刷新
+     *
+     * @param comboBox 下拉框
+     * @param items    选项
+     */
+    private void setItems(JComboBox<String> comboBox, List<String> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Object selected = comboBox.getSelectedItem();
+        boolean keepSelection = selected != null && items.contains(selected);
+        updatingItems = keepSelection;
+        try {
+            comboBox.removeAllItems();
+            comboBox.addItem(null);
+            for (String item : items) {
+                comboBox.addItem(item);
+            }
+            if (keepSelection) {
+                comboBox.setSelectedItem(selected);
+            }
+        } finally {
+            updatingItems = false;
+        }
+    }
+
     /**
      * 获取面板
      */
     public JPanel getPanel() {
-        return panel;
+        return rootPanel;
     }
 
     /**
@@ -446,29 +673,33 @@ public class CacheMgrWindow {
             return;
         }
 
-        ApplicationManager.getApplication().invokeLater(() -> {
-            Map<String, Object> params = new HashMap<>();
-            params.put("tableName", model.getMemoryTable());
-            params.put("pageNum", "1");
-            params.put("pageSize", "1000");
-
-            String[] split = model.getNodeIp().split(":");
-
-            String url = "http://" + split[0].trim() + ":" + split[1].trim() + "/localCache/getCacheByPage";
-
-            JSONObject cacheData = null;
-            try {
-                cacheData = SeeRequestController.getCacheData(url, params);
-            } catch (IOException | URISyntaxException ex) {
-                handleError(ex);
+        // 新的查询会中止之前还未完成的查询
+        if (queryTask != null) {
+            queryTask.cancel();
+        }
+        CacheRequestTask task = new CacheRequestTask();
+        queryTask = task;
+
+        // 第一页加载完成后再替换表格，其余页在滚动时按需加载；
+        // 只有第一页属于本次查询，之后的分页请求不随查询停止而取消，否则停止后未加载的行会一直显示加载中
+        String node = model.getNodeIp();
+        String tableName = model.getMemoryTable();
+        task.run("查询缓存[" + tableName + "]", () -> task.track(PagedCacheTableModel.load(
+                (pageNum, pageSize) -> SeeRequestController.getCacheByPageAsync(node, tableName, pageNum, pageSize),
+                PagedCacheTableModel.DEFAULT_PAGE_SIZE))).whenComplete((tableModel, ex) -> ApplicationManager.getApplication().invokeLater(() -> {
+            updateStopButton();
+            if (task != queryTask || task.isCancelled()) {
+                // 已被新的查询取代或已停止
+                return;
             }
-
-            if (cacheData != null && "true".equals(cacheData.getString("success"))) {
-                JSONObject jsonData = cacheData.getJSONObject("data").getJSONObject("data");
-                setTableData(jsonData, condition.getText());
-                this.model.setTableData(jsonData);
+            if (ex != null) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                handleError(new RuntimeException(cause.getMessage(), cause));
+                return;
             }
-        });
+            setTableData(tableModel);
+        }));
+        updateStopButton();
     }
 
     /**
@@ -483,34 +714,478 @@ public class CacheMgrWindow {
             return;
         }
 
-        ApplicationManager.getApplication().invokeLater(() -> {
-            Map<String, Object> params = new HashMap<>();
-            params.put("refreshType", "2");
-            params.put("sync", true);
-            params.put("timeout", 15);
-            params.put("nodes", new String[]{model.getNodeIp()});
-            params.put("tables", new String[]{model.getMemoryTable()});
-
-            Optional<EasyEnvConfig.SeeConnectInfo> first = config.getSeeConnectInfos().stream()
-                    .filter(x -> x.getLabel().equals(envItem))
-                    .findFirst();
-            if (first.isPresent()) {
-                EasyEnvConfig.SeeConnectInfo seeConnectInfo = first.get();
-                SeeConfig seeConfig = new SeeConfig(seeConnectInfo);
-                try {
-                    JSONObject jsonObject = SeeRequestController.localCacheRefresh(seeConfig, auth, params);
-                    if (jsonObject != null && jsonObject.getString("success").equals("true")) {
-                        Messages.showInfoMessage("缓存[" + model.getMemoryTable() + "]更新成功", "成功");
+        String tableName = model.getMemoryTable();
+        refreshCache(new String[]{model.getNodeIp()}, tableName,
+                () -> Messages.showInfoMessage("缓存[" + tableName + "]更新成功", "成功"));
+    }
+
+    /**
+     * 刷新当前环境指定节点上的缓存
+     */
+    private void refreshCache(String[] nodes, String tableName, Runnable onSuccess) {
+        SeeConfig seeConfig = getSelectedSeeConfig();
+        if (seeConfig != null) {
+            refreshCache(seeConfig, nodes, tableName, onSuccess);
+        }
+    }
+
+    /**
+     * 刷新指定节点上的缓存
+     *
+     * @param seeConfig 环境
+     * @param nodes     节点地址
+     * @param tableName 内存表
+     * @param onSuccess 刷新成功后在事件调度线程上执行
+     */
+    private void refreshCache(SeeConfig seeConfig, String[] nodes, String tableName, Runnable onSuccess) {
+        Map<String, Object> params = refreshParams(nodes, new String[]{tableName});
+
+        // 同步刷新最长要等待 timeout 秒，在后台执行，只在事件调度线程上显示结果
+        if (updateTask != null) {
+            updateTask.cancel();
+        }
+        CacheRequestTask task = new CacheRequestTask();
+        updateTask = task;
+        task.run("更新缓存[" + tableName + "]", () -> SeeRequestController.callWithAuthAsync(seeConfig,
+                auth -> task.track(SeeRequestController.localCacheRefreshAsync(seeConfig, auth, params))))
+                .whenComplete((jsonObject, ex) -> ApplicationManager.getApplication().invokeLater(() -> {
+                    updateStopButton();
+                    if (task != updateTask || task.isCancelled()) {
+                        return;
+                    }
+                    if (ex != null) {
+                        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                        handleError(new RuntimeException(cause.getMessage(), cause));
+                    } else if (jsonObject != null && "true".equals(jsonObject.getString("success"))) {
+                        onSuccess.run();
                     } else {
-                        handleError(new RuntimeException("缓存[" + model.getMemoryTable() + "]更新失败"));
+                        handleError(new RuntimeException("缓存[" + tableName + "]更新失败"));
+                    }
+                }));
+        updateStopButton();
+    }
+
+    /**
+     * 缓存刷新请求参数，同步刷新
+     */
+    private static Map<String, Object> refreshParams(String[] nodes, String[] tables) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("refreshType", "2");
+        params.put("sync", true);
+        params.put("timeout", 15);
+        params.put("nodes", nodes);
+        params.put("tables", tables);
+        return params;
+    }
+
+    /**
+     * 当前选择的环境
+     */
+    private SeeConfig getSelectedSeeConfig() {
+        return findSeeConfig((String) env.getSelectedItem());
+    }
+
+    /**
+     * 按名称查找环境，不存在时返回null
+     */
+    private SeeConfig findSeeConfig(String envItem) {
+        return config.getSeeConnectInfos().stream()
+                .filter(x -> x.getLabel().equals(envItem))
+                .findFirst()
+                .map(SeeConfig::new)
+                .orElse(null);
+    }
+
+    /**
+     * 打开批量刷新对话框，默认选中当前的表和节点
+     */
+    private void openBatchRefresh() {
+        SeeConfig seeConfig = getSelectedSeeConfig();
+        List<String> tables = new ArrayList<>();
+        for (int i = 0; i < memoryTable.getItemCount(); i++) {
+            String item = memoryTable.getItemAt(i);
+            if (StringUtils.isNotBlank(item)) {
+                tables.add(item);
+            }
+        }
+        List<String> nodes = getNodeIps();
+        if (seeConfig == null || tables.isEmpty() || nodes.isEmpty()) {
+            Messages.showErrorDialog("请先选择环境、微服务和节点，加载内存表后再批量刷新", "输入验证失败");
+            return;
+        }
+
+        List<String> selectedTables = new ArrayList<>();
+        if (StringUtils.isNotBlank(model.getMemoryTable())) {
+            selectedTables.add(model.getMemoryTable());
+        }
+        new BatchRefreshDialog(panel, tables, nodes, selectedTables, nodes,
+                (refreshNodes, refreshTables, task) -> SeeRequestController.callWithAuthAsync(seeConfig,
+                        auth -> task.track(SeeRequestController.localCacheRefreshAsync(seeConfig, auth, refreshParams(refreshNodes, refreshTables)))))
+                .show();
+    }
+
+    /**
+     * 导出内存表数据，未选择内存表时导出节点上的全部内存表
+     */
+    private void exportCache() {
+        String node = model.getNodeIp();
+        List<String> tables = new ArrayList<>();
+        if (StringUtils.isNotBlank(model.getMemoryTable())) {
+            tables.add(model.getMemoryTable());
+        } else {
+            for (int i = 0; i < memoryTable.getItemCount(); i++) {
+                String item = memoryTable.getItemAt(i);
+                if (StringUtils.isNotBlank(item)) {
+                    tables.add(item);
+                }
+            }
+        }
+        if (StringUtils.isBlank(node) || tables.isEmpty()) {
+            Messages.showErrorDialog("请先选择节点，加载内存表后再导出", "输入验证失败");
+            return;
+        }
+
+        String defaultName = (tables.size() == 1 ? tables.get(0) : node.replace(':', '_')) + "." + CacheExporter.Format.CSV.getExtension();
+        FileSaverDescriptor descriptor = new FileSaverDescriptor("导出缓存数据", "按扩展名导出为 CSV 或 JSON Lines",
+                CacheExporter.Format.CSV.getExtension(), CacheExporter.Format.JSONL.getExtension());
+        VirtualFileWrapper target = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, panel).save(defaultName);
+        if (target == null) {
+            return;
+        }
+        File file = target.getFile();
+        new Task.Backgroundable(null, "导出缓存数据[" + node + "]", true) {
+            private List<File> files;
+            private long rows;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                CacheExporter exporter = new CacheExporter(
+                        (tableName, pageNum, pageSize) -> SeeRequestController.getCacheByPageAsync(node, tableName, pageNum, pageSize), indicator);
+                try {
+                    files = exporter.export(tables, file, CacheExporter.Format.of(file));
+                } catch (IOException e) {
+                    throw new RuntimeException(e.getMessage(), e);
+                }
+                rows = exporter.getExportedRows();
+            }
+
+            @Override
+            public void onSuccess() {
+                StringBuilder message = new StringBuilder("已导出 " + rows + " 行到：");
+                for (File exported : files) {
+                    message.append("\n").append(exported.getAbsolutePath());
+                }
+                Messages.showInfoMessage(message.toString(), "导出完成");
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                log.error("导出缓存数据失败：{}", error.getMessage(), error);
+                Messages.showErrorDialog("导出失败：" + error.getMessage(), "错误");
+            }
+        }.queue();
+    }
+
+    /**
+     * 将当前节点上的内存表保存为快照
+     */
+    private void saveSnapshot() {
+        SeeConfig seeConfig = getSelectedSeeConfig();
+        String node = model.getNodeIp();
+        String tableName = model.getMemoryTable();
+        if (seeConfig == null || StringUtils.isBlank(node) || StringUtils.isBlank(tableName)) {
+            Messages.showErrorDialog("请先选择节点和内存表", "输入验证失败");
+            return;
+        }
+        CacheSnapshotStore store = new CacheSnapshotStore(seeConfig);
+        new Task.Backgroundable(null, "保存快照[" + tableName + "]", true) {
+            private CacheSnapshot snapshot;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                long createdAt = System.currentTimeMillis();
+                try (CacheSnapshotWriter writer = new CacheSnapshotWriter(store.newFile(node, tableName, createdAt), node, tableName, createdAt)) {
+                    snapshot = readSnapshot(node, tableName, writer, indicator);
+                } catch (IOException e) {
+                    throw new RuntimeException(e.getMessage(), e);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                Messages.showInfoMessage("已保存快照，共 " + snapshot.getRowCount() + " 行", "保存快照");
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                log.error("保存快照失败：{}", error.getMessage(), error);
+                Messages.showErrorDialog("保存快照失败：" + error.getMessage(), "错误");
+            }
+        }.queue();
+    }
+
+    /**
+     * 逐页读取节点上的内存表写入快照
+     */
+    private static CacheSnapshot readSnapshot(String node, String tableName, CacheSnapshotWriter writer, ProgressIndicator indicator) throws IOException {
+        indicator.setText("读取内存表[" + tableName + "]");
+        new CacheTableReader((table, pageNum, pageSize) -> SeeRequestController.getCacheByPageAsync(node, table, pageNum, pageSize), indicator)
+                .read(tableName, 0, 0.9, writer::add);
+        indicator.setText("写入快照[" + tableName + "]");
+        return writer.finish();
+    }
+
+    /**
+     * 打开快照列表，选择一个快照时与当前数据对比，选择两个时相互对比
+     */
+    private void openSnapshots() {
+        SeeConfig seeConfig = getSelectedSeeConfig();
+        if (seeConfig == null) {
+            Messages.showErrorDialog("请先选择环境", "输入验证失败");
+            return;
+        }
+        CacheSnapshotStore store = new CacheSnapshotStore(seeConfig);
+        String tableName = StringUtils.isBlank(model.getMemoryTable()) ? null : model.getMemoryTable();
+        List<CacheSnapshot> snapshots = store.list(tableName);
+        if (snapshots.isEmpty()) {
+            Messages.showInfoMessage(tableName == null ? "当前环境还没有快照" : "内存表[" + tableName + "]还没有快照", "快照对比");
+            return;
+        }
+        SnapshotDialog dialog = new SnapshotDialog(panel, store, snapshots);
+        if (!dialog.showAndGet()) {
+            return;
+        }
+        List<CacheSnapshot> selected = dialog.getSelectedSnapshots();
+        if (selected.size() == 2) {
+            compareSnapshots(store, selected.get(0), selected.get(1));
+        } else if (selected.size() == 1) {
+            compareSnapshots(store, selected.get(0), null);
+        }
+    }
+
+    /**
+     * 对比两个快照，新快照为空时查询节点上的当前数据对比；当前已选择节点时查询该节点，否则查询快照所在的节点
+     *
+     * @param store  快照目录
+     * @param before 旧快照
+     * @param after  新快照
+     */
+    private void compareSnapshots(CacheSnapshotStore store, CacheSnapshot before, CacheSnapshot after) {
+        String node = StringUtils.isBlank(model.getNodeIp()) ? before.getNode() : model.getNodeIp();
+        String title = after == null ? "对比快照与节点[" + node + "]" : "对比快照[" + before.getTableName() + "]";
+        new Task.Backgroundable(null, title, true) {
+            private SnapshotDiffTableModel tableModel;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                Path liveFile = null;
+                try {
+                    CacheSnapshot current = after;
+                    if (current == null) {
+                        liveFile = store.newTempFile();
+                        long createdAt = System.currentTimeMillis();
+                        try (CacheSnapshotWriter writer = new CacheSnapshotWriter(liveFile, node, before.getTableName(), createdAt)) {
+                            current = readSnapshot(node, before.getTableName(), writer, indicator);
+                        }
                     }
-                } catch (IOException ex) {
-                    handleError(ex);
+                    indicator.setText("对比快照");
+                    // 对比结果的索引也在后台建立
+                    tableModel = new SnapshotDiffTableModel(SnapshotDiff.compare(before, current, indicator));
+                } catch (IOException e) {
+                    throw new RuntimeException(e.getMessage(), e);
+                } finally {
+                    if (liveFile != null) {
+                        try {
+                            Files.deleteIfExists(liveFile);
+                        } catch (IOException e) {
+                            log.warn("删除临时快照失败：{}", liveFile, e);
+                        }
+                    }
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                setSnapshotDiffTableData(tableModel);
+                SnapshotDiff diff = tableModel.getDiff();
+                StringBuilder message = new StringBuilder();
+                message.append("新增 ").append(diff.getCount(SnapshotDiff.Kind.ADDED))
+                        .append(" 行，删除 ").append(diff.getCount(SnapshotDiff.Kind.REMOVED))
+                        .append(" 行，修改 ").append(diff.getCount(SnapshotDiff.Kind.CHANGED))
+                        .append(" 行，未变化 ").append(diff.getUnchangedCount()).append(" 行");
+                if (diff.isTruncated()) {
+                    message.append("\n差异过多，只显示前 ").append(SnapshotDiff.MAX_ENTRIES).append(" 行");
                 }
+                Messages.showInfoMessage(message.toString(), "快照对比");
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                log.error("快照对比失败：{}", error.getMessage(), error);
+                Messages.showErrorDialog("快照对比失败：" + error.getMessage(), "错误");
+            }
+        }.queue();
+    }
+
+    /**
+     * 并发查询所有节点上的内存表并对比
+     */
+    private void compareNodes() {
+        if (queryTask != null) {
+            queryTask.cancel();
+        }
+        CacheRequestTask task = new CacheRequestTask();
+        queryTask = task;
+
+        List<String> nodes = getNodeIps();
+        String envName = (String) env.getSelectedItem();
+        String macroName = model.getMacroName();
+        String tableName = model.getMemoryTable();
+        // 对比结果的索引也在后台建立
+        task.run("对比缓存[" + tableName + "]", () -> NodeCacheDiff.compare(envName, macroName, tableName, nodes,
+                (node, pageNum, pageSize) -> task.track(SeeRequestController.getCacheByPageAsync(node, tableName, pageNum, pageSize)),
+                PagedCacheTableModel.DEFAULT_PAGE_SIZE).thenApply(NodeDiffTableModel::new)).whenComplete((tableModel, ex) -> ApplicationManager.getApplication().invokeLater(() -> {
+            updateStopButton();
+            if (task != queryTask || task.isCancelled()) {
+                return;
+            }
+            if (ex != null) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                handleError(new RuntimeException(cause.getMessage(), cause));
+                return;
+            }
+            setDiffTableData(tableModel);
+            NodeCacheDiff diff = tableModel.getDiff();
+
+            StringBuilder message = new StringBuilder();
+            message.append("对比 ").append(diff.getNodes().size()).append(" 个节点，")
+                    .append(diff.getDriftedRowCount()).append(" 行不一致");
+            if (!diff.getStaleNodes().isEmpty()) {
+                message.append("\n不一致节点：").append(String.join(", ", diff.getStaleNodes()));
+            }
+            if (!diff.getFailedNodes().isEmpty()) {
+                diff.getFailedNodes().forEach((node, error) -> message.append("\n查询失败：").append(node).append(" ").append(error));
+                Messages.showWarningDialog(message.toString(), "节点对比");
+            } else {
+                Messages.showInfoMessage(message.toString(), "节点对比");
+            }
+        }));
+        updateStopButton();
+    }
+
+    /**
+     * 刷新与多数节点不一致的节点，完成后重新对比
+     * 刷新对比时的环境和表，而不是下拉框当前的选择
+     */
+    private void refreshStaleNodes() {
+        NodeCacheDiff diff = nodeDiff;
+        if (diff == null || diff.getStaleNodes().isEmpty()) {
+            return;
+        }
+        SeeConfig seeConfig = findSeeConfig(diff.getEnv());
+        if (seeConfig == null) {
+            Messages.showWarningDialog("环境[" + diff.getEnv() + "]已不存在，请重新对比", "刷新差异节点");
+            return;
+        }
+        String tableName = diff.getTableName();
+        Set<String> staleNodes = diff.getStaleNodes();
+        refreshCache(seeConfig, staleNodes.toArray(new String[0]), tableName, () -> {
+            log.info("已刷新服务[{}]缓存[{}]的节点：{}", diff.getMacroName(), tableName, staleNodes);
+            if (diff == nodeDiff) {
+                compareNodes();
             }
         });
     }
 
+    /**
+     * 停止进行中的查询和更新
+     */
+    private void stopTasks() {
+        stopWatch();
+        if (queryTask != null) {
+            queryTask.cancel();
+        }
+        if (updateTask != null) {
+            updateTask.cancel();
+        }
+        updateStopButton();
+    }
+
+    /**
+     * 有进行中的操作时才允许停止
+     */
+    private void updateStopButton() {
+        stopButton.setEnabled(isRunning(queryTask) || isRunning(updateTask) || watchTimer != null);
+    }
+
+    /**
+     * 开始监视当前查询的内存表
+     */
+    private void startWatch() {
+        if (!(table1.getModel() instanceof PagedCacheTableModel)) {
+            Messages.showInfoMessage("请先查询内存表", "监视");
+            return;
+        }
+        stopWatch();
+        watchTimer = new javax.swing.Timer(watchIntervalSeconds * 1000, e -> pollWatch());
+        watchTimer.start();
+        updateStopButton();
+    }
+
+    private void stopWatch() {
+        if (watchTimer != null) {
+            watchTimer.stop();
+            watchTimer = null;
+            updateStopButton();
+        }
+    }
+
+    /**
+     * 重新加载表格中可见的页，上一次还未完成或工具窗口不可见时跳过
+     */
+    private void pollWatch() {
+        if (!(table1.getModel() instanceof PagedCacheTableModel)) {
+            // 表格已显示对比结果
+            stopWatch();
+            return;
+        }
+        if (watchPolling || !table1.isShowing()) {
+            return;
+        }
+        PagedCacheTableModel tableModel = (PagedCacheTableModel) table1.getModel();
+        Rectangle visible = table1.getVisibleRect();
+        int firstRow = table1.rowAtPoint(visible.getLocation());
+        int lastRow = table1.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+        Set<Integer> pageIndexes = new TreeSet<>();
+        if (firstRow < 0) {
+            pageIndexes.add(0);
+        } else {
+            if (lastRow < 0) {
+                lastRow = table1.getRowCount() - 1;
+            }
+            for (int row = firstRow; row <= lastRow; row++) {
+                pageIndexes.add(tableModel.getPageIndex(table1.convertRowIndexToModel(row)));
+            }
+        }
+
+        watchPolling = true;
+        tableModel.reloadPages(pageIndexes).whenComplete((changed, ex) -> ApplicationManager.getApplication().invokeLater(() -> {
+            watchPolling = false;
+            if (ex != null && watchTimer != null && table1.getModel() == tableModel) {
+                stopWatch();
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                handleError(new RuntimeException("监视已停止：" + cause.getMessage(), cause));
+                return;
+            }
+            // 高亮到期后恢复
+            table1.repaint();
+        }));
+    }
+
+    private static boolean isRunning(CacheRequestTask task) {
+        return task != null && !task.isCancelled() && task.isRunning();
+    }
+
     /**
      * 处理错误
      *
@@ -524,65 +1199,92 @@ public class CacheMgrWindow {
     /**
      * 设置表格数据
      *
-     * @param jsonData
-     * @param condition
+     * @param tableModel
      */
-    public void setTableData(JSONObject jsonData, String condition) {
-        Set<String> rowKeys = jsonData.keySet();
+    public void setTableData(PagedCacheTableModel tableModel) {
+        nodeDiff = null;
+        table1.setDefaultRenderer(Object.class, new PagedCacheTableModel.Renderer());
+        tableModel.setErrorHandler(ex -> {
+            // 已被新的查询替换的表格不再记录
+            if (table1.getModel() == tableModel) {
+                log.error("加载缓存数据失败：{}", ex.getMessage(), ex);
+            }
+        });
+        table1.setModel(tableModel);
+        table1.setDefaultEditor(Object.class, null);
 
-        if (rowKeys.isEmpty()) {
-            table1.setModel(new DefaultTableModel(new String[0][0], new String[0]));
-            table1.setDefaultEditor(Object.class, null);
-            return;
+        TableRowSorter<PagedCacheTableModel> sorter = new TableRowSorter<>(tableModel);
+        // 数据按页加载，排序需要读取全部数据，不支持排序
+        for (int i = 0; i < tableModel.getColumnCount(); i++) {
+            sorter.setSortable(i, false);
         }
-
-        List<List<String>> arr = new ArrayList<>();
-        List<String> header = new ArrayList<>();
-        int rowIndex = 0;
-        for (String rowKey : rowKeys) {
-            if (rowKey.equals("all#")) {
-                continue;
+        // 只检索已加载的行，所在页加载或监视重新加载后需要重新过滤
+        sorter.setSortsOnUpdates(true);
+        table1.setRowSorter(sorter);
+        tableModel.addTableModelListener(e -> {
+            if (table1.getModel() == tableModel) {
+                updateFilterHint();
             }
+        });
+        applyFilter();
+    }
 
-            JSONArray rowArray = jsonData.getJSONArray(rowKey);
-            JSONObject firstRowObject = rowArray.getJSONObject(0);
-            Set<String> columnKeys = firstRowObject.keySet();
-            String[] split = rowKey.split("#");
+    /**
+     * 设置多节点对比结果，不一致的行着色显示
+     *
+     * @param tableModel 对比结果
+     */
+    private void setDiffTableData(NodeDiffTableModel tableModel) {
+        nodeDiff = tableModel.getDiff();
+        table1.setModel(tableModel);
+        table1.setDefaultEditor(Object.class, null);
+        table1.setDefaultRenderer(Object.class, new NodeDiffTableModel.Renderer());
 
-            List<String> row = new ArrayList<>();
-            for (String columnKey : columnKeys) {
-                if (rowIndex == 0) {
-                    String index = "";
-                    for (int i = 0; i < split.length; i++) {
-                        if (i % 2 == 0 && columnKey.replaceAll("_", "").equalsIgnoreCase(split[i].replaceAll("_", ""))) {
-                            index = "*";
-                            break;
-                        }
-                    }
-                    header.add(index + columnKey);
-                }
+        table1.setRowSorter(new TableRowSorter<>(tableModel));
+        applyFilter();
+    }
 
-                if (StringUtils.isNotBlank(condition)) {
-                    boolean isFilter = true;
-                    for (int i = 0; i < split.length; i++) {
-                        if (i % 2 == 1 && split[i].contains(condition)) {
-                            isFilter = false;
-                            break;
-                        }
-                    }
-                    if (isFilter) {
-                        continue;
-                    }
-                }
-                row.add(firstRowObject.getString(columnKey));
-            }
-            if (!row.isEmpty()) {
-                arr.add(row);
+    /**
+     * 显示快照对比结果
+     */
+    private void setSnapshotDiffTableData(SnapshotDiffTableModel tableModel) {
+        nodeDiff = null;
+        table1.setModel(tableModel);
+        table1.setDefaultEditor(Object.class, null);
+        table1.setDefaultRenderer(Object.class, new SnapshotDiffTableModel.Renderer());
+
+        table1.setRowSorter(new TableRowSorter<>(tableModel));
+        applyFilter();
+    }
+
+    /**
+     * 按检索条件过滤当前表格，使用表格数据的索引，输入时实时生效
+     */
+    private void applyFilter() {
+        if (!(table1.getRowSorter() instanceof TableRowSorter) || !(table1.getModel() instanceof IndexedTableModel)) {
+            return;
+        }
+        CacheFilter filter = CacheFilter.parse(condition.getText());
+        ((TableRowSorter<?>) table1.getRowSorter()).setRowFilter(filter.isEmpty() ? null : new CacheRowFilter(filter));
+        updateFilterHint();
+    }
+
+    /**
+     * 分页表格只检索已加载的页，数据未全部加载时提示检索结果不完整
+     */
+    private void updateFilterHint() {
+        boolean partial = false;
+        String hint = CacheFilter.SYNTAX;
+        if (table1.getModel() instanceof PagedCacheTableModel && !CacheFilter.parse(condition.getText()).isEmpty()) {
+            PagedCacheTableModel model = (PagedCacheTableModel) table1.getModel();
+            partial = !model.isFullyLoaded();
+            if (partial) {
+                hint = String.format("只检索了已加载的 %d 页%s，结果可能不完整，清空条件后滚动表格可加载其余数据；%s",
+                        model.getLoadedPageCount(), model.isExactRowCount() ? "（共 " + model.getPageCount() + " 页）" : "", CacheFilter.SYNTAX);
             }
-            rowIndex++;
         }
-        table1.setModel(new DefaultTableModel(listTo2DArray(arr), header.toArray()));
-        table1.setDefaultEditor(Object.class, null);
+        condition.setToolTipText(hint);
+        condition.setForeground(partial ? JBColor.ORANGE : UIManager.getColor("TextField.foreground"));
     }
 
     static class Model {
@@ -592,16 +1294,6 @@ public class CacheMgrWindow {
         private String memoryTable;
         private String condition;
 
-        public JSONObject getTableData() {
-            return tableData;
-        }
-
-        public void setTableData(JSONObject tableData) {
-            this.tableData = tableData;
-        }
-
-        private JSONObject tableData;
-
         public String getEnv() {
             return env;
         }
@@ -643,6 +1335,44 @@ public class CacheMgrWindow {
         }
     }
 
+    /**
+     * 服务控制台应用ID和运行中的微服务
+     */
+    static class ServiceCatalog {
+        private final String appId;
+        private final List<ServerInfo> serverInfos;
+
+        ServiceCatalog(String appId, List<ServerInfo> serverInfos) {
+            this.appId = appId;
+            this.serverInfos = serverInfos;
+        }
+
+        public String getAppId() {
+            return appId;
+        }
+
+        public List<ServerInfo> getServerInfos() {
+            return serverInfos;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ServiceCatalog)) {
+                return false;
+            }
+            ServiceCatalog that = (ServiceCatalog) o;
+            return Objects.equals(appId, that.appId) && Objects.equals(serverInfos, that.serverInfos);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(appId, serverInfos);
+        }
+    }
+
     static class ServerInfo {
         private String macroName;
         private String group;
@@ -671,5 +1401,22 @@ public class CacheMgrWindow {
         public void setVersion(String version) {
             this.version = version;
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ServerInfo)) {
+                return false;
+            }
+            ServerInfo that = (ServerInfo) o;
+            return Objects.equals(macroName, that.macroName) && Objects.equals(group, that.group) && Objects.equals(version, that.version);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(macroName, group, version);
+        }
     }
 }
@@ -1,9 +1,18 @@
 package com.github.hanfeng21050.extensions.ToolWindow;
 
+import com.github.hanfeng21050.extensions.ToolWindow.log.LogEntry;
+import com.github.hanfeng21050.extensions.ToolWindow.log.LogEntryRenderer;
+import com.github.hanfeng21050.extensions.ToolWindow.log.LogFilter;
+import com.github.hanfeng21050.extensions.ToolWindow.log.LogHistory;
+import com.github.hanfeng21050.extensions.ToolWindow.log.LogLinkDetector;
+import com.github.hanfeng21050.extensions.ToolWindow.log.LogListModel;
 import com.github.hanfeng21050.utils.EasyIcons;
+import com.github.hanfeng21050.utils.LogContext;
 import com.github.hanfeng21050.utils.LogLevel;
+import com.intellij.icons.AllIcons;
 import com.intellij.ide.ui.LafManagerListener;
 import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.colors.EditorColorsManager;
 import com.intellij.openapi.editor.colors.EditorColorsScheme;
 import com.intellij.openapi.fileEditor.OpenFileDescriptor;
@@ -12,74 +21,129 @@ import com.intellij.openapi.ui.SimpleToolWindowPanel;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.wm.ToolWindow;
-import com.intellij.ui.JBColor;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.SearchTextField;
+import com.intellij.ui.components.JBList;
 import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.ui.JBUI;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
-import javax.swing.text.BadLocationException;
-import javax.swing.text.SimpleAttributeSet;
-import javax.swing.text.StyleConstants;
-import javax.swing.text.StyledDocument;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
-import java.io.File;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.regex.Matcher;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 
 public class EasyEnvLogWindow extends SimpleToolWindowPanel {
-    private static final int MAX_LINES = 1000;
-    private static final Pattern FILE_PATTERN = Pattern.compile("([A-Za-z]:/(?:[^\\s/]+/)*[^\\s/]+(?:\\.[^\\s/]+)?)");
+    /**
+     * 保留的日志行数，超过后覆盖最旧的行
+     */
+    private static final int MAX_LINES = 100_000;
+    private static final Pattern LINE_SEPARATOR = Pattern.compile("\r?\n");
+    /**
+     * 合并写入的间隔，约一帧
+     */
+    private static final int FLUSH_INTERVAL_MS = 16;
+    /**
+     * 每次从日志文件载入的行数
+     */
+    private static final int HISTORY_PAGE_LINES = 2000;
+    private static final Logger LOGGER = Logger.getInstance(EasyEnvLogWindow.class);
 
-    private final JTextPane logPane;
+    private final LogListModel listModel;
+    private final LogEntryRenderer renderer;
+    private final JBList<LogEntry> logList;
     private final JBScrollPane scrollPane;
-    private final StyledDocument document;
+    private final SearchTextField searchField;
+    /**
+     * 显示的日志级别
+     */
+    private final Set<LogLevel> visibleLevels = EnumSet.allOf(LogLevel.class);
+    private final LogLinkDetector linkDetector = new LogLinkDetector();
+    /**
+     * 拆行和查找文件路径的后台线程，单线程保证日志顺序
+     */
+    private final ExecutorService parseExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor("EasyEnv Log", 1);
+    /**
+     * 待解析的日志，任意线程写入，后台线程批量取出
+     */
+    private final Queue<PendingLog> pendingLogs = new ConcurrentLinkedQueue<>();
+    /**
+     * 已解析的行，后台线程写入，事件调度线程上批量取出
+     */
+    private final Queue<LogEntry> parsedEntries = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean parseScheduled = new AtomicBoolean();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Timer flushTimer;
     private final Project project;
     private final ToolWindow toolWindow;
+    /**
+     * 行的左右留白，行宽为文本宽度加留白
+     */
+    private int cellPadding;
+    private int maxTextWidth;
+    /**
+     * 日志文件中的历史，以下只在事件调度线程中访问
+     */
+    private LogHistory history;
+    private boolean historyHasMore;
+    private boolean loadingHistory;
 
     public EasyEnvLogWindow(@NotNull Project project, @NotNull ToolWindow toolWindow) {
         super(true, true);
         this.project = project;
         this.toolWindow = toolWindow;
 
-        // 初始化日志面板
-        logPane = new JTextPane();
-        logPane.setEditable(false);
-        document = logPane.getStyledDocument();
+        // 初始化日志列表，固定行高和行宽，只绘制可见的行
+        listModel = new LogListModel(MAX_LINES);
+        renderer = new LogEntryRenderer();
+        logList = new JBList<>(listModel);
+        logList.setCellRenderer(renderer);
+        logList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        flushTimer = new Timer(FLUSH_INTERVAL_MS, e -> flush());
+        flushTimer.setRepeats(false);
 
         // 设置字体
         Font font = new Font("Monospaced", Font.PLAIN, JBUI.scaleFontSize(12));
-        logPane.setFont(font);
+        logList.setFont(font);
+        updateCellSize();
 
         // 初始化滚动面板
-        scrollPane = new JBScrollPane(logPane);
+        scrollPane = new JBScrollPane(logList);
         scrollPane.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
         scrollPane.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED);
 
         // 初始化颜色
         updateColors();
 
-        // 添加主题切换监听器
+        // 添加主题切换监听器，颜色在绘制时取得，只需重绘
         project.getMessageBus().connect().subscribe(
                 LafManagerListener.TOPIC,
                 source -> SwingUtilities.invokeLater(() -> {
+                    updateCellSize();
                     updateColors();
-                    refreshAllText();
                 })
         );
 
         // 添加编辑器主题切换监听器
         project.getMessageBus().connect().subscribe(
                 EditorColorsManager.TOPIC,
-                scheme -> SwingUtilities.invokeLater(() -> {
-                    updateColors();
-                    refreshAllText();
-                })
+                scheme -> SwingUtilities.invokeLater(this::updateColors)
         );
 
         // 添加鼠标监听器
@@ -88,8 +152,21 @@ public class EasyEnvLogWindow extends SimpleToolWindowPanel {
         // 设置工具栏
         setupToolbar();
 
-        // 将滚动面板添加到主面板
-        setContent(scrollPane);
+        // 关键字过滤，输入时即时过滤
+        searchField = new SearchTextField(false);
+        searchField.getTextEditor().setToolTipText("按关键字过滤日志，匹配内容以及项目、环境、阶段");
+        searchField.addDocumentListener(new DocumentAdapter() {
+            @Override
+            protected void textChanged(@NotNull DocumentEvent e) {
+                applyFilter();
+            }
+        });
+
+        // 将搜索框和滚动面板添加到主面板
+        JPanel contentPanel = new JPanel(new BorderLayout());
+        contentPanel.add(searchField, BorderLayout.NORTH);
+        contentPanel.add(scrollPane, BorderLayout.CENTER);
+        setContent(contentPanel);
     }
 
     /**
@@ -100,117 +177,202 @@ public class EasyEnvLogWindow extends SimpleToolWindowPanel {
 
         // 设置背景色
         Color backgroundColor = scheme.getDefaultBackground();
-        logPane.setBackground(backgroundColor);
+        logList.setBackground(backgroundColor);
         scrollPane.setBackground(backgroundColor);
         scrollPane.getViewport().setBackground(backgroundColor);
 
         // 设置默认文本颜色
         Color foregroundColor = scheme.getDefaultForeground();
-        logPane.setForeground(foregroundColor);
+        logList.setForeground(foregroundColor);
 
         // 刷新UI
-        logPane.repaint();
+        logList.repaint();
         scrollPane.repaint();
     }
 
     /**
-     * 获取指定日志级别在当前主题下的颜色
+     * 按示例行计算行高和留白
+     * 行宽也必须固定，否则列表每次变化都会测量所有行
      */
-    private Color getColorForLevel(LogLevel level) {
-        EditorColorsScheme scheme = EditorColorsManager.getInstance().getGlobalScheme();
-        boolean isDarkTheme = EditorColorsManager.getInstance().isDarkEditor();
-
-        switch (level) {
-            case INFO:
-                return scheme.getDefaultForeground();
-            case ERROR:
-                return new JBColor(new Color(200, 0, 0), new Color(255, 100, 100));
-            case WARN:
-                return new JBColor(new Color(200, 130, 0), new Color(255, 200, 100));
-            default:
-                return scheme.getDefaultForeground();
-        }
-    }
-
-    private Color getLinkColor() {
-        boolean isDarkTheme = EditorColorsManager.getInstance().isDarkEditor();
-        return new JBColor(
-                new Color(0, 102, 204),  // Light theme - IntelliJ default link color
-                new Color(104, 159, 220)  // Dark theme - IntelliJ default link color
-        );
+    private void updateCellSize() {
+        LogEntry prototype = new LogEntry(System.currentTimeMillis(), LogLevel.ERROR, LogContext.EMPTY, "", false, null);
+        Dimension size = renderer.getListCellRendererComponent(logList, prototype, 0, false, false).getPreferredSize();
+        cellPadding = Math.max(0, size.width - logList.getFontMetrics(logList.getFont()).stringWidth(prototype.getText()));
+        logList.setFixedCellHeight(size.height);
+        logList.setFixedCellWidth(maxTextWidth + cellPadding);
     }
 
     /**
      * 添加日志
+     * 可以在任意线程调用，日志先进入队列，由后台线程拆行并查找文件路径，再每帧在事件调度线程上合并写入一次
      */
     public void appendLog(String message, LogLevel level) {
-        SwingUtilities.invokeLater(() -> {
-            // 添加时间戳和日志级别
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-            String logEntry = String.format("[%s] [%s] %s%n", timestamp, level, message);
+        appendLog(message, level, LogContext.EMPTY);
+    }
 
-            // 使用appendLogImpl来处理文本，这样可以正确处理文件路径
-            appendLogImpl(logEntry, level);
+    /**
+     * 添加带结构化字段的日志
+     */
+    public void appendLog(String message, LogLevel level, LogContext context) {
+        pendingLogs.add(new PendingLog(System.currentTimeMillis(), message, level, context));
+        if (parseScheduled.compareAndSet(false, true)) {
+            parseExecutor.execute(this::parse);
+        }
+    }
 
-            // 限制行数
-            limitLines();
+    /**
+     * 在后台线程中取出待解析的日志，转为日志行
+     */
+    private void parse() {
+        parseScheduled.set(false);
+        List<PendingLog> logs = new ArrayList<>();
+        PendingLog log;
+        while ((log = pendingLogs.poll()) != null) {
+            logs.add(log);
+        }
+        if (logs.isEmpty()) {
+            return;
+        }
 
-            // 滚动到底部
-            logPane.setCaretPosition(document.getLength());
-        });
+        // 超过上限的部分追加后也会被淘汰，直接跳过
+        for (PendingLog pending : logs.subList(Math.max(0, logs.size() - MAX_LINES), logs.size())) {
+            // 去掉末尾的换行，如异常堆栈
+            String[] lines = LINE_SEPARATOR.split(pending.message);
+            for (int i = 0; i < lines.length; i++) {
+                parsedEntries.add(new LogEntry(pending.time, pending.level, pending.context, lines[i], i > 0,
+                        linkDetector.findLinks(lines[i])));
+            }
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(flushTimer::restart);
+        }
     }
 
-    private void appendLogImpl(String message, LogLevel level) {
-        try {
-            // 创建基本样式
-            SimpleAttributeSet baseStyle = new SimpleAttributeSet();
-            Color color = getColorForLevel(level);
-            StyleConstants.setForeground(baseStyle, color);
-
-            // 处理消息部分，查找并高亮文件路径
-            Matcher matcher = FILE_PATTERN.matcher(message);
-            int lastEnd = 0;
-
-            while (matcher.find()) {
-                // 添加路径前的普通文本
-                String beforePath = message.substring(lastEnd, matcher.start());
-                document.insertString(document.getLength(), beforePath, baseStyle);
-
-                // 获取匹配的文件路径
-                String filePath = matcher.group();
-                File file = new File(filePath);
-
-                // 为文件路径创建特殊样式
-                SimpleAttributeSet pathStyle = new SimpleAttributeSet(baseStyle);
-                if (file.exists()) {
-                    StyleConstants.setUnderline(pathStyle, true);
-                    Color linkColor = getLinkColor();
-                    StyleConstants.setForeground(pathStyle, linkColor);
-                }
+    /**
+     * 取出已解析的所有行，一次追加到列表，再统一滚动到底部
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        List<LogEntry> entries = new ArrayList<>();
+        LogEntry entry;
+        while ((entry = parsedEntries.poll()) != null) {
+            entries.add(entry);
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
 
-                // 添加带样式的文件路径
-                document.insertString(document.getLength(), filePath, pathStyle);
+        // 只有停在底部时才跟随滚动，便于翻看历史
+        JScrollBar scrollBar = scrollPane.getVerticalScrollBar();
+        boolean atBottom = scrollBar.getValue() + scrollBar.getVisibleAmount() >= scrollBar.getMaximum();
 
-                lastEnd = matcher.end();
+        listModel.addAll(entries);
+        updateCellWidth(entries);
+
+        // 滚动到底部
+        if (atBottom) {
+            logList.ensureIndexIsVisible(listModel.getSize() - 1);
+        }
+    }
+
+    /**
+     * 使用日志文件中的历史，载入最近的一页
+     *
+     * @param historyFuture 打开中的历史
+     */
+    public void loadHistory(CompletableFuture<LogHistory> historyFuture) {
+        historyFuture.whenComplete((loaded, e) -> SwingUtilities.invokeLater(() -> {
+            if (e != null) {
+                LOGGER.warn("打开日志历史失败", e);
+                return;
             }
+            history = loaded;
+            historyHasMore = true;
+            loadOlder();
+        }));
+    }
 
-            // 添加剩余的文本
-            if (lastEnd < message.length()) {
-                document.insertString(document.getLength(),
-                        message.substring(lastEnd), baseStyle);
+    /**
+     * 从日志文件中载入更早的一页，插入到列表开头
+     */
+    private void loadOlder() {
+        // 只读取缓冲区剩余容量能容纳的行数
+        int room = listModel.getBuffer().getCapacity() - listModel.getBuffer().size();
+        if (history == null || loadingHistory || !historyHasMore || room <= 0) {
+            return;
+        }
+        loadingHistory = true;
+        LogHistory current = history;
+        int maxLines = Math.min(HISTORY_PAGE_LINES, room);
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return current.readOlder(maxLines, linkDetector);
+            } catch (IOException e) {
+                throw new CompletionException(e);
             }
-        } catch (BadLocationException e) {
-            e.printStackTrace();
+        }, AppExecutorUtil.getAppExecutorService()).whenComplete((entries, e) -> SwingUtilities.invokeLater(() -> {
+            loadingHistory = false;
+            if (e != null) {
+                LOGGER.warn("读取日志历史失败", e);
+                return;
+            }
+            int count = prependEntries(entries);
+            if (count < entries.size()) {
+                // 读取期间新日志占用了容量，未插入的行退回，之后有空间时重新载入
+                current.pushBack(entries.subList(0, entries.size() - count));
+            }
+            historyHasMore = current.hasMore();
+        }));
+    }
+
+    /**
+     * 在列表开头插入更早的行，停在底部时仍在底部，否则保持当前看到的内容不动
+     *
+     * @return 插入的行数，缓冲区容量不足时只插入较新的部分
+     */
+    private int prependEntries(List<LogEntry> entries) {
+        JScrollBar scrollBar = scrollPane.getVerticalScrollBar();
+        boolean atBottom = scrollBar.getValue() + scrollBar.getVisibleAmount() >= scrollBar.getMaximum();
+        Rectangle visible = logList.getVisibleRect();
+
+        int oldSize = listModel.getSize();
+        int count = listModel.addFirst(entries);
+        if (count == 0) {
+            return 0;
+        }
+        updateCellWidth(entries);
+
+        if (atBottom) {
+            logList.ensureIndexIsVisible(listModel.getSize() - 1);
+        } else {
+            // 有过滤条件时只有匹配的行显示在开头
+            visible.y += (listModel.getSize() - oldSize) * logList.getFixedCellHeight();
+            logList.scrollRectToVisible(visible);
+        }
+        return count;
+    }
+
+    /**
+     * 行宽只随新行增加，淘汰旧行时不回缩
+     */
+    private void updateCellWidth(List<LogEntry> entries) {
+        FontMetrics metrics = logList.getFontMetrics(logList.getFont());
+        int width = maxTextWidth;
+        for (LogEntry entry : entries) {
+            width = Math.max(width, metrics.stringWidth(entry.getText()));
+        }
+        if (width > maxTextWidth) {
+            maxTextWidth = width;
+            logList.setFixedCellWidth(maxTextWidth + cellPadding);
         }
     }
 
     private void setupMouseListeners() {
-        logPane.addMouseListener(new MouseAdapter() {
+        logList.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
                 if (e.isControlDown() && SwingUtilities.isLeftMouseButton(e)) {
-                    int offset = logPane.viewToModel2D(e.getPoint());
-                    String filePath = findFilePathAtOffset(offset);
+                    String filePath = renderer.findLinkAt(logList, e.getPoint());
                     if (filePath != null) {
                         openFile(filePath);
                     }
@@ -218,38 +380,19 @@ public class EasyEnvLogWindow extends SimpleToolWindowPanel {
             }
         });
 
-        logPane.addMouseMotionListener(new MouseMotionAdapter() {
+        logList.addMouseMotionListener(new MouseMotionAdapter() {
             @Override
             public void mouseMoved(MouseEvent e) {
-                int offset = logPane.viewToModel2D(e.getPoint());
-                String filePath = findFilePathAtOffset(offset);
-                if (filePath != null && e.isControlDown()) {
-                    logPane.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+                String filePath = e.isControlDown() ? renderer.findLinkAt(logList, e.getPoint()) : null;
+                if (filePath != null) {
+                    logList.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
                 } else {
-                    logPane.setCursor(Cursor.getDefaultCursor());
+                    logList.setCursor(Cursor.getDefaultCursor());
                 }
             }
         });
     }
 
-    private String findFilePathAtOffset(int offset) {
-        try {
-            String text = document.getText(0, document.getLength());
-            Matcher matcher = FILE_PATTERN.matcher(text);
-            while (matcher.find()) {
-                if (matcher.start() <= offset && offset <= matcher.end()) {
-                    String path = matcher.group();
-                    if (new File(path).exists()) {
-                        return path;
-                    }
-                }
-            }
-        } catch (BadLocationException e) {
-            e.printStackTrace();
-        }
-        return null;
-    }
-
     private void openFile(String filePath) {
         VirtualFile virtualFile = LocalFileSystem.getInstance().findFileByPath(filePath);
         if (virtualFile != null && virtualFile.exists()) {
@@ -271,23 +414,61 @@ public class EasyEnvLogWindow extends SimpleToolWindowPanel {
             }
         });
 
+        actionGroup.addAction(new AnAction("加载更早的日志", "从日志文件中载入更早的日志", AllIcons.Vcs.History) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                loadOlder();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(historyHasMore && !loadingHistory && listModel.getBuffer().size() < MAX_LINES);
+            }
+        });
+
+        actionGroup.addSeparator();
+        actionGroup.addAction(createLevelAction(LogLevel.INFO, AllIcons.General.Information));
+        actionGroup.addAction(createLevelAction(LogLevel.WARN, AllIcons.General.Warning));
+        actionGroup.addAction(createLevelAction(LogLevel.ERROR, AllIcons.General.Error));
+
         ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("EasyEnvLog", actionGroup, true);
         toolbar.setTargetComponent(this);
         setToolbar(toolbar.getComponent());
     }
 
-    private void limitLines() {
-        if (document.getDefaultRootElement().getElementCount() > MAX_LINES) {
-            removeOldestLines(document.getDefaultRootElement().getElementCount() - MAX_LINES);
-        }
+    /**
+     * 切换是否显示某个级别的日志
+     */
+    private ToggleAction createLevelAction(LogLevel level, Icon icon) {
+        return new ToggleAction("显示 " + level, "显示 " + level + " 级别的日志", icon) {
+            @Override
+            public boolean isSelected(@NotNull AnActionEvent e) {
+                return visibleLevels.contains(level);
+            }
+
+            @Override
+            public void setSelected(@NotNull AnActionEvent e, boolean state) {
+                if (state) {
+                    visibleLevels.add(level);
+                } else {
+                    visibleLevels.remove(level);
+                }
+                applyFilter();
+            }
+        };
     }
 
-    private void removeOldestLines(int count) {
-        try {
-            int end = document.getDefaultRootElement().getElement(count - 1).getEndOffset();
-            document.remove(0, end);
-        } catch (BadLocationException e) {
-            e.printStackTrace();
+    /**
+     * 按级别和关键字重新过滤，过滤后滚动到底部
+     */
+    private void applyFilter() {
+        LogFilter filter = new LogFilter(visibleLevels, searchField.getText());
+        if (filter.getLevels().equals(listModel.getFilter().getLevels()) && filter.getQuery().equals(listModel.getFilter().getQuery())) {
+            return;
+        }
+        listModel.setFilter(filter);
+        if (listModel.getSize() > 0) {
+            logList.ensureIndexIsVisible(listModel.getSize() - 1);
         }
     }
 
@@ -295,40 +476,24 @@ public class EasyEnvLogWindow extends SimpleToolWindowPanel {
      * 清除日志内容
      */
     private void clearLog() {
-        try {
-            document.remove(0, document.getLength());
-        } catch (BadLocationException ignored) {
-        }
+        pendingLogs.clear();
+        parsedEntries.clear();
+        listModel.clear();
+        maxTextWidth = 0;
+        logList.setFixedCellWidth(cellPadding);
     }
 
-    private void refreshAllText() {
-        try {
-            String fullText = document.getText(0, document.getLength());
-            document.remove(0, document.getLength());
-
-            // 分析每一行的日志级别
-            String[] lines = fullText.split("\n", -1);  // 使用 -1 保留空行
-            for (int i = 0; i < lines.length; i++) {
-                String line = lines[i];
-                if (line.isEmpty() && i == lines.length - 1) continue; // 跳过最后一个空行
-
-                // 从日志行中提取日志级别
-                LogLevel level = LogLevel.INFO;  // 默认级别
-                if (line.contains("[ERROR]")) {
-                    level = LogLevel.ERROR;
-                } else if (line.contains("[WARN]")) {
-                    level = LogLevel.WARN;
-                }
-
-                // 不在最后一行时添加换行符
-                if (i < lines.length - 1) {
-                    line += "\n";
-                }
-
-                appendLogImpl(line, level);
-            }
-        } catch (BadLocationException e) {
-            e.printStackTrace();
+    private static class PendingLog {
+        private final long time;
+        private final String message;
+        private final LogLevel level;
+        private final LogContext context;
+
+        PendingLog(long time, String message, LogLevel level, LogContext context) {
+            this.time = time;
+            this.message = message;
+            this.level = level;
+            this.context = context;
         }
     }
 }
@@ -0,0 +1,179 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.intellij.openapi.progress.ProgressIndicator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 导出内存表数据
+ * 逐页查询并直接写入文件，不保留已写入的数据；写入临时文件，完成后再替换目标文件
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class CacheExporter {
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    public enum Format {
+        CSV("csv"), JSONL("jsonl");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * 按文件扩展名确定格式，默认 CSV
+         */
+        public static Format of(File file) {
+            return file.getName().toLowerCase().endsWith("." + JSONL.extension) ? JSONL : CSV;
+        }
+    }
+
+    private final CacheTableReader reader;
+    private final ProgressIndicator indicator;
+
+    public CacheExporter(CacheTableReader.PageLoader loader, ProgressIndicator indicator) {
+        this.reader = new CacheTableReader(loader, indicator);
+        this.indicator = indicator;
+    }
+
+    /**
+     * 导出多张内存表
+     * JSONL 格式所有表写入同一个文件；CSV 格式每张表的列不同，多张表时每张表写入目标文件旁的 文件名-表名.csv
+     *
+     * @param tableNames 内存表
+     * @param file       目标文件
+     * @param format     格式
+     * @return 写入的文件
+     */
+    public List<File> export(List<String> tableNames, File file, Format format) throws IOException {
+        List<File> files = new ArrayList<>();
+        if (format == Format.JSONL || tableNames.size() == 1) {
+            writeAtomically(file, format, out -> {
+                for (int t = 0; t < tableNames.size(); t++) {
+                    exportTable(tableNames.get(t), t, tableNames.size(), format, out);
+                }
+            });
+            files.add(file);
+            return files;
+        }
+
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        String baseName = dot > 0 ? name.substring(0, dot) : name;
+        for (int t = 0; t < tableNames.size(); t++) {
+            String tableName = tableNames.get(t);
+            int tableNum = t;
+            File tableFile = new File(file.getParentFile(), baseName + "-" + tableName + "." + format.getExtension());
+            writeAtomically(tableFile, format, out -> exportTable(tableName, tableNum, tableNames.size(), format, out));
+            files.add(tableFile);
+        }
+        return files;
+    }
+
+    public long getExportedRows() {
+        return reader.getReadRows();
+    }
+
+    private void exportTable(String tableName, int tableNum, int tableCount, Format format, Writer out) throws IOException {
+        indicator.setText("导出内存表[" + tableName + "] (" + (tableNum + 1) + "/" + tableCount + ")");
+        CacheTableReader.RowHandler handler = format == Format.CSV ? new CsvRowHandler(out) : (rowKey, row) -> {
+            JSONObject line = new JSONObject();
+            line.put("table", tableName);
+            line.put("rowKey", rowKey);
+            line.put("data", row);
+            out.write(JSON.toJSONString(line));
+            out.write('\n');
+        };
+        reader.read(tableName, (double) tableNum / tableCount, (double) (tableNum + 1) / tableCount, handler);
+    }
+
+    private static void writeCsvLine(Writer out, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write("\r\n");
+    }
+
+    private void writeAtomically(File file, Format format, ContentWriter writer) throws IOException {
+        Path target = file.toPath();
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, "." + file.getName(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), WRITE_BUFFER_SIZE), WRITE_BUFFER_SIZE)) {
+                if (format == Format.CSV) {
+                    // 带 BOM，Excel 打开时按 UTF-8 识别中文
+                    out.write('\uFEFF');
+                }
+                writer.writeTo(out);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 以第一行的列作为表头写出 CSV
+     */
+    private static class CsvRowHandler implements CacheTableReader.RowHandler {
+        private final Writer out;
+        private List<String> columnKeys;
+
+        CsvRowHandler(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void accept(String rowKey, JSONObject row) throws IOException {
+            if (columnKeys == null) {
+                columnKeys = new ArrayList<>(row.keySet());
+                writeCsvLine(out, columnKeys);
+            }
+            List<String> values = new ArrayList<>(columnKeys.size());
+            for (String columnKey : columnKeys) {
+                values.add(row.getString(columnKey));
+            }
+            writeCsvLine(out, values);
+        }
+    }
+
+    private interface ContentWriter {
+        void writeTo(Writer out) throws IOException;
+    }
+}
@@ -0,0 +1,191 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 缓存数据检索条件
+ * 多个条件以空格分隔，同时满足才匹配，每个条件可以写成：
+ * <ul>
+ *     <li>值：任意主键字段包含该值</li>
+ *     <li>=值：任意主键字段等于该值</li>
+ *     <li>值*：任意主键字段以该值开头</li>
+ *     <li>/正则/：任意主键字段匹配正则</li>
+ *     <li>列名:条件：只在指定列中匹配，列名忽略大小写和下划线</li>
+ *     <li>*:条件：在所有列中匹配</li>
+ * </ul>
+ * 不限定列时与原来按主键检索一致，只匹配主键字段；不能确定主键字段时匹配所有列
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class CacheFilter {
+    public static final String SYNTAX = "多个条件以空格分隔，默认只匹配主键字段；值 包含，=值 等于，值* 前缀，/正则/ 正则，列名:条件 限定列，*:条件 所有列";
+
+    /**
+     * 在所有列中匹配的列名
+     */
+    private static final String ALL_COLUMNS = "*";
+
+    private enum Kind {
+        CONTAINS, EXACT, PREFIX, REGEX
+    }
+
+    private final List<Term> terms;
+
+    private CacheFilter(List<Term> terms) {
+        this.terms = terms;
+    }
+
+    /**
+     * 解析检索条件
+     *
+     * @param text 输入的条件
+     * @return {@link CacheFilter}
+     */
+    public static CacheFilter parse(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return new CacheFilter(Collections.emptyList());
+        }
+        List<Term> terms = new ArrayList<>();
+        for (String token : text.trim().split("\\s+")) {
+            String column = null;
+            String expression = token;
+            int colon = token.indexOf(':');
+            // 正则中可能有冒号，以 / 开头时不解析列名
+            if (colon > 0 && !token.startsWith("/")) {
+                column = token.substring(0, colon);
+                expression = token.substring(colon + 1);
+            }
+            if (!expression.isEmpty()) {
+                terms.add(Term.of(token, column, expression));
+            }
+        }
+        return new CacheFilter(terms);
+    }
+
+    public boolean isEmpty() {
+        return terms.isEmpty();
+    }
+
+    /**
+     * 计算索引中匹配的行
+     *
+     * @param index 索引
+     * @return 匹配的行
+     */
+    public BitSet evaluate(CacheRowIndex index) {
+        BitSet result = null;
+        for (Term term : terms) {
+            BitSet matched = term.evaluate(index);
+            if (result == null) {
+                result = matched;
+            } else {
+                result.and(matched);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        if (result == null) {
+            result = new BitSet(index.getRowCount());
+            result.set(0, index.getRowCount());
+        }
+        return result;
+    }
+
+    private static class Term {
+        /**
+         * 原始输入，列名不存在时按整体包含匹配
+         */
+        private final String token;
+        private final String column;
+        private final Kind kind;
+        private final String value;
+        private final Pattern pattern;
+
+        private Term(String token, String column, Kind kind, String value, Pattern pattern) {
+            this.token = token;
+            this.column = column;
+            this.kind = kind;
+            this.value = value;
+            this.pattern = pattern;
+        }
+
+        static Term of(String token, String column, String expression) {
+            if (expression.length() > 2 && expression.startsWith("/") && expression.endsWith("/")) {
+                try {
+                    return new Term(token, column, Kind.REGEX, null, Pattern.compile(expression.substring(1, expression.length() - 1)));
+                } catch (PatternSyntaxException e) {
+                    // 输入过程中正则可能还不完整，按包含匹配
+                    return new Term(token, column, Kind.CONTAINS, expression, null);
+                }
+            }
+            if (expression.length() > 1 && expression.startsWith("=")) {
+                return new Term(token, column, Kind.EXACT, expression.substring(1), null);
+            }
+            if (expression.length() > 1 && expression.endsWith("*")) {
+                return new Term(token, column, Kind.PREFIX, expression.substring(0, expression.length() - 1), null);
+            }
+            return new Term(token, column, Kind.CONTAINS, expression, null);
+        }
+
+        BitSet evaluate(CacheRowIndex index) {
+            BitSet result = new BitSet(index.getRowCount());
+            if (ALL_COLUMNS.equals(column)) {
+                for (int c = 0; c < index.getColumnCount(); c++) {
+                    evaluate(index, c, result);
+                }
+                return result;
+            }
+            if (column != null) {
+                int c = index.columnIndexOf(column);
+                if (c >= 0) {
+                    evaluate(index, c, result);
+                } else {
+                    // 不是列名，按整个输入包含匹配
+                    for (int i : searchColumns(index)) {
+                        index.matching(i, v -> v.contains(token), result);
+                    }
+                }
+                return result;
+            }
+            for (int c : searchColumns(index)) {
+                evaluate(index, c, result);
+            }
+            return result;
+        }
+
+        /**
+         * 不限定列时匹配的列：主键字段，不能确定主键时为所有列
+         */
+        private static int[] searchColumns(CacheRowIndex index) {
+            BitSet keyColumns = index.getKeyColumns();
+            if (keyColumns.isEmpty()) {
+                keyColumns.set(0, index.getColumnCount());
+            }
+            return keyColumns.stream().toArray();
+        }
+
+        private void evaluate(CacheRowIndex index, int column, BitSet result) {
+            switch (kind) {
+                case EXACT:
+                    index.exact(column, value, result);
+                    break;
+                case PREFIX:
+                    index.prefix(column, value, result);
+                    break;
+                case REGEX:
+                    index.matching(column, v -> pattern.matcher(v).find(), result);
+                    break;
+                default:
+                    index.matching(column, v -> v.contains(value), result);
+                    break;
+            }
+        }
+    }
+}
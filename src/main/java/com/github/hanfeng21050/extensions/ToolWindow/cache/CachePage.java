@@ -0,0 +1,251 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 缓存数据的一页，按列存储
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class CachePage {
+    private static final String[] TOTAL_FIELDS = {"total", "totalCount", "count"};
+
+    private final List<String> columnKeys;
+    private final String[] rowKeys;
+    /**
+     * columns[列][行]
+     */
+    private final String[][] columns;
+    /**
+     * 每行的哈希，构建时计算一次，重新加载比较时先比较哈希
+     */
+    private final int[] rowHashes;
+    /**
+     * 行主键 -> 行，第一次按主键查找时建立
+     */
+    private Map<String, Integer> rowPositions;
+    private CacheRowIndex index;
+
+    private CachePage(List<String> columnKeys, String[] rowKeys, String[][] columns) {
+        this.columnKeys = columnKeys;
+        this.rowKeys = rowKeys;
+        this.columns = columns;
+        // 按列存储，逐列累加每行的哈希
+        this.rowHashes = new int[rowKeys.length];
+        for (int row = 0; row < rowKeys.length; row++) {
+            rowHashes[row] = rowKeys[row].hashCode();
+        }
+        for (String[] column : columns) {
+            for (int row = 0; row < rowKeys.length; row++) {
+                rowHashes[row] = 31 * rowHashes[row] + Objects.hashCode(column[row]);
+            }
+        }
+    }
+
+    /**
+     * 由 getCacheByPage 返回的 data.data 构建
+     *
+     * @param rows       行主键 -> 行数据
+     * @param columnKeys 列名
+     * @return {@link CachePage}
+     */
+    public static CachePage of(JSONObject rows, List<String> columnKeys) {
+        List<String> keys = new ArrayList<>(rows.size());
+        List<JSONObject> values = new ArrayList<>(rows.size());
+        for (String rowKey : rows.keySet()) {
+            JSONArray rowArray = rows.getJSONArray(rowKey);
+            if (rowArray == null || rowArray.isEmpty()) {
+                continue;
+            }
+            keys.add(rowKey);
+            values.add(rowArray.getJSONObject(0));
+        }
+
+        String[][] columns = new String[columnKeys.size()][values.size()];
+        for (int c = 0; c < columnKeys.size(); c++) {
+            String columnKey = columnKeys.get(c);
+            for (int r = 0; r < values.size(); r++) {
+                columns[c][r] = values.get(r).getString(columnKey);
+            }
+        }
+        return new CachePage(columnKeys, keys.toArray(new String[0]), columns);
+    }
+
+    /**
+     * 取第一行的列名
+     *
+     * @param rows 行主键 -> 行数据
+     * @return 列名，没有数据时为空
+     */
+    public static List<String> columnKeys(JSONObject rows) {
+        for (String rowKey : rows.keySet()) {
+            JSONArray rowArray = rows.getJSONArray(rowKey);
+            if (rowArray != null && !rowArray.isEmpty()) {
+                return new ArrayList<>(rowArray.getJSONObject(0).keySet());
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * 取第一行的主键
+     *
+     * @param rows 行主键 -> 行数据
+     * @return 主键，没有数据时为null
+     */
+    public static String firstRowKey(JSONObject rows) {
+        for (String rowKey : rows.keySet()) {
+            return rowKey;
+        }
+        return null;
+    }
+
+    /**
+     * 取 getCacheByPage 响应 data 中的行数据
+     *
+     * @param data 响应中的 data
+     * @return 行主键 -> 行数据，没有数据时为空
+     */
+    public static JSONObject rows(JSONObject data) {
+        JSONObject rows = data == null ? null : data.getJSONObject("data");
+        return rows == null ? new JSONObject() : rows;
+    }
+
+    /**
+     * 取 getCacheByPage 响应 data 中的总行数
+     *
+     * @param data 响应中的 data
+     * @return 总行数，服务端未返回时为null
+     */
+    public static Integer total(JSONObject data) {
+        if (data == null) {
+            return null;
+        }
+        for (String field : TOTAL_FIELDS) {
+            Integer total = data.getInteger(field);
+            if (total != null) {
+                return total;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 满页实际的行数
+     * getCacheByPage 每页的 pageSize 行中包括一行汇总行 all#，解析响应时已被去掉，满页只有 pageSize - 1 行；
+     * 第一页的行数达到 pageSize 说明服务端没有返回汇总行，此时满页为 pageSize 行。分页读取都应按此判断
+     *
+     * @param pageSize      请求的每页行数
+     * @param firstPageRows 第一页解析后的行数
+     * @return 满页的行数
+     */
+    public static int rowsPerPage(int pageSize, int firstPageRows) {
+        return firstPageRows >= pageSize ? pageSize : Math.max(1, pageSize - 1);
+    }
+
+    /**
+     * 是否为最后一页：服务端返回总数时按总数判断，否则空页或不满一页即最后一页
+     *
+     * @param pageRows    本页的行数
+     * @param rowsPerPage 满页的行数，见 {@link #rowsPerPage}
+     * @param readRows    包括本页在内已读取的行数
+     * @param total       服务端返回的总行数，未返回时为null
+     * @return 是否为最后一页
+     */
+    public static boolean isLastPage(int pageRows, int rowsPerPage, long readRows, Integer total) {
+        return pageRows == 0 || (total != null ? readRows >= total : pageRows < rowsPerPage);
+    }
+
+    /**
+     * 列名，主键字段前加 *
+     *
+     * @param columnKeys  列名
+     * @param firstRowKey 任意一行的主键，格式为 字段#值#字段#值
+     * @return 显示的列名
+     */
+    public static String[] columnNames(List<String> columnKeys, String firstRowKey) {
+        String[] split = firstRowKey == null ? new String[0] : firstRowKey.split("#");
+        String[] columnNames = new String[columnKeys.size()];
+        for (int c = 0; c < columnKeys.size(); c++) {
+            String columnKey = columnKeys.get(c);
+            String index = "";
+            for (int i = 0; i < split.length; i += 2) {
+                if (columnKey.replaceAll("_", "").equalsIgnoreCase(split[i].replaceAll("_", ""))) {
+                    index = "*";
+                    break;
+                }
+            }
+            columnNames[c] = index + columnKey;
+        }
+        return columnNames;
+    }
+
+    public int size() {
+        return rowKeys.length;
+    }
+
+    public String getRowKey(int row) {
+        return rowKeys[row];
+    }
+
+    public String getValue(int row, int column) {
+        return columns[column][row];
+    }
+
+    /**
+     * 按主键查找行
+     *
+     * @param rowKey 行主键
+     * @return 行，不在本页时为-1
+     */
+    public int indexOf(String rowKey) {
+        if (rowPositions == null) {
+            rowPositions = new HashMap<>(rowKeys.length * 2);
+            for (int row = 0; row < rowKeys.length; row++) {
+                rowPositions.put(rowKeys[row], row);
+            }
+        }
+        Integer row = rowPositions.get(rowKey);
+        return row == null ? -1 : row;
+    }
+
+    /**
+     * 与另一页中的某一行是否相同，哈希不同时直接判定不同，相同时再逐列比较
+     *
+     * @param row      本页的行
+     * @param other    另一页，列相同
+     * @param otherRow 另一页的行
+     * @return 是否相同
+     */
+    public boolean sameRow(int row, CachePage other, int otherRow) {
+        if (rowHashes[row] != other.rowHashes[otherRow] || !rowKeys[row].equals(other.rowKeys[otherRow])) {
+            return false;
+        }
+        for (int c = 0; c < columns.length; c++) {
+            if (!Objects.equals(columns[c][row], other.columns[c][otherRow])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 本页数据的索引，第一次使用时建立
+     */
+    public CacheRowIndex getIndex() {
+        if (index == null) {
+            String[] columnNames = columnNames(columnKeys, rowKeys.length == 0 ? null : rowKeys[0]);
+            index = CacheRowIndex.build(Arrays.asList(columnNames), size(), (row, column) -> columns[column][row]);
+        }
+        return index;
+    }
+}
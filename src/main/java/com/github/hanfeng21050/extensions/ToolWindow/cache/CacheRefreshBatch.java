@@ -0,0 +1,165 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import com.alibaba.fastjson2.JSONObject;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量刷新多个节点上的多张内存表
+ * 每个节点发送一次请求，请求体中带上该节点要刷新的所有表；同时在途的请求数不超过 {@link #MAX_CONCURRENT_REQUESTS}，
+ * 每个请求完成后立即回调结果
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class CacheRefreshBatch {
+    /**
+     * 同时在途的最大请求数
+     */
+    public static final int MAX_CONCURRENT_REQUESTS = 4;
+    private static final String[] MESSAGE_FIELDS = {"error_info", "message", "msg"};
+
+    /**
+     * 刷新状态
+     */
+    public enum Status {
+        PENDING("等待"),
+        RUNNING("刷新中"),
+        SUCCESS("成功"),
+        FAILED("失败"),
+        CANCELLED("已取消");
+
+        private final String label;
+
+        Status(String label) {
+            this.label = label;
+        }
+
+        /**
+         * 是否需要重试
+         */
+        public boolean isRetryable() {
+            return this == FAILED || this == CANCELLED;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * 发送刷新请求，请求中的http调用需要通过 {@link CacheRequestTask#track} 记录以便取消
+     */
+    public interface RefreshRequest {
+        CompletableFuture<JSONObject> refresh(String[] nodes, String[] tables, CacheRequestTask task);
+    }
+
+    /**
+     * 刷新状态变化，在后台线程上回调
+     */
+    public interface Listener {
+        void onStatus(String node, List<String> tables, Status status, String message);
+    }
+
+    private final RefreshRequest request;
+    private final Listener listener;
+    private final CacheRequestTask task = new CacheRequestTask();
+
+    public CacheRefreshBatch(RefreshRequest request, Listener listener) {
+        this.request = request;
+        this.listener = listener;
+    }
+
+    /**
+     * 开始刷新
+     *
+     * @param tablesByNode 节点 -> 要刷新的表
+     * @return 全部请求结束后完成
+     */
+    public CompletableFuture<Void> run(Map<String, List<String>> tablesByNode) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (tablesByNode.isEmpty()) {
+            done.complete(null);
+            return done;
+        }
+        Queue<Map.Entry<String, List<String>>> pending = new ConcurrentLinkedQueue<>(tablesByNode.entrySet());
+        for (Map.Entry<String, List<String>> entry : pending) {
+            listener.onStatus(entry.getKey(), entry.getValue(), Status.PENDING, null);
+        }
+        AtomicInteger remaining = new AtomicInteger(pending.size());
+        for (int i = 0; i < Math.min(MAX_CONCURRENT_REQUESTS, pending.size()); i++) {
+            next(pending, remaining, done);
+        }
+        return done;
+    }
+
+    /**
+     * 取消未完成的请求，排队中的请求不再发送
+     */
+    public void cancel() {
+        task.cancel();
+    }
+
+    private void next(Queue<Map.Entry<String, List<String>>> pending, AtomicInteger remaining, CompletableFuture<Void> done) {
+        Map.Entry<String, List<String>> entry = pending.poll();
+        if (entry == null) {
+            return;
+        }
+        String node = entry.getKey();
+        List<String> tables = entry.getValue();
+        if (task.isCancelled()) {
+            listener.onStatus(node, tables, Status.CANCELLED, null);
+            finish(pending, remaining, done);
+            return;
+        }
+
+        listener.onStatus(node, tables, Status.RUNNING, null);
+        CompletableFuture<JSONObject> future;
+        try {
+            future = request.refresh(new String[]{node}, tables.toArray(new String[0]), task);
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((response, ex) -> {
+            if (task.isCancelled()) {
+                listener.onStatus(node, tables, Status.CANCELLED, null);
+            } else if (ex != null) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                listener.onStatus(node, tables, Status.FAILED, cause.getMessage());
+            } else if (response != null && "true".equals(response.getString("success"))) {
+                listener.onStatus(node, tables, Status.SUCCESS, null);
+            } else {
+                listener.onStatus(node, tables, Status.FAILED, message(response));
+            }
+            finish(pending, remaining, done);
+        });
+    }
+
+    private void finish(Queue<Map.Entry<String, List<String>>> pending, AtomicInteger remaining, CompletableFuture<Void> done) {
+        if (remaining.decrementAndGet() == 0) {
+            done.complete(null);
+        } else {
+            next(pending, remaining, done);
+        }
+    }
+
+    private static String message(JSONObject response) {
+        if (response == null) {
+            return null;
+        }
+        for (String field : MESSAGE_FIELDS) {
+            String message = response.getString(field);
+            if (StringUtils.isNotBlank(message)) {
+                return message;
+            }
+        }
+        return null;
+    }
+}
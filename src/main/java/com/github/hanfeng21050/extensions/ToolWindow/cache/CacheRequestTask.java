@@ -0,0 +1,100 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 可取消的缓存请求
+ * 记录一次操作发出的所有异步请求，取消时一并中止；执行期间在状态栏显示进度，在进度上点击取消等同于停止
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class CacheRequestTask {
+    /**
+     * 检查进度是否被取消的间隔
+     */
+    private static final long CHECK_INTERVAL_MS = 100;
+
+    private final Set<CompletableFuture<?>> requests = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+    private volatile CompletableFuture<?> result;
+
+    /**
+     * 在后台执行操作，操作结束前一直显示进度
+     *
+     * @param title   进度标题
+     * @param starter 发起请求
+     * @return 操作结果
+     */
+    public <T> CompletableFuture<T> run(String title, Supplier<CompletableFuture<T>> starter) {
+        CompletableFuture<T> result = starter.get();
+        this.result = result;
+        new Task.Backgroundable(null, title, true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indicator.setIndeterminate(true);
+                while (!result.isDone()) {
+                    if (indicator.isCanceled()) {
+                        CacheRequestTask.this.cancel();
+                        return;
+                    }
+                    try {
+                        result.get(CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException ignored) {
+                        // 继续等待
+                    } catch (Exception e) {
+                        // 结果由调用方处理
+                        return;
+                    }
+                }
+            }
+        }.queue();
+        return result;
+    }
+
+    /**
+     * 记录请求，取消时中止
+     *
+     * @param request 请求
+     * @return 原请求
+     */
+    public <T> CompletableFuture<T> track(CompletableFuture<T> request) {
+        requests.add(request);
+        request.whenComplete((result, ex) -> requests.remove(request));
+        if (cancelled) {
+            request.cancel(true);
+        }
+        return request;
+    }
+
+    /**
+     * 取消操作并中止所有未完成的请求
+     */
+    public void cancel() {
+        cancelled = true;
+        for (CompletableFuture<?> request : requests) {
+            request.cancel(true);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 操作是否还在执行
+     */
+    public boolean isRunning() {
+        CompletableFuture<?> result = this.result;
+        return result != null && !result.isDone();
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import javax.swing.*;
+import javax.swing.table.TableModel;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 基于索引的行过滤
+ * 每个索引块只计算一次匹配结果，之后每行的判断只是一次位图查询；
+ * 只检索已加载的数据，未加载的行不显示，否则这些行显示出来后会触发加载，过滤条件越严格加载的页越多；
+ * 表格的排序器需要开启 setSortsOnUpdates，所在页加载或重新加载后才会重新过滤；判断时不会触发数据加载
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class CacheRowFilter extends RowFilter<TableModel, Integer> {
+    private final CacheFilter filter;
+    /**
+     * 索引块 -> 匹配的行，索引块被淘汰后自动释放
+     */
+    private final Map<CacheRowIndex, BitSet> results = new WeakHashMap<>();
+
+    public CacheRowFilter(CacheFilter filter) {
+        this.filter = filter;
+    }
+
+    @Override
+    public boolean include(Entry<? extends TableModel, ? extends Integer> entry) {
+        IndexedTableModel model = (IndexedTableModel) entry.getModel();
+        int row = entry.getIdentifier();
+        CacheRowIndex index = model.getRowIndex(row);
+        if (index == null) {
+            return false;
+        }
+        return results.computeIfAbsent(index, filter::evaluate).get(model.getIndexedRow(row));
+    }
+}
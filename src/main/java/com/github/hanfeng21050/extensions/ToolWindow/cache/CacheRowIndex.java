@@ -0,0 +1,177 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * 按列建立的倒排索引
+ * 每列保存排序后的不重复值及其所在的行，精确和前缀匹配使用二分查找，包含和正则匹配只需遍历不重复的值
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class CacheRowIndex {
+
+    /**
+     * 读取单元格的值
+     */
+    public interface ValueAccessor {
+        String get(int row, int column);
+    }
+
+    private final List<String> columnKeys;
+    private final int rowCount;
+    private final ColumnIndex[] columns;
+    /**
+     * 主键字段所在的列
+     */
+    private final BitSet keyColumns;
+
+    private CacheRowIndex(List<String> columnKeys, int rowCount, ColumnIndex[] columns, BitSet keyColumns) {
+        this.columnKeys = columnKeys;
+        this.rowCount = rowCount;
+        this.columns = columns;
+        this.keyColumns = keyColumns;
+    }
+
+    /**
+     * 建立索引
+     *
+     * @param columnKeys 列名，主键字段前加 *，见 {@link CachePage#columnNames}
+     * @param rowCount   行数
+     * @param accessor   读取单元格
+     * @return {@link CacheRowIndex}
+     */
+    public static CacheRowIndex build(List<String> columnKeys, int rowCount, ValueAccessor accessor) {
+        ColumnIndex[] columns = new ColumnIndex[columnKeys.size()];
+        BitSet keyColumns = new BitSet(columns.length);
+        for (int c = 0; c < columns.length; c++) {
+            if (columnKeys.get(c).startsWith("*")) {
+                keyColumns.set(c);
+            }
+            Map<String, IntList> postings = new HashMap<>();
+            for (int r = 0; r < rowCount; r++) {
+                String value = accessor.get(r, c);
+                postings.computeIfAbsent(value == null ? "" : value, k -> new IntList()).add(r);
+            }
+            String[] values = postings.keySet().toArray(new String[0]);
+            Arrays.sort(values);
+            int[][] rows = new int[values.length][];
+            for (int i = 0; i < values.length; i++) {
+                rows[i] = postings.get(values[i]).toArray();
+            }
+            columns[c] = new ColumnIndex(values, rows);
+        }
+        return new CacheRowIndex(columnKeys, rowCount, columns, keyColumns);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 按列名查找列，忽略大小写和下划线
+     *
+     * @param name 列名
+     * @return 列号，不存在时为-1
+     */
+    public int columnIndexOf(String name) {
+        String normalized = normalize(name);
+        for (int c = 0; c < columnKeys.size(); c++) {
+            if (normalize(columnKeys.get(c)).equals(normalized)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * 主键字段所在的列，不能确定主键时为空
+     */
+    public BitSet getKeyColumns() {
+        return (BitSet) keyColumns.clone();
+    }
+
+    /**
+     * 值等于 value 的行
+     */
+    public void exact(int column, String value, BitSet result) {
+        ColumnIndex index = columns[column];
+        int i = Arrays.binarySearch(index.values, value);
+        if (i >= 0) {
+            index.mark(i, result);
+        }
+    }
+
+    /**
+     * 值以 prefix 开头的行
+     */
+    public void prefix(int column, String prefix, BitSet result) {
+        ColumnIndex index = columns[column];
+        int i = Arrays.binarySearch(index.values, prefix);
+        for (i = i < 0 ? -i - 1 : i; i < index.values.length && index.values[i].startsWith(prefix); i++) {
+            index.mark(i, result);
+        }
+    }
+
+    /**
+     * 值满足条件的行
+     */
+    public void matching(int column, Predicate<String> predicate, BitSet result) {
+        ColumnIndex index = columns[column];
+        for (int i = 0; i < index.values.length; i++) {
+            if (predicate.test(index.values[i])) {
+                index.mark(i, result);
+            }
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").replace("*", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 一列的索引
+     */
+    private static class ColumnIndex {
+        /**
+         * 排序后的不重复值
+         */
+        private final String[] values;
+        /**
+         * 每个值所在的行
+         */
+        private final int[][] rows;
+
+        ColumnIndex(String[] values, int[][] rows) {
+            this.values = values;
+            this.rows = rows;
+        }
+
+        void mark(int valueIndex, BitSet result) {
+            for (int row : rows[valueIndex]) {
+                result.set(row);
+            }
+        }
+    }
+
+    private static class IntList {
+        private int[] data = new int[2];
+        private int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
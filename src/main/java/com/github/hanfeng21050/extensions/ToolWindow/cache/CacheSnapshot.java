@@ -0,0 +1,313 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 内存表快照文件
+ * 文件格式：
+ * <pre>
+ * 文件头：魔数 版本 节点 内存表 创建时间 列数 列名...
+ * 数据块：压缩后长度 原始长度 压缩数据（行数 [主键 列值...]...），行按主键排序，每块单独压缩
+ * 索引：块数 [块偏移 块内第一行主键]... 总行数
+ * 文件尾：索引偏移
+ * </pre>
+ * 打开快照时只读取文件头和索引，按主键查找只解压一个数据块，顺序读取时逐块解压
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class CacheSnapshot {
+    public static final String EXTENSION = "snap";
+    static final int MAGIC = 0x45455350;
+    static final int VERSION = 1;
+
+    private final Path file;
+    private final String node;
+    private final String tableName;
+    private final long createdAt;
+    private final List<String> columnKeys;
+    private final long rowCount;
+    private final long[] blockOffsets;
+    private final String[] blockKeys;
+
+    private CacheSnapshot(Path file, String node, String tableName, long createdAt, List<String> columnKeys,
+                          long rowCount, long[] blockOffsets, String[] blockKeys) {
+        this.file = file;
+        this.node = node;
+        this.tableName = tableName;
+        this.createdAt = createdAt;
+        this.columnKeys = columnKeys;
+        this.rowCount = rowCount;
+        this.blockOffsets = blockOffsets;
+        this.blockKeys = blockKeys;
+    }
+
+    /**
+     * 读取快照的文件头和索引
+     *
+     * @param file 快照文件
+     * @return {@link CacheSnapshot}
+     */
+    public static CacheSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            DataInputStream header = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            if (header.readInt() != MAGIC) {
+                throw new IOException("不是快照文件: " + file);
+            }
+            int version = header.readInt();
+            if (version != VERSION) {
+                throw new IOException("不支持的快照版本 " + version + ": " + file);
+            }
+            String node = readString(header);
+            String tableName = readString(header);
+            long createdAt = header.readLong();
+            int columnCount = header.readInt();
+            List<String> columnKeys = new ArrayList<>(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                columnKeys.add(readString(header));
+            }
+
+            ByteBuffer tail = ByteBuffer.allocate(Long.BYTES);
+            channel.read(tail, channel.size() - Long.BYTES);
+            tail.flip();
+            channel.position(tail.getLong());
+            DataInputStream index = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            int blockCount = index.readInt();
+            long[] blockOffsets = new long[blockCount];
+            String[] blockKeys = new String[blockCount];
+            for (int i = 0; i < blockCount; i++) {
+                blockOffsets[i] = index.readLong();
+                blockKeys[i] = readString(index);
+            }
+            long rowCount = index.readLong();
+            return new CacheSnapshot(file, node, tableName, createdAt, Collections.unmodifiableList(columnKeys),
+                    rowCount, blockOffsets, blockKeys);
+        } catch (EOFException e) {
+            throw new IOException("快照文件不完整: " + file, e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<String> getColumnKeys() {
+        return columnKeys;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 快照文件大小
+     */
+    public long getFileSize() {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 按主键查找一行
+     *
+     * @param rowKey 主键
+     * @return 行，不存在时为null
+     */
+    public Row find(String rowKey) throws IOException {
+        // 最后一个第一行主键不大于 rowKey 的块
+        int low = 0;
+        int high = blockKeys.length - 1;
+        int block = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (blockKeys[mid].compareTo(rowKey) <= 0) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (block < 0) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(blockOffsets[block]);
+            DataInputStream in = readBlock(new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel))));
+            int rows = in.readInt();
+            for (int i = 0; i < rows; i++) {
+                Row row = readRow(in, columnKeys.size());
+                int compare = row.getRowKey().compareTo(rowKey);
+                if (compare == 0) {
+                    return row;
+                }
+                if (compare > 0) {
+                    break;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 按主键顺序读取所有行
+     *
+     * @return 游标，使用后关闭
+     */
+    public Cursor cursor() throws IOException {
+        return new Cursor();
+    }
+
+    /**
+     * 按主键顺序逐行读取，每次只解压一个数据块
+     */
+    public class Cursor implements Closeable {
+        private final FileChannel channel;
+        private final DataInputStream in;
+        private int nextBlock;
+        private DataInputStream block;
+        private int remaining;
+
+        private Cursor() throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            if (blockOffsets.length > 0) {
+                channel.position(blockOffsets[0]);
+            }
+            in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        }
+
+        /**
+         * @return 下一行，读完时为null
+         */
+        public Row next() throws IOException {
+            while (remaining == 0) {
+                if (nextBlock >= blockOffsets.length) {
+                    return null;
+                }
+                block = readBlock(in);
+                remaining = block.readInt();
+                nextBlock++;
+            }
+            remaining--;
+            return readRow(block, columnKeys.size());
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * 快照中的一行
+     */
+    public static class Row {
+        private final String rowKey;
+        private final String[] values;
+
+        Row(String rowKey, String[] values) {
+            this.rowKey = rowKey;
+            this.values = values;
+        }
+
+        public String getRowKey() {
+            return rowKey;
+        }
+
+        /**
+         * @param column 列，对应 {@link CacheSnapshot#getColumnKeys()}
+         */
+        public String getValue(int column) {
+            return values[column];
+        }
+
+        String[] getValues() {
+            return values;
+        }
+    }
+
+    private static DataInputStream readBlock(DataInputStream in) throws IOException {
+        int compressedLength = in.readInt();
+        int rawLength = in.readInt();
+        byte[] compressed = new byte[compressedLength];
+        in.readFully(compressed);
+        byte[] raw = new byte[rawLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            if (inflater.inflate(raw) != rawLength) {
+                throw new IOException("快照数据块损坏");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("快照数据块损坏", e);
+        } finally {
+            inflater.end();
+        }
+        return new DataInputStream(new ByteArrayInputStream(raw));
+    }
+
+    static Row readRow(DataInput in, int columnCount) throws IOException {
+        String rowKey = readString(in);
+        String[] values = new String[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            values[c] = readString(in);
+        }
+        return new Row(rowKey, values);
+    }
+
+    static void writeRow(DataOutput out, String rowKey, String[] values) throws IOException {
+        writeString(out, rowKey);
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    /**
+     * 字符串按 长度 + UTF-8 写入，null 的长度为 -1；writeUTF 限制 64KB，列值可能超过
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
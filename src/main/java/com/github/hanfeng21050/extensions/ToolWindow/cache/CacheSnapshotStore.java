@@ -0,0 +1,97 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import com.github.hanfeng21050.config.SeeConfig;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 内存表快照目录
+ * 按环境保存在插件的system目录下，文件名为 内存表_节点_时间.snap
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class CacheSnapshotStore {
+    private static final Logger LOGGER = Logger.getInstance(CacheSnapshotStore.class);
+
+    private static final String SNAPSHOT_DIR = "easy-env/cache-snapshots";
+
+    private final Path directory;
+
+    public CacheSnapshotStore(SeeConfig seeConfig) {
+        this.directory = Paths.get(PathManager.getSystemPath(), SNAPSHOT_DIR, seeConfig.getUuid());
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 新快照的文件
+     *
+     * @param node      节点
+     * @param tableName 内存表
+     * @param createdAt 快照时间
+     * @return 快照文件
+     */
+    public Path newFile(String node, String tableName, long createdAt) {
+        String time = new SimpleDateFormat("yyyyMMddHHmmssSSS").format(new Date(createdAt));
+        String name = (tableName + "_" + node + "_" + time).replaceAll("[^\\w.-]", "_");
+        return directory.resolve(name + "." + CacheSnapshot.EXTENSION);
+    }
+
+    /**
+     * 对比当前数据时使用的临时快照文件，用完后删除
+     */
+    public Path newTempFile() throws IOException {
+        Files.createDirectories(directory);
+        return Files.createTempFile(directory, ".live", ".tmp");
+    }
+
+    /**
+     * 列出快照，按时间倒序
+     *
+     * @param tableName 内存表，为空时列出全部
+     * @return 快照
+     */
+    public List<CacheSnapshot> list(String tableName) {
+        List<CacheSnapshot> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*." + CacheSnapshot.EXTENSION)) {
+            for (Path file : files) {
+                try {
+                    CacheSnapshot snapshot = CacheSnapshot.open(file);
+                    if (tableName == null || tableName.equals(snapshot.getTableName())) {
+                        snapshots.add(snapshot);
+                    }
+                } catch (IOException e) {
+                    LOGGER.warn("读取快照失败: " + file, e);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("读取快照目录失败: " + directory, e);
+        }
+        snapshots.sort(Comparator.comparingLong(CacheSnapshot::getCreatedAt).reversed());
+        return snapshots;
+    }
+
+    /**
+     * 删除快照
+     */
+    public void delete(CacheSnapshot snapshot) throws IOException {
+        Files.deleteIfExists(snapshot.getFile());
+    }
+}
@@ -0,0 +1,291 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import com.alibaba.fastjson2.JSONObject;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.Deflater;
+
+/**
+ * 写入内存表快照
+ * 查询结果不按主键排序，先在内存中按批排序，超过 {@link #RUN_ROWS} 行时写入临时文件，结束时多路归并写出数据块，
+ * 内存中最多保留一批行；写入临时文件，完成后再替换目标文件
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class CacheSnapshotWriter implements Closeable {
+    /**
+     * 内存中排序的最大行数
+     */
+    static final int RUN_ROWS = 50_000;
+    /**
+     * 每个数据块的行数
+     */
+    static final int BLOCK_ROWS = 512;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final Path target;
+    private final String node;
+    private final String tableName;
+    private final long createdAt;
+    private final List<Path> runs = new ArrayList<>();
+    private List<String> columnKeys;
+    private List<CacheSnapshot.Row> buffer = new ArrayList<>();
+
+    /**
+     * @param target    快照文件
+     * @param node      节点
+     * @param tableName 内存表
+     * @param createdAt 快照时间
+     */
+    public CacheSnapshotWriter(Path target, String node, String tableName, long createdAt) {
+        this.target = target;
+        this.node = node;
+        this.tableName = tableName;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * 添加一行，以第一行的列作为快照的列
+     *
+     * @param rowKey 主键
+     * @param row    行数据
+     */
+    public void add(String rowKey, JSONObject row) throws IOException {
+        if (columnKeys == null) {
+            columnKeys = new ArrayList<>(row.keySet());
+        }
+        String[] values = new String[columnKeys.size()];
+        for (int c = 0; c < values.length; c++) {
+            values[c] = row.getString(columnKeys.get(c));
+        }
+        buffer.add(new CacheSnapshot.Row(rowKey, values));
+        if (buffer.size() >= RUN_ROWS) {
+            spill();
+        }
+    }
+
+    /**
+     * 写出快照文件
+     *
+     * @return 写入的快照
+     */
+    public CacheSnapshot finish() throws IOException {
+        if (columnKeys == null) {
+            columnKeys = new ArrayList<>();
+        }
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path tmp = Files.createTempFile(target.toAbsolutePath().getParent(), "." + target.getFileName(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE))) {
+                writeSnapshot(out);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+            close();
+        }
+        return CacheSnapshot.open(target);
+    }
+
+    /**
+     * 删除排序用的临时文件
+     */
+    @Override
+    public void close() throws IOException {
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+        buffer = new ArrayList<>();
+    }
+
+    /**
+     * 当前批按主键排序后写入临时文件
+     */
+    private void spill() throws IOException {
+        buffer.sort(Comparator.comparing(CacheSnapshot.Row::getRowKey));
+        Path run = Files.createTempFile(target.toAbsolutePath().getParent(), ".run", ".tmp");
+        runs.add(run);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), WRITE_BUFFER_SIZE))) {
+            out.writeInt(buffer.size());
+            for (CacheSnapshot.Row row : buffer) {
+                CacheSnapshot.writeRow(out, row.getRowKey(), row.getValues());
+            }
+        }
+        buffer = new ArrayList<>();
+    }
+
+    private void writeSnapshot(DataOutputStream out) throws IOException {
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(CacheSnapshot.MAGIC);
+        header.writeInt(CacheSnapshot.VERSION);
+        CacheSnapshot.writeString(header, node);
+        CacheSnapshot.writeString(header, tableName);
+        header.writeLong(createdAt);
+        header.writeInt(columnKeys.size());
+        for (String columnKey : columnKeys) {
+            CacheSnapshot.writeString(header, columnKey);
+        }
+        header.flush();
+        headerBytes.writeTo(out);
+
+        BlockWriter blocks = new BlockWriter(out, headerBytes.size());
+        if (runs.isEmpty()) {
+            buffer.sort(Comparator.comparing(CacheSnapshot.Row::getRowKey));
+            for (CacheSnapshot.Row row : buffer) {
+                blocks.add(row);
+            }
+        } else {
+            if (!buffer.isEmpty()) {
+                spill();
+            }
+            merge(blocks);
+        }
+        blocks.finish();
+    }
+
+    /**
+     * 多路归并所有临时文件
+     */
+    private void merge(BlockWriter blocks) throws IOException {
+        List<RunReader> readers = new ArrayList<>();
+        try {
+            PriorityQueue<RunReader> queue = new PriorityQueue<>(Comparator.comparing(r -> r.current.getRowKey()));
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run, columnKeys.size());
+                readers.add(reader);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+            while (!queue.isEmpty()) {
+                RunReader reader = queue.poll();
+                blocks.add(reader.current);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.in.close();
+            }
+        }
+    }
+
+    private static class RunReader {
+        private final DataInputStream in;
+        private final int columnCount;
+        private int remaining;
+        private CacheSnapshot.Row current;
+
+        RunReader(Path run, int columnCount) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), WRITE_BUFFER_SIZE));
+            this.columnCount = columnCount;
+            this.remaining = in.readInt();
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            current = CacheSnapshot.readRow(in, columnCount);
+            return true;
+        }
+    }
+
+    /**
+     * 按块压缩写出有序的行并记录索引，重复的主键只保留第一行
+     */
+    private static class BlockWriter {
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream();
+        private final DataOutputStream block = new DataOutputStream(blockBytes);
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final List<Long> blockOffsets = new ArrayList<>();
+        private final List<String> blockKeys = new ArrayList<>();
+        private long offset;
+        private long rowCount;
+        private int blockRows;
+        private String firstKey;
+        private String lastKey;
+
+        BlockWriter(DataOutputStream out, long offset) {
+            this.out = out;
+            this.offset = offset;
+        }
+
+        void add(CacheSnapshot.Row row) throws IOException {
+            if (row.getRowKey().equals(lastKey)) {
+                return;
+            }
+            lastKey = row.getRowKey();
+            if (blockRows == 0) {
+                firstKey = row.getRowKey();
+            }
+            CacheSnapshot.writeRow(block, row.getRowKey(), row.getValues());
+            blockRows++;
+            rowCount++;
+            if (blockRows >= BLOCK_ROWS) {
+                flushBlock();
+            }
+        }
+
+        void finish() throws IOException {
+            try {
+                if (blockRows > 0) {
+                    flushBlock();
+                }
+                long indexOffset = offset;
+                out.writeInt(blockOffsets.size());
+                for (int i = 0; i < blockOffsets.size(); i++) {
+                    out.writeLong(blockOffsets.get(i));
+                    CacheSnapshot.writeString(out, blockKeys.get(i));
+                }
+                out.writeLong(rowCount);
+                out.writeLong(indexOffset);
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            block.flush();
+            // 块内容为 行数 + 行
+            ByteArrayOutputStream rawBytes = new ByteArrayOutputStream(blockBytes.size() + Integer.BYTES);
+            new DataOutputStream(rawBytes).writeInt(blockRows);
+            blockBytes.writeTo(rawBytes);
+            byte[] raw = rawBytes.toByteArray();
+
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                compressed.write(chunk, 0, n);
+            }
+
+            blockOffsets.add(offset);
+            blockKeys.add(firstKey);
+            out.writeInt(compressed.size());
+            out.writeInt(raw.length);
+            compressed.writeTo(out);
+            offset += Integer.BYTES * 2 + compressed.size();
+
+            blockBytes.reset();
+            blockRows = 0;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 逐页读取整张内存表
+ * 处理当前页时已在请求下一页，内存中最多只有两页数据；在进度上显示已读取的行数，进度被取消时中止请求
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class CacheTableReader {
+    public static final int PAGE_SIZE = 1000;
+    /**
+     * 检查进度是否被取消的间隔
+     */
+    private static final long CHECK_INTERVAL_MS = 100;
+
+    /**
+     * 查询一页数据
+     */
+    public interface PageLoader {
+        /**
+         * @param tableName 内存表
+         * @param pageNum   页码，从1开始
+         * @param pageSize  每页行数
+         * @return getCacheByPage 响应中的 data
+         */
+        CompletableFuture<JSONObject> load(String tableName, int pageNum, int pageSize);
+    }
+
+    /**
+     * 处理一行数据
+     */
+    public interface RowHandler {
+        void accept(String rowKey, JSONObject row) throws IOException;
+    }
+
+    private final PageLoader loader;
+    private final ProgressIndicator indicator;
+    private long readRows;
+
+    public CacheTableReader(PageLoader loader, ProgressIndicator indicator) {
+        this.loader = loader;
+        this.indicator = indicator;
+    }
+
+    /**
+     * 读取内存表的全部行
+     *
+     * @param tableName     内存表
+     * @param progressStart 本表开始时的进度
+     * @param progressEnd   本表结束时的进度
+     * @param handler       处理每一行
+     * @return 本表的行数
+     */
+    public long read(String tableName, double progressStart, double progressEnd, RowHandler handler) throws IOException {
+        long tableRows = 0;
+        int pageNum = 1;
+        // 满页的行数，由第一页确定
+        int rowsPerPage = 0;
+        CompletableFuture<JSONObject> next = loader.load(tableName, pageNum, PAGE_SIZE);
+        try {
+            while (next != null) {
+                JSONObject data = await(next);
+                JSONObject rows = CachePage.rows(data);
+                Integer total = CachePage.total(data);
+                // 处理本页前先请求下一页，与分页表格按同样的规则判断最后一页
+                int pageRows = countRows(rows);
+                if (rowsPerPage == 0) {
+                    rowsPerPage = CachePage.rowsPerPage(PAGE_SIZE, pageRows);
+                }
+                boolean last = CachePage.isLastPage(pageRows, rowsPerPage, tableRows + pageRows, total);
+                next = last ? null : loader.load(tableName, ++pageNum, PAGE_SIZE);
+
+                for (String rowKey : rows.keySet()) {
+                    JSONArray rowArray = rows.getJSONArray(rowKey);
+                    if (rowArray == null || rowArray.isEmpty()) {
+                        continue;
+                    }
+                    handler.accept(rowKey, rowArray.getJSONObject(0));
+                    tableRows++;
+                    readRows++;
+                }
+
+                indicator.setText2("已读取 " + readRows + " 行");
+                if (total != null && total > 0) {
+                    indicator.setIndeterminate(false);
+                    indicator.setFraction(progressStart + (progressEnd - progressStart) * Math.min(1.0, (double) tableRows / total));
+                } else {
+                    indicator.setIndeterminate(true);
+                }
+            }
+        } finally {
+            // 失败或取消时中止预取的请求
+            if (next != null) {
+                next.cancel(true);
+            }
+        }
+        return tableRows;
+    }
+
+    /**
+     * 已读取的总行数
+     */
+    public long getReadRows() {
+        return readRows;
+    }
+
+    /**
+     * 等待请求完成，进度被取消时中止请求
+     */
+    private JSONObject await(CompletableFuture<JSONObject> request) throws IOException {
+        while (true) {
+            if (indicator.isCanceled()) {
+                request.cancel(true);
+                throw new ProcessCanceledException();
+            }
+            try {
+                return request.get(CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ignored) {
+                // 继续等待
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                request.cancel(true);
+                throw new ProcessCanceledException();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() == null ? e : e.getCause();
+                throw new IOException(cause.getMessage(), cause);
+            }
+        }
+    }
+
+    /**
+     * 本页的有效行数
+     */
+    private static int countRows(JSONObject rows) {
+        int count = 0;
+        for (String rowKey : rows.keySet()) {
+            JSONArray rowArray = rows.getJSONArray(rowKey);
+            if (rowArray != null && !rowArray.isEmpty()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
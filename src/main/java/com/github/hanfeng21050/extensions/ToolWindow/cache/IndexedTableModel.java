@@ -0,0 +1,25 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+/**
+ * 提供行索引的表格模型，行可以分成多个索引块
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public interface IndexedTableModel {
+    /**
+     * 行所在的索引块
+     *
+     * @param rowIndex 行号
+     * @return 索引，数据未加载时为null
+     */
+    CacheRowIndex getRowIndex(int rowIndex);
+
+    /**
+     * 行在索引块中的行号
+     *
+     * @param rowIndex 行号
+     * @return 索引块中的行号
+     */
+    int getIndexedRow(int rowIndex);
+}
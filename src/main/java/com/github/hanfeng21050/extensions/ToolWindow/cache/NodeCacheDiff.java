@@ -0,0 +1,357 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import com.alibaba.fastjson2.JSONObject;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 同一张内存表在多个节点上的数据对比
+ * 各节点并发分页读取全部数据，按行主键合并；每行以多数节点的值为准，与之不同或缺少该行的节点视为缓存已过期
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class NodeCacheDiff {
+
+    /**
+     * 行状态
+     */
+    public enum RowStatus {
+        SAME("一致"),
+        MISSING("缺失"),
+        DIFFERENT("不一致");
+
+        private final String label;
+
+        RowStatus(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * 分页加载指定节点的数据，返回 getCacheByPage 响应中的 data
+     */
+    public interface NodePageLoader {
+        CompletableFuture<JSONObject> load(String node, int pageNum, int pageSize);
+    }
+
+    private final String env;
+    private final String macroName;
+    private final String tableName;
+    private final List<String> nodes;
+    private final List<String> columnKeys;
+    private final String[] columnNames;
+    private final List<Row> rows;
+    private final Set<String> staleNodes;
+    private final Map<String, String> failedNodes;
+
+    private NodeCacheDiff(String env, String macroName, String tableName, List<String> nodes, List<String> columnKeys,
+                          String[] columnNames, List<Row> rows, Set<String> staleNodes, Map<String, String> failedNodes) {
+        this.env = env;
+        this.macroName = macroName;
+        this.tableName = tableName;
+        this.nodes = nodes;
+        this.columnKeys = columnKeys;
+        this.columnNames = columnNames;
+        this.rows = rows;
+        this.staleNodes = staleNodes;
+        this.failedNodes = failedNodes;
+    }
+
+    /**
+     * 并发读取各节点的数据并对比，读取失败的节点不参与对比
+     *
+     * @param env       环境，与服务、内存表一起记录在结果中，刷新差异节点时使用
+     * @param macroName 服务
+     * @param tableName 内存表
+     * @param nodes     节点地址 ip:port
+     * @param loader    分页加载
+     * @param pageSize  每页行数
+     * @return 对比结果
+     */
+    public static CompletableFuture<NodeCacheDiff> compare(String env, String macroName, String tableName,
+                                                           List<String> nodes, NodePageLoader loader, int pageSize) {
+        List<CompletableFuture<NodeRows>> futures = new ArrayList<>();
+        for (String node : nodes) {
+            NodeRows nodeRows = new NodeRows(node);
+            futures.add(loadPages(nodeRows, loader, 1, pageSize).handle((result, ex) -> {
+                if (ex != null) {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    nodeRows.error = cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage();
+                }
+                return nodeRows;
+            }));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(v -> {
+            List<NodeRows> loaded = new ArrayList<>();
+            Map<String, String> failedNodes = new LinkedHashMap<>();
+            for (CompletableFuture<NodeRows> future : futures) {
+                NodeRows nodeRows = future.join();
+                if (nodeRows.error == null) {
+                    loaded.add(nodeRows);
+                } else {
+                    failedNodes.put(nodeRows.node, nodeRows.error);
+                }
+            }
+            return merge(env, macroName, tableName, loaded, failedNodes);
+        });
+    }
+
+    /**
+     * 依次读取节点的每一页，直到最后一页
+     */
+    private static CompletableFuture<NodeRows> loadPages(NodeRows nodeRows, NodePageLoader loader, int pageNum, int pageSize) {
+        return loader.load(nodeRows.node, pageNum, pageSize).thenCompose(data -> {
+            JSONObject rows = CachePage.rows(data);
+            if (nodeRows.columnKeys == null) {
+                nodeRows.columnKeys = CachePage.columnKeys(rows);
+            }
+            if (nodeRows.firstRowKey == null) {
+                nodeRows.firstRowKey = CachePage.firstRowKey(rows);
+            }
+            CachePage page = CachePage.of(rows, nodeRows.columnKeys);
+            nodeRows.add(page);
+            if (nodeRows.rowsPerPage == 0) {
+                nodeRows.rowsPerPage = CachePage.rowsPerPage(pageSize, page.size());
+            }
+
+            boolean last = CachePage.isLastPage(page.size(), nodeRows.rowsPerPage, nodeRows.rows.size(), CachePage.total(data));
+            if (last) {
+                return CompletableFuture.completedFuture(nodeRows);
+            }
+            return loadPages(nodeRows, loader, pageNum + 1, pageSize);
+        });
+    }
+
+    private static NodeCacheDiff merge(String env, String macroName, String tableName,
+                                       List<NodeRows> loaded, Map<String, String> failedNodes) {
+        List<String> nodes = new ArrayList<>();
+        Set<String> columnKeySet = new LinkedHashSet<>();
+        Set<String> rowKeys = new LinkedHashSet<>();
+        String firstRowKey = null;
+        for (NodeRows nodeRows : loaded) {
+            nodes.add(nodeRows.node);
+            if (nodeRows.columnKeys != null) {
+                columnKeySet.addAll(nodeRows.columnKeys);
+            }
+            if (firstRowKey == null) {
+                firstRowKey = nodeRows.firstRowKey;
+            }
+            rowKeys.addAll(nodeRows.rows.keySet());
+        }
+        List<String> columnKeys = new ArrayList<>(columnKeySet);
+
+        List<Row> rows = new ArrayList<>(rowKeys.size());
+        Set<String> staleNodes = new LinkedHashSet<>();
+        for (String rowKey : rowKeys) {
+            // 各节点的值，null 表示缺少该行
+            List<List<String>> values = new ArrayList<>(loaded.size());
+            Map<List<String>, Integer> counts = new LinkedHashMap<>();
+            int missing = 0;
+            for (NodeRows nodeRows : loaded) {
+                List<String> value = nodeRows.values(rowKey, columnKeys);
+                values.add(value);
+                if (value == null) {
+                    missing++;
+                } else {
+                    counts.merge(value, 1, Integer::sum);
+                }
+            }
+
+            // 出现次数最多的值，次数相同时取靠前节点的值
+            List<String> majority = null;
+            int majorityCount = 0;
+            for (Map.Entry<List<String>, Integer> entry : counts.entrySet()) {
+                if (entry.getValue() > majorityCount) {
+                    majority = entry.getKey();
+                    majorityCount = entry.getValue();
+                }
+            }
+            // 多数节点都没有该行时，以缺失为准
+            List<String> expected = missing > majorityCount ? null : majority;
+
+            List<String> driftedNodes = new ArrayList<>();
+            for (int i = 0; i < loaded.size(); i++) {
+                if (!Objects.equals(values.get(i), expected)) {
+                    driftedNodes.add(loaded.get(i).node);
+                }
+            }
+            staleNodes.addAll(driftedNodes);
+
+            RowStatus status;
+            if (counts.size() > 1) {
+                status = RowStatus.DIFFERENT;
+            } else if (missing > 0) {
+                status = RowStatus.MISSING;
+            } else {
+                status = RowStatus.SAME;
+            }
+            rows.add(new Row(rowKey, majority, status, driftedNodes));
+        }
+        return new NodeCacheDiff(env, macroName, tableName, nodes, columnKeys, CachePage.columnNames(columnKeys, firstRowKey), rows, staleNodes, failedNodes);
+    }
+
+    /**
+     * 对比时选择的环境
+     */
+    public String getEnv() {
+        return env;
+    }
+
+    /**
+     * 对比时选择的服务
+     */
+    public String getMacroName() {
+        return macroName;
+    }
+
+    /**
+     * 对比的内存表
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * 参与对比的节点
+     */
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    public List<String> getColumnKeys() {
+        return columnKeys;
+    }
+
+    /**
+     * 显示的列名，主键字段前加 *
+     */
+    public String[] getColumnNames() {
+        return columnNames;
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    /**
+     * 与多数节点不一致的节点
+     */
+    public Set<String> getStaleNodes() {
+        return staleNodes;
+    }
+
+    /**
+     * 读取失败的节点 -> 失败原因
+     */
+    public Map<String, String> getFailedNodes() {
+        return failedNodes;
+    }
+
+    /**
+     * 不一致的行数
+     */
+    public int getDriftedRowCount() {
+        int count = 0;
+        for (Row row : rows) {
+            if (row.getStatus() != RowStatus.SAME) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 合并后的一行
+     */
+    public static class Row {
+        private final String rowKey;
+        private final List<String> values;
+        private final RowStatus status;
+        private final List<String> driftedNodes;
+
+        Row(String rowKey, List<String> values, RowStatus status, List<String> driftedNodes) {
+            this.rowKey = rowKey;
+            this.values = values;
+            this.status = status;
+            this.driftedNodes = driftedNodes;
+        }
+
+        public String getRowKey() {
+            return rowKey;
+        }
+
+        /**
+         * 多数节点上的值，按 {@link NodeCacheDiff#getColumnKeys()} 的顺序
+         */
+        public String getValue(int column) {
+            return values == null ? null : values.get(column);
+        }
+
+        public RowStatus getStatus() {
+            return status;
+        }
+
+        /**
+         * 与多数节点不一致的节点
+         */
+        public List<String> getDriftedNodes() {
+            return driftedNodes;
+        }
+    }
+
+    /**
+     * 一个节点上读取到的数据
+     */
+    private static class NodeRows {
+        private final String node;
+        private final Map<String, String[]> rows = new LinkedHashMap<>();
+        private List<String> columnKeys;
+        private String firstRowKey;
+        /**
+         * 满页的行数，由第一页确定
+         */
+        private int rowsPerPage;
+        private String error;
+
+        NodeRows(String node) {
+            this.node = node;
+        }
+
+        void add(CachePage page) {
+            for (int r = 0; r < page.size(); r++) {
+                String[] values = new String[columnKeys.size()];
+                for (int c = 0; c < values.length; c++) {
+                    values[c] = page.getValue(r, c);
+                }
+                rows.put(page.getRowKey(r), values);
+            }
+        }
+
+        /**
+         * 按合并后的列取行数据，缺少该行时返回null
+         */
+        List<String> values(String rowKey, List<String> mergedColumnKeys) {
+            String[] values = rows.get(rowKey);
+            if (values == null) {
+                return null;
+            }
+            if (mergedColumnKeys.equals(columnKeys)) {
+                return Arrays.asList(values);
+            }
+            List<String> aligned = new ArrayList<>(mergedColumnKeys.size());
+            for (String columnKey : mergedColumnKeys) {
+                int index = columnKeys.indexOf(columnKey);
+                aligned.add(index < 0 ? null : values[index]);
+            }
+            return aligned;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import com.intellij.ui.JBColor;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 多节点对比结果表格
+ * 前两列为行状态和不一致的节点，其余列为多数节点上的值
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class NodeDiffTableModel extends AbstractTableModel implements IndexedTableModel {
+    private static final String[] FIXED_COLUMNS = {"状态", "不一致节点"};
+    private static final Color MISSING_BACKGROUND = new JBColor(new Color(255, 243, 205), new Color(84, 72, 40));
+    private static final Color DIFFERENT_BACKGROUND = new JBColor(new Color(255, 220, 220), new Color(94, 56, 56));
+
+    private final NodeCacheDiff diff;
+    private final CacheRowIndex index;
+
+    /**
+     * 同时建立所有行的索引，数据量大时应在后台线程中创建
+     *
+     * @param diff 对比结果
+     */
+    public NodeDiffTableModel(NodeCacheDiff diff) {
+        this.diff = diff;
+        List<String> columnKeys = new ArrayList<>(Arrays.asList(FIXED_COLUMNS));
+        columnKeys.addAll(Arrays.asList(diff.getColumnNames()));
+        this.index = CacheRowIndex.build(columnKeys, getRowCount(), this::getStringAt);
+    }
+
+    public NodeCacheDiff getDiff() {
+        return diff;
+    }
+
+    @Override
+    public int getRowCount() {
+        return diff.getRows().size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return FIXED_COLUMNS.length + diff.getColumnKeys().size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return column < FIXED_COLUMNS.length ? FIXED_COLUMNS[column] : diff.getColumnNames()[column - FIXED_COLUMNS.length];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return getStringAt(rowIndex, columnIndex);
+    }
+
+    private String getStringAt(int rowIndex, int columnIndex) {
+        NodeCacheDiff.Row row = diff.getRows().get(rowIndex);
+        switch (columnIndex) {
+            case 0:
+                return row.getStatus().toString();
+            case 1:
+                return String.join(", ", row.getDriftedNodes());
+            default:
+                return row.getValue(columnIndex - FIXED_COLUMNS.length);
+        }
+    }
+
+    public String getRowKey(int rowIndex) {
+        return diff.getRows().get(rowIndex).getRowKey();
+    }
+
+    @Override
+    public CacheRowIndex getRowIndex(int rowIndex) {
+        return index;
+    }
+
+    @Override
+    public int getIndexedRow(int rowIndex) {
+        return rowIndex;
+    }
+
+    /**
+     * 按行状态着色
+     */
+    public static class Renderer extends DefaultTableCellRenderer {
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+            Component component = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            if (!isSelected && table.getModel() instanceof NodeDiffTableModel) {
+                NodeDiffTableModel model = (NodeDiffTableModel) table.getModel();
+                NodeCacheDiff.RowStatus status = model.diff.getRows().get(table.convertRowIndexToModel(row)).getStatus();
+                if (status == NodeCacheDiff.RowStatus.DIFFERENT) {
+                    component.setBackground(DIFFERENT_BACKGROUND);
+                } else if (status == NodeCacheDiff.RowStatus.MISSING) {
+                    component.setBackground(MISSING_BACKGROUND);
+                } else {
+                    component.setBackground(table.getBackground());
+                }
+            }
+            return component;
+        }
+    }
+}
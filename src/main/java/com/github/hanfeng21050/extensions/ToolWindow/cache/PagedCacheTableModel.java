@@ -0,0 +1,395 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.github.hanfeng21050.utils.HttpAsyncClientUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.ui.JBColor;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * 分页加载的缓存表格
+ * 滚动到未加载的行时按页请求数据，只在内存中保留最近访问的若干页；
+ * 服务端返回总数时直接使用，否则每加载一页就多预留一页，直到遇到最后一页；
+ * 行号按满页实际的行数换算到页，见 {@link CachePage#rowsPerPage}
+ * 除构建外，所有方法都应在事件调度线程上调用
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class PagedCacheTableModel extends AbstractTableModel implements IndexedTableModel {
+    public static final int DEFAULT_PAGE_SIZE = 500;
+    public static final String LOADING = "加载中...";
+    public static final String LOAD_FAILED = "加载失败";
+    /**
+     * 内存中最多保留的页数
+     */
+    private static final int MAX_CACHED_PAGES = 20;
+    /**
+     * 重新加载后变化的行保持高亮的时间
+     */
+    public static final long HIGHLIGHT_MILLIS = 5000;
+    /**
+     * 加载失败的页第一次重试前等待的时间，之后每次失败加倍
+     */
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+    private static final Color CHANGED_BACKGROUND = new JBColor(new Color(255, 243, 205), new Color(84, 72, 40));
+
+    /**
+     * 加载指定页，返回 getCacheByPage 响应中的 data
+     */
+    public interface PageLoader {
+        CompletableFuture<JSONObject> load(int pageNum, int pageSize);
+    }
+
+    private final PageLoader loader;
+    private final int pageSize;
+    /**
+     * 满页实际的行数
+     */
+    private final int rowsPerPage;
+    private final List<String> columnKeys;
+    private final String[] columnNames;
+    private final Map<Integer, CachePage> pages = new LinkedHashMap<Integer, CachePage>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, CachePage> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private final Set<Integer> loadingPages = new HashSet<>();
+    /**
+     * 加载失败的页 -> 失败记录，等待期间不再请求，避免每次重绘都重新请求
+     */
+    private final Map<Integer, LoadFailure> failedPages = new HashMap<>();
+    /**
+     * 行号 -> 最近一次变化的时间
+     */
+    private final Map<Integer, Long> changedRows = new HashMap<>();
+    private int rowCount;
+    private boolean exactRowCount;
+    private Consumer<Throwable> errorHandler = ex -> {
+    };
+
+    private PagedCacheTableModel(PageLoader loader, int pageSize, int rowsPerPage, List<String> columnKeys, String[] columnNames) {
+        this.loader = loader;
+        this.pageSize = pageSize;
+        this.rowsPerPage = rowsPerPage;
+        this.columnKeys = columnKeys;
+        this.columnNames = columnNames;
+    }
+
+    /**
+     * 加载第一页并根据第一页确定列
+     * 取消返回的future会中止第一页的请求，之后按需加载的页不受影响
+     *
+     * @param loader   分页加载
+     * @param pageSize 每页行数
+     * @return 表格模型
+     */
+    public static CompletableFuture<PagedCacheTableModel> load(PageLoader loader, int pageSize) {
+        CompletableFuture<JSONObject> firstPage = loader.load(1, pageSize);
+        return HttpAsyncClientUtil.propagateCancel(firstPage, firstPage.thenApply(data -> {
+            JSONObject rows = CachePage.rows(data);
+            List<String> columnKeys = CachePage.columnKeys(rows);
+            CachePage first = CachePage.of(rows, columnKeys);
+            int rowsPerPage = CachePage.rowsPerPage(pageSize, first.size());
+            PagedCacheTableModel model = new PagedCacheTableModel(loader, pageSize, rowsPerPage, columnKeys, CachePage.columnNames(columnKeys, CachePage.firstRowKey(rows)));
+            model.install(0, first, CachePage.total(data));
+            return model;
+        }));
+    }
+
+    public void setErrorHandler(Consumer<Throwable> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        CachePage page = getPage(rowIndex);
+        if (page == null) {
+            return failedPages.containsKey(getPageIndex(rowIndex)) ? LOAD_FAILED : LOADING;
+        }
+        int row = rowIndex % rowsPerPage;
+        return row < page.size() ? page.getValue(row, columnIndex) : "";
+    }
+
+    /**
+     * 获取行主键，所在页未加载时返回null
+     *
+     * @param rowIndex 行号
+     * @return 行主键
+     */
+    public String getRowKey(int rowIndex) {
+        CachePage page = getPage(rowIndex);
+        int row = rowIndex % rowsPerPage;
+        return page == null || row >= page.size() ? null : page.getRowKey(row);
+    }
+
+    /**
+     * 所在页的索引，不会触发加载
+     */
+    @Override
+    public CacheRowIndex getRowIndex(int rowIndex) {
+        CachePage page = pages.get(getPageIndex(rowIndex));
+        return page == null ? null : page.getIndex();
+    }
+
+    @Override
+    public int getIndexedRow(int rowIndex) {
+        return rowIndex % rowsPerPage;
+    }
+
+    /**
+     * 所在页是否已加载
+     */
+    public boolean isLoaded(int rowIndex) {
+        return pages.containsKey(getPageIndex(rowIndex));
+    }
+
+    /**
+     * 内存中已加载的页数
+     */
+    public int getLoadedPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * 当前行数对应的页数，行数未确定时包括预留的页
+     */
+    public int getPageCount() {
+        return (rowCount + rowsPerPage - 1) / rowsPerPage;
+    }
+
+    /**
+     * 全部数据是否都已在内存中，只有这时检索结果才是完整的
+     */
+    public boolean isFullyLoaded() {
+        return exactRowCount && pages.size() >= getPageCount();
+    }
+
+    /**
+     * 行所在的页号，从0开始
+     */
+    public int getPageIndex(int rowIndex) {
+        return rowIndex / rowsPerPage;
+    }
+
+    public List<String> getColumnKeys() {
+        return columnKeys;
+    }
+
+    /**
+     * 行是否在最近一次重新加载时变化过
+     */
+    public boolean isRecentlyChanged(int rowIndex) {
+        Long changedAt = changedRows.get(rowIndex);
+        return changedAt != null && System.currentTimeMillis() - changedAt < HIGHLIGHT_MILLIS;
+    }
+
+    /**
+     * 重新加载已加载的页，只更新变化的行，不影响表格的滚动位置和选中行
+     * getCacheByPage 不支持条件查询，按行比较新旧数据，没有变化的页不通知表格
+     *
+     * @param pageIndexes 页号，从0开始，未加载或正在加载的页跳过
+     * @return 变化的行数
+     */
+    public CompletableFuture<Integer> reloadPages(Collection<Integer> pageIndexes) {
+        List<CompletableFuture<Integer>> reloads = new ArrayList<>();
+        for (int pageIndex : pageIndexes) {
+            if (!pages.containsKey(pageIndex) || !loadingPages.add(pageIndex)) {
+                continue;
+            }
+            CompletableFuture<Integer> reload = new CompletableFuture<>();
+            loader.load(pageIndex + 1, pageSize).whenComplete((data, ex) -> ApplicationManager.getApplication().invokeLater(() -> {
+                loadingPages.remove(pageIndex);
+                if (ex != null) {
+                    reload.completeExceptionally(ex);
+                } else {
+                    reload.complete(applyReload(pageIndex, data));
+                }
+            }));
+            reloads.add(reload);
+        }
+        return CompletableFuture.allOf(reloads.toArray(new CompletableFuture[0]))
+                .thenApply(v -> reloads.stream().mapToInt(CompletableFuture::join).sum());
+    }
+
+    private int applyReload(int pageIndex, JSONObject data) {
+        long now = System.currentTimeMillis();
+        changedRows.values().removeIf(changedAt -> now - changedAt >= HIGHLIGHT_MILLIS);
+
+        CachePage oldPage = pages.get(pageIndex);
+        CachePage page = CachePage.of(CachePage.rows(data), columnKeys);
+        int first = pageIndex * rowsPerPage;
+        // 按主键匹配新旧行，插入或删除一行时只有该行算作变化，其后移动位置的行不高亮
+        List<Integer> changed = new ArrayList<>();
+        int matched = 0;
+        boolean moved = false;
+        for (int row = 0; row < page.size(); row++) {
+            int oldRow = oldPage == null ? -1 : oldPage.indexOf(page.getRowKey(row));
+            if (oldRow < 0) {
+                changed.add(first + row);
+                continue;
+            }
+            matched++;
+            moved |= oldRow != row;
+            if (!page.sameRow(row, oldPage, oldRow)) {
+                changed.add(first + row);
+            }
+        }
+        int removed = oldPage == null ? 0 : oldPage.size() - matched;
+        int oldRowCount = rowCount;
+        install(pageIndex, page, CachePage.total(data));
+        if (changed.isEmpty() && removed == 0 && !moved && rowCount == oldRowCount) {
+            return 0;
+        }
+
+        if (rowCount > oldRowCount) {
+            fireTableRowsInserted(oldRowCount, rowCount - 1);
+        } else if (rowCount < oldRowCount) {
+            fireTableRowsDeleted(rowCount, oldRowCount - 1);
+        }
+        for (int row : changed) {
+            changedRows.put(row, now);
+        }
+        // 行的位置可能已移动，整页通知一次
+        int last = Math.min(first + Math.max(page.size(), oldPage == null ? 0 : oldPage.size()), rowCount) - 1;
+        if (first <= last) {
+            fireTableRowsUpdated(first, last);
+        }
+        return changed.size() + removed;
+    }
+
+    /**
+     * 行数是否已确定
+     */
+    public boolean isExactRowCount() {
+        return exactRowCount;
+    }
+
+    private CachePage getPage(int rowIndex) {
+        int pageIndex = getPageIndex(rowIndex);
+        CachePage page = pages.get(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+        }
+        return page;
+    }
+
+    /**
+     * 请求加载一页，加载失败的页在等待时间内不再请求，之后滚动或重绘到该页时重试
+     */
+    private void requestPage(int pageIndex) {
+        LoadFailure failure = failedPages.get(pageIndex);
+        if (failure != null && System.currentTimeMillis() < failure.retryAt) {
+            return;
+        }
+        if (!loadingPages.add(pageIndex)) {
+            return;
+        }
+        loader.load(pageIndex + 1, pageSize).whenComplete((data, ex) -> ApplicationManager.getApplication().invokeLater(() -> {
+            loadingPages.remove(pageIndex);
+            if (ex != null) {
+                failedPages.computeIfAbsent(pageIndex, k -> new LoadFailure()).failed();
+                errorHandler.accept(ex);
+                // 显示加载失败，重绘时处于等待时间内不会再次请求
+                firePageUpdated(pageIndex);
+                return;
+            }
+            failedPages.remove(pageIndex);
+            int oldRowCount = rowCount;
+            install(pageIndex, data);
+            if (rowCount > oldRowCount) {
+                fireTableRowsInserted(oldRowCount, rowCount - 1);
+            } else if (rowCount < oldRowCount) {
+                fireTableRowsDeleted(rowCount, oldRowCount - 1);
+            }
+            firePageUpdated(pageIndex);
+        }));
+    }
+
+    private void firePageUpdated(int pageIndex) {
+        int first = pageIndex * rowsPerPage;
+        int last = Math.min(first + rowsPerPage, rowCount) - 1;
+        if (first <= last) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+
+    private void install(int pageIndex, JSONObject data) {
+        install(pageIndex, CachePage.of(CachePage.rows(data), columnKeys), CachePage.total(data));
+    }
+
+    private void install(int pageIndex, CachePage page, Integer total) {
+        pages.put(pageIndex, page);
+        if (total != null) {
+            rowCount = total;
+            exactRowCount = true;
+        } else if (!exactRowCount) {
+            if (page.size() == 0) {
+                // 空页说明前一页就是最后一页
+                rowCount = Math.min(rowCount, pageIndex * rowsPerPage);
+                exactRowCount = true;
+            } else if (page.size() < rowsPerPage) {
+                // 不满一页即最后一页
+                rowCount = pageIndex * rowsPerPage + page.size();
+                exactRowCount = true;
+            } else {
+                // 预留下一页，滚动到时再加载
+                rowCount = Math.max(rowCount, (pageIndex + 2) * rowsPerPage);
+            }
+        }
+    }
+
+    /**
+     * 一页的加载失败记录
+     */
+    private static class LoadFailure {
+        private int attempts;
+        private long retryAt;
+
+        void failed() {
+            attempts++;
+            long delay = Math.min(MAX_RETRY_DELAY_MILLIS, RETRY_DELAY_MILLIS << Math.min(attempts - 1, 16));
+            retryAt = System.currentTimeMillis() + delay;
+        }
+    }
+
+    /**
+     * 高亮最近变化的行
+     */
+    public static class Renderer extends DefaultTableCellRenderer {
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+            Component component = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            if (!isSelected && table.getModel() instanceof PagedCacheTableModel) {
+                PagedCacheTableModel model = (PagedCacheTableModel) table.getModel();
+                component.setBackground(model.isRecentlyChanged(table.convertRowIndexToModel(row)) ? CHANGED_BACKGROUND : table.getBackground());
+            }
+            return component;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * 两个快照的差异
+ * 两个快照都按主键排序，同时顺序读取做归并连接，只保留有差异的行；列按列名对齐，只比较两个快照都有的列
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class SnapshotDiff {
+    /**
+     * 最多保留的差异行，超过时只计数
+     */
+    public static final int MAX_ENTRIES = 10_000;
+    private static final int PROGRESS_INTERVAL = 4096;
+
+    public enum Kind {
+        ADDED("新增"), REMOVED("删除"), CHANGED("修改");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private final CacheSnapshot before;
+    private final CacheSnapshot after;
+    private final List<String> columnKeys;
+    /**
+     * 两个快照都有的列
+     */
+    private final boolean[] shared;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<Kind, Long> counts = new EnumMap<>(Kind.class);
+    private long unchangedCount;
+
+    private SnapshotDiff(CacheSnapshot before, CacheSnapshot after) {
+        this.before = before;
+        this.after = after;
+        Set<String> columns = new LinkedHashSet<>(before.getColumnKeys());
+        columns.addAll(after.getColumnKeys());
+        this.columnKeys = new ArrayList<>(columns);
+        this.shared = new boolean[columnKeys.size()];
+        for (int c = 0; c < shared.length; c++) {
+            shared[c] = before.getColumnKeys().contains(columnKeys.get(c)) && after.getColumnKeys().contains(columnKeys.get(c));
+        }
+        for (Kind kind : Kind.values()) {
+            counts.put(kind, 0L);
+        }
+    }
+
+    /**
+     * 对比两个快照
+     *
+     * @param before    旧快照
+     * @param after     新快照
+     * @param indicator 进度
+     * @return {@link SnapshotDiff}
+     */
+    public static SnapshotDiff compare(CacheSnapshot before, CacheSnapshot after, ProgressIndicator indicator) throws IOException {
+        SnapshotDiff diff = new SnapshotDiff(before, after);
+        int[] beforeColumns = diff.columnMapping(before);
+        int[] afterColumns = diff.columnMapping(after);
+        long totalRows = Math.max(1, before.getRowCount() + after.getRowCount());
+        long readRows = 0;
+
+        try (CacheSnapshot.Cursor beforeCursor = before.cursor();
+             CacheSnapshot.Cursor afterCursor = after.cursor()) {
+            CacheSnapshot.Row beforeRow = beforeCursor.next();
+            CacheSnapshot.Row afterRow = afterCursor.next();
+            while (beforeRow != null || afterRow != null) {
+                int compare = beforeRow == null ? 1 : afterRow == null ? -1 : beforeRow.getRowKey().compareTo(afterRow.getRowKey());
+                if (compare < 0) {
+                    diff.add(Kind.REMOVED, beforeRow.getRowKey(), align(beforeRow, beforeColumns), null);
+                    beforeRow = beforeCursor.next();
+                    readRows++;
+                } else if (compare > 0) {
+                    diff.add(Kind.ADDED, afterRow.getRowKey(), null, align(afterRow, afterColumns));
+                    afterRow = afterCursor.next();
+                    readRows++;
+                } else {
+                    String[] beforeValues = align(beforeRow, beforeColumns);
+                    String[] afterValues = align(afterRow, afterColumns);
+                    if (!diff.isChanged(beforeValues, afterValues)) {
+                        diff.unchangedCount++;
+                    } else {
+                        diff.add(Kind.CHANGED, afterRow.getRowKey(), beforeValues, afterValues);
+                    }
+                    beforeRow = beforeCursor.next();
+                    afterRow = afterCursor.next();
+                    readRows += 2;
+                }
+
+                if (readRows % PROGRESS_INTERVAL < 2) {
+                    indicator.checkCanceled();
+                    indicator.setFraction((double) readRows / totalRows);
+                }
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * 快照的列在合并后列中的位置
+     */
+    private int[] columnMapping(CacheSnapshot snapshot) {
+        int[] mapping = new int[columnKeys.size()];
+        for (int c = 0; c < mapping.length; c++) {
+            mapping[c] = snapshot.getColumnKeys().indexOf(columnKeys.get(c));
+        }
+        return mapping;
+    }
+
+    private static String[] align(CacheSnapshot.Row row, int[] mapping) {
+        String[] values = new String[mapping.length];
+        for (int c = 0; c < mapping.length; c++) {
+            values[c] = mapping[c] < 0 ? null : row.getValue(mapping[c]);
+        }
+        return values;
+    }
+
+    private boolean isChanged(String[] beforeValues, String[] afterValues) {
+        for (int c = 0; c < shared.length; c++) {
+            if (shared[c] && !Objects.equals(beforeValues[c], afterValues[c])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void add(Kind kind, String rowKey, String[] beforeValues, String[] afterValues) {
+        counts.merge(kind, 1L, Long::sum);
+        if (entries.size() < MAX_ENTRIES) {
+            entries.add(new Entry(kind, rowKey, beforeValues, afterValues, shared));
+        }
+    }
+
+    public CacheSnapshot getBefore() {
+        return before;
+    }
+
+    public CacheSnapshot getAfter() {
+        return after;
+    }
+
+    public List<String> getColumnKeys() {
+        return columnKeys;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public long getCount(Kind kind) {
+        return counts.get(kind);
+    }
+
+    public long getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    /**
+     * 差异行超过 {@link #MAX_ENTRIES}，只保留了前面的行
+     */
+    public boolean isTruncated() {
+        long total = 0;
+        for (long count : counts.values()) {
+            total += count;
+        }
+        return total > entries.size();
+    }
+
+    /**
+     * 有差异的一行
+     */
+    public static class Entry {
+        private final Kind kind;
+        private final String rowKey;
+        private final String[] beforeValues;
+        private final String[] afterValues;
+        private final boolean[] shared;
+
+        Entry(Kind kind, String rowKey, String[] beforeValues, String[] afterValues, boolean[] shared) {
+            this.kind = kind;
+            this.rowKey = rowKey;
+            this.beforeValues = beforeValues;
+            this.afterValues = afterValues;
+            this.shared = shared;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getRowKey() {
+            return rowKey;
+        }
+
+        /**
+         * @param column 列，对应 {@link SnapshotDiff#getColumnKeys()}
+         * @return 旧值，新增的行为null
+         */
+        public String getBefore(int column) {
+            return beforeValues == null ? null : beforeValues[column];
+        }
+
+        /**
+         * @param column 列，对应 {@link SnapshotDiff#getColumnKeys()}
+         * @return 新值，删除的行为null
+         */
+        public String getAfter(int column) {
+            return afterValues == null ? null : afterValues[column];
+        }
+
+        public boolean isChanged(int column) {
+            return kind == Kind.CHANGED && shared[column] && !Objects.equals(beforeValues[column], afterValues[column]);
+        }
+    }
+}
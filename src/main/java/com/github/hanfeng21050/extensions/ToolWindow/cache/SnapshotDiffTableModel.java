@@ -0,0 +1,119 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import com.intellij.ui.JBColor;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 快照对比结果表格
+ * 前两列为变化类型和主键，其余列为新值，修改的单元格显示 旧值 → 新值
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class SnapshotDiffTableModel extends AbstractTableModel implements IndexedTableModel {
+    private static final String[] FIXED_COLUMNS = {"变化", "主键"};
+    private static final Color ADDED_BACKGROUND = new JBColor(new Color(220, 245, 220), new Color(45, 75, 45));
+    private static final Color REMOVED_BACKGROUND = new JBColor(new Color(255, 220, 220), new Color(94, 56, 56));
+    private static final Color CHANGED_BACKGROUND = new JBColor(new Color(255, 243, 205), new Color(84, 72, 40));
+
+    private final SnapshotDiff diff;
+    private final CacheRowIndex index;
+
+    /**
+     * 同时建立所有行的索引，数据量大时应在后台线程中创建
+     *
+     * @param diff 对比结果
+     */
+    public SnapshotDiffTableModel(SnapshotDiff diff) {
+        this.diff = diff;
+        List<String> columnKeys = new ArrayList<>(Arrays.asList(FIXED_COLUMNS));
+        String firstRowKey = diff.getEntries().isEmpty() ? null : diff.getEntries().get(0).getRowKey();
+        columnKeys.addAll(Arrays.asList(CachePage.columnNames(diff.getColumnKeys(), firstRowKey)));
+        this.index = CacheRowIndex.build(columnKeys, getRowCount(), this::getStringAt);
+    }
+
+    public SnapshotDiff getDiff() {
+        return diff;
+    }
+
+    @Override
+    public int getRowCount() {
+        return diff.getEntries().size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return FIXED_COLUMNS.length + diff.getColumnKeys().size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return column < FIXED_COLUMNS.length ? FIXED_COLUMNS[column] : diff.getColumnKeys().get(column - FIXED_COLUMNS.length);
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return getStringAt(rowIndex, columnIndex);
+    }
+
+    private String getStringAt(int rowIndex, int columnIndex) {
+        SnapshotDiff.Entry entry = diff.getEntries().get(rowIndex);
+        switch (columnIndex) {
+            case 0:
+                return entry.getKind().toString();
+            case 1:
+                return entry.getRowKey();
+            default:
+                int column = columnIndex - FIXED_COLUMNS.length;
+                if (entry.getKind() == SnapshotDiff.Kind.REMOVED) {
+                    return entry.getBefore(column);
+                }
+                if (entry.isChanged(column)) {
+                    return entry.getBefore(column) + " → " + entry.getAfter(column);
+                }
+                return entry.getAfter(column);
+        }
+    }
+
+    @Override
+    public CacheRowIndex getRowIndex(int rowIndex) {
+        return index;
+    }
+
+    @Override
+    public int getIndexedRow(int rowIndex) {
+        return rowIndex;
+    }
+
+    /**
+     * 新增、删除的行整行着色，修改的行只着色变化的单元格
+     */
+    public static class Renderer extends DefaultTableCellRenderer {
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+            Component component = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            if (!isSelected && table.getModel() instanceof SnapshotDiffTableModel) {
+                SnapshotDiffTableModel model = (SnapshotDiffTableModel) table.getModel();
+                SnapshotDiff.Entry entry = model.diff.getEntries().get(table.convertRowIndexToModel(row));
+                int modelColumn = table.convertColumnIndexToModel(column);
+                if (entry.getKind() == SnapshotDiff.Kind.ADDED) {
+                    component.setBackground(ADDED_BACKGROUND);
+                } else if (entry.getKind() == SnapshotDiff.Kind.REMOVED) {
+                    component.setBackground(REMOVED_BACKGROUND);
+                } else if (modelColumn == 0 || (modelColumn >= FIXED_COLUMNS.length && entry.isChanged(modelColumn - FIXED_COLUMNS.length))) {
+                    component.setBackground(CHANGED_BACKGROUND);
+                } else {
+                    component.setBackground(table.getBackground());
+                }
+            }
+            return component;
+        }
+    }
+}
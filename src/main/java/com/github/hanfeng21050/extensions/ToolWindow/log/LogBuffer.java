@@ -0,0 +1,94 @@
+package com.github.hanfeng21050.extensions.ToolWindow.log;
+
+import java.util.List;
+
+/**
+ * 固定容量的日志环形缓冲区，写满后覆盖最旧的行
+ * 下标 0 为当前保留的最旧一行；每行另有一个不随淘汰变化的序号，追加的行序号递增，在开头插入的行序号递减
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class LogBuffer {
+    private final LogEntry[] entries;
+    /**
+     * 最旧一行在数组中的位置
+     */
+    private int head;
+    private int size;
+    /**
+     * 最旧一行的序号
+     */
+    private long firstSeq;
+
+    public LogBuffer(int capacity) {
+        this.entries = new LogEntry[capacity];
+    }
+
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getFirstSeq() {
+        return firstSeq;
+    }
+
+    public LogEntry getBySeq(long seq) {
+        return get((int) (seq - firstSeq));
+    }
+
+    public LogEntry get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        return entries[(head + index) % entries.length];
+    }
+
+    /**
+     * 追加一行
+     *
+     * @return 被覆盖的最旧一行，未写满时为null
+     */
+    public LogEntry add(LogEntry entry) {
+        if (size < entries.length) {
+            entries[(head + size) % entries.length] = entry;
+            size++;
+            return null;
+        }
+        LogEntry evicted = entries[head];
+        entries[head] = entry;
+        head = (head + 1) % entries.length;
+        firstSeq++;
+        return evicted;
+    }
+
+    /**
+     * 在最旧一行之前插入更早的行，只插入剩余容量能容纳的较新部分
+     *
+     * @param older 更早的行，从旧到新
+     * @return 插入的行数
+     */
+    public int addFirst(List<LogEntry> older) {
+        int count = Math.min(older.size(), entries.length - size);
+        head = (head - count + entries.length) % entries.length;
+        for (int i = 0; i < count; i++) {
+            entries[(head + i) % entries.length] = older.get(older.size() - count + i);
+        }
+        size += count;
+        firstSeq -= count;
+        return count;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            entries[(head + i) % entries.length] = null;
+        }
+        head = 0;
+        firstSeq += size;
+        size = 0;
+    }
+}
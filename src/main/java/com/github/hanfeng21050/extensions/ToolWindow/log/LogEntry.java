@@ -0,0 +1,126 @@
+package com.github.hanfeng21050.extensions.ToolWindow.log;
+
+import com.github.hanfeng21050.utils.LogContext;
+import com.github.hanfeng21050.utils.LogLevel;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 日志窗口中的一行
+ * 多行的日志（如异常堆栈）拆成多条，后续行标记为续行，不显示时间和级别
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class LogEntry {
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+    private static final int[] NO_LINKS = new int[0];
+
+    private final long time;
+    private final LogLevel level;
+    private final LogContext context;
+    private final String message;
+    private final boolean continuation;
+    /**
+     * 文件路径在 message 中的位置，依次为 起始, 结束
+     */
+    private final int[] linkSpans;
+
+    /**
+     * @param time         时间戳（毫秒）
+     * @param level        级别
+     * @param context      结构化字段
+     * @param message      单行内容
+     * @param continuation 是否为续行
+     * @param linkSpans    文件路径在 message 中的位置，依次为 起始, 结束，按起始位置排序
+     */
+    public LogEntry(long time, LogLevel level, LogContext context, String message, boolean continuation, int[] linkSpans) {
+        this.time = time;
+        this.level = level;
+        this.context = context == null ? LogContext.EMPTY : context;
+        this.message = message;
+        this.continuation = continuation;
+        this.linkSpans = linkSpans == null ? NO_LINKS : linkSpans;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    public LogContext getContext() {
+        return context;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isContinuation() {
+        return continuation;
+    }
+
+    /**
+     * 行首的时间和级别，续行为空串
+     */
+    public String getPrefix() {
+        if (continuation) {
+            return "";
+        }
+        return "[" + TIMESTAMP_FORMATTER.format(Instant.ofEpochMilli(time)) + "] [" + level + "] ";
+    }
+
+    /**
+     * 环境和阶段，续行或没有时为空串
+     */
+    public String getContextLabel() {
+        if (continuation || (context.getEnvironment() == null && context.getPhase() == null)) {
+            return "";
+        }
+        if (context.getEnvironment() == null || context.getPhase() == null) {
+            return "[" + (context.getPhase() == null ? context.getEnvironment() : context.getPhase()) + "] ";
+        }
+        return "[" + context.getEnvironment() + " · " + context.getPhase() + "] ";
+    }
+
+    /**
+     * 阶段耗时，续行或没有时为空串
+     */
+    public String getDurationLabel() {
+        return continuation || context.getDurationMillis() < 0 ? "" : " (" + context.getDurationMillis() + " ms)";
+    }
+
+    public String getText() {
+        return getPrefix() + getContextLabel() + message + getDurationLabel();
+    }
+
+    public int getLinkCount() {
+        return linkSpans.length / 2;
+    }
+
+    public int getLinkStart(int link) {
+        return linkSpans[link * 2];
+    }
+
+    public int getLinkEnd(int link) {
+        return linkSpans[link * 2 + 1];
+    }
+
+    public String getLink(int link) {
+        return message.substring(getLinkStart(link), getLinkEnd(link));
+    }
+
+    /**
+     * 复制选中行时使用
+     */
+    @Override
+    public String toString() {
+        return getText();
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.hanfeng21050.extensions.ToolWindow.log;
+
+import com.github.hanfeng21050.utils.LogLevel;
+import com.intellij.openapi.editor.colors.EditorColorsManager;
+import com.intellij.ui.ColoredListCellRenderer;
+import com.intellij.ui.JBColor;
+import com.intellij.ui.SimpleTextAttributes;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * 日志行渲染，颜色在绘制时按当前主题取得，切换主题只需重绘
+ * 文件路径片段的 tag 为路径在 {@link LogEntry} 中的序号
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class LogEntryRenderer extends ColoredListCellRenderer<LogEntry> {
+    private static final Color ERROR_COLOR = new JBColor(new Color(200, 0, 0), new Color(255, 100, 100));
+    private static final Color WARN_COLOR = new JBColor(new Color(200, 130, 0), new Color(255, 200, 100));
+    private static final Color LINK_COLOR = new JBColor(
+            new Color(0, 102, 204),  // Light theme - IntelliJ default link color
+            new Color(104, 159, 220)  // Dark theme - IntelliJ default link color
+    );
+
+    @Override
+    protected void customizeCellRenderer(@NotNull JList<? extends LogEntry> list, LogEntry entry, int index, boolean selected, boolean hasFocus) {
+        if (!selected) {
+            setBackground(list.getBackground());
+        }
+        SimpleTextAttributes textAttributes = new SimpleTextAttributes(SimpleTextAttributes.STYLE_PLAIN, getColorForLevel(entry.getLevel()));
+        SimpleTextAttributes linkAttributes = new SimpleTextAttributes(SimpleTextAttributes.STYLE_UNDERLINE, LINK_COLOR);
+
+        append(entry.getPrefix(), textAttributes);
+        if (!entry.getContextLabel().isEmpty()) {
+            append(entry.getContextLabel(), SimpleTextAttributes.GRAYED_ATTRIBUTES);
+        }
+        String message = entry.getMessage();
+        int lastEnd = 0;
+        for (int link = 0; link < entry.getLinkCount(); link++) {
+            if (entry.getLinkStart(link) > lastEnd) {
+                append(message.substring(lastEnd, entry.getLinkStart(link)), textAttributes);
+            }
+            append(entry.getLink(link), linkAttributes, link);
+            lastEnd = entry.getLinkEnd(link);
+        }
+        if (lastEnd < message.length()) {
+            append(message.substring(lastEnd), textAttributes);
+        }
+        if (!entry.getDurationLabel().isEmpty()) {
+            append(entry.getDurationLabel(), SimpleTextAttributes.GRAYED_ATTRIBUTES);
+        }
+    }
+
+    /**
+     * 获取指定日志级别在当前主题下的颜色
+     */
+    private static Color getColorForLevel(LogLevel level) {
+        switch (level) {
+            case ERROR:
+                return ERROR_COLOR;
+            case WARN:
+                return WARN_COLOR;
+            default:
+                return EditorColorsManager.getInstance().getGlobalScheme().getDefaultForeground();
+        }
+    }
+
+    /**
+     * 列表中某个位置上的文件路径
+     *
+     * @param list  日志列表，使用本渲染器
+     * @param point 列表坐标
+     * @return 文件路径，不在路径上时为null
+     */
+    public String findLinkAt(JList<LogEntry> list, Point point) {
+        int row = list.locationToIndex(point);
+        if (row < 0) {
+            return null;
+        }
+        Rectangle bounds = list.getCellBounds(row, row);
+        LogEntry entry = list.getModel().getElementAt(row);
+        if (bounds == null || !bounds.contains(point) || entry.getLinkCount() == 0) {
+            return null;
+        }
+        getListCellRendererComponent(list, entry, row, false, false);
+        setBounds(bounds);
+        int fragment = findFragmentAt(point.x - bounds.x);
+        Object tag = fragment < 0 ? null : getFragmentTag(fragment);
+        return tag instanceof Integer ? entry.getLink((Integer) tag) : null;
+    }
+}
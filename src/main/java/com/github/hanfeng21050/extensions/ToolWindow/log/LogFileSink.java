@@ -0,0 +1,326 @@
+package com.github.hanfeng21050.extensions.ToolWindow.log;
+
+import com.github.hanfeng21050.utils.LogContext;
+import com.github.hanfeng21050.utils.LogLevel;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 日志文件
+ * 写入在单独的后台线程中批量进行，调用方只入队；文件超过大小或跨天时轮转，轮转出的文件压缩为 .gz，只保留最近的若干个
+ * <p>
+ * 每条日志首行为 时间 [级别] {结构化字段} 内容，没有结构化字段时省略，多行内容的后续行以制表符开头
+ * <p>
+ * 打开历史时记录已追加的条数，历史只包含这些日志，之后追加的由窗口实时显示，两者不重复
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class LogFileSink {
+    private static final Logger LOGGER = Logger.getInstance(LogFileSink.class);
+
+    private static final String LOG_DIR = "easy-env";
+    static final String ACTIVE_FILE = "easy-env.log";
+    static final String ROTATED_PREFIX = "easy-env-";
+    static final String ROTATED_SUFFIX = ".log.gz";
+    static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter ROTATED_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final Pattern LINE_SEPARATOR = Pattern.compile("\r?\n");
+    private static final long MAX_FILE_SIZE = 10L * 1024 * 1024;
+    private static final int MAX_ROTATED_FILES = 20;
+
+    private static volatile LogFileSink instance;
+
+    private final Path directory;
+    private final ExecutorService writeExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor("EasyEnv Log Writer", 1);
+    private final Queue<Record> pendingRecords = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+    /**
+     * 已追加的条数
+     */
+    private final AtomicLong appendedCount = new AtomicLong();
+    /**
+     * 等待写到截止位置的历史请求，按截止位置排序
+     */
+    private final Queue<HistoryRequest> historyRequests = new ConcurrentLinkedQueue<>();
+
+    // 以下只在写入线程中访问
+    private OutputStream output;
+    private long fileSize;
+    private LocalDate fileDate;
+    /**
+     * 已从队列中取出写入的条数
+     */
+    private long writtenCount;
+
+    LogFileSink(Path directory) {
+        this.directory = directory;
+    }
+
+    public static LogFileSink getInstance() {
+        if (instance == null) {
+            synchronized (LogFileSink.class) {
+                if (instance == null) {
+                    instance = new LogFileSink(Paths.get(PathManager.getLogPath(), LOG_DIR));
+                }
+            }
+        }
+        return instance;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 追加一条日志，可以在任意线程调用，不访问磁盘
+     *
+     * @param time    时间戳（毫秒）
+     * @param level   级别
+     * @param context 结构化字段
+     * @param message 内容，可以有多行
+     */
+    public void append(long time, LogLevel level, LogContext context, String message) {
+        pendingRecords.add(new Record(time, level, context, message));
+        appendedCount.incrementAndGet();
+        if (writeScheduled.compareAndSet(false, true)) {
+            writeExecutor.execute(this::write);
+        }
+    }
+
+    /**
+     * 打开已写入的历史
+     * 只包含调用前已追加的日志：写入线程写到这一条时，复制当前文件截止到此处的内容，
+     * 调用方需保证调用期间没有日志追加
+     *
+     * @return {@link LogHistory}
+     */
+    public CompletableFuture<LogHistory> openHistory() {
+        HistoryRequest request = new HistoryRequest(appendedCount.get());
+        historyRequests.add(request);
+        writeExecutor.execute(this::write);
+        return request.future;
+    }
+
+    /**
+     * 取出待写入的日志批量写入，写完后刷新到磁盘
+     */
+    private void write() {
+        writeScheduled.set(false);
+        Record record;
+        try {
+            while (true) {
+                completeHistoryRequests(writtenCount);
+                if ((record = pendingRecords.poll()) == null) {
+                    break;
+                }
+                writtenCount++;
+                LocalDate date = Instant.ofEpochMilli(record.time).atZone(ZoneId.systemDefault()).toLocalDate();
+                if (output != null && (fileSize >= MAX_FILE_SIZE || !date.equals(fileDate))) {
+                    rotate();
+                }
+                if (output == null) {
+                    open(date);
+                }
+                byte[] bytes = format(record).getBytes(StandardCharsets.UTF_8);
+                output.write(bytes);
+                fileSize += bytes.length;
+            }
+            if (output != null) {
+                output.flush();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("写入日志文件失败: " + directory, e);
+            closeQuietly();
+            // 写入失败时不再等待，用已写入的内容打开历史
+            completeHistoryRequests(Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * 截止位置不超过 written 的历史请求，复制当前文件后完成
+     */
+    private void completeHistoryRequests(long written) {
+        HistoryRequest request;
+        while ((request = historyRequests.peek()) != null && request.cutoff <= written) {
+            historyRequests.poll();
+            Path activeFile = directory.resolve(ACTIVE_FILE);
+            Path snapshot = null;
+            long length = 0;
+            try {
+                if (output != null) {
+                    output.flush();
+                }
+                length = output != null ? fileSize : Files.isRegularFile(activeFile) ? Files.size(activeFile) : 0;
+                if (length > 0) {
+                    snapshot = copyActiveFile(activeFile, length);
+                }
+            } catch (IOException e) {
+                LOGGER.warn("读取日志文件失败: " + activeFile, e);
+            }
+            request.future.complete(new LogHistory(snapshot, length, listRotatedFiles()));
+        }
+    }
+
+    /**
+     * 复制当前文件的前 length 字节，之后的读取不受写入和轮转影响
+     */
+    private static Path copyActiveFile(Path activeFile, long length) throws IOException {
+        Path snapshot = LogHistory.createTempFile();
+        try (FileChannel source = FileChannel.open(activeFile, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            long copied = 0;
+            while (copied < length) {
+                long transferred = source.transferTo(copied, length - copied, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                copied += transferred;
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(snapshot);
+            throw e;
+        }
+        return snapshot;
+    }
+
+    private void open(LocalDate date) throws IOException {
+        Files.createDirectories(directory);
+        Path activeFile = directory.resolve(ACTIVE_FILE);
+        if (Files.isRegularFile(activeFile)) {
+            // 沿用上次的文件，日期按最后修改时间计
+            fileSize = Files.size(activeFile);
+            fileDate = Files.getLastModifiedTime(activeFile).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+            if (fileSize >= MAX_FILE_SIZE || !date.equals(fileDate)) {
+                compress(activeFile);
+                fileSize = 0;
+            }
+        } else {
+            fileSize = 0;
+        }
+        fileDate = date;
+        output = new BufferedOutputStream(Files.newOutputStream(activeFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+    }
+
+    private void rotate() throws IOException {
+        output.close();
+        output = null;
+        compress(directory.resolve(ACTIVE_FILE));
+    }
+
+    /**
+     * 将当前文件压缩为轮转文件，并删除超出数量的旧文件
+     */
+    private void compress(Path activeFile) throws IOException {
+        String name = ROTATED_PREFIX + LocalDateTime.now().format(ROTATED_NAME_FORMATTER) + ROTATED_SUFFIX;
+        Path rotatedFile = directory.resolve(name);
+        Path tempFile = directory.resolve(name + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            Files.copy(activeFile, out);
+        }
+        Files.move(tempFile, rotatedFile, StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(activeFile);
+
+        List<Path> rotatedFiles = listRotatedFiles();
+        for (Path file : rotatedFiles.subList(Math.min(MAX_ROTATED_FILES, rotatedFiles.size()), rotatedFiles.size())) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * 轮转出的文件，从新到旧
+     */
+    private List<Path> listRotatedFiles() {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, ROTATED_PREFIX + "*" + ROTATED_SUFFIX)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            LOGGER.warn("列出日志文件失败: " + directory, e);
+        }
+        // 文件名中的时间定长，按名称倒序即从新到旧
+        files.sort(Collections.reverseOrder());
+        return files;
+    }
+
+    private static String format(Record record) {
+        StringBuilder sb = new StringBuilder(record.message.length() + 40);
+        sb.append(TIMESTAMP_FORMATTER.format(Instant.ofEpochMilli(record.time)))
+                .append(" [").append(record.level).append("] ");
+        if (!record.context.isEmpty()) {
+            sb.append('{').append(record.context.encode()).append("} ");
+        }
+        String[] lines = LINE_SEPARATOR.split(record.message);
+        for (int i = 0; i < lines.length; i++) {
+            if (i > 0) {
+                sb.append('\t');
+            }
+            sb.append(lines[i]).append('\n');
+        }
+        if (lines.length == 0) {
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private void closeQuietly() {
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException ignored) {
+            }
+            output = null;
+        }
+    }
+
+    private static class HistoryRequest {
+        /**
+         * 历史包含的日志条数
+         */
+        private final long cutoff;
+        private final CompletableFuture<LogHistory> future = new CompletableFuture<>();
+
+        HistoryRequest(long cutoff) {
+            this.cutoff = cutoff;
+        }
+    }
+
+    private static class Record {
+        private final long time;
+        private final LogLevel level;
+        private final LogContext context;
+        private final String message;
+
+        Record(long time, LogLevel level, LogContext context, String message) {
+            this.time = time;
+            this.level = level;
+            this.context = context;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.hanfeng21050.extensions.ToolWindow.log;
+
+import com.github.hanfeng21050.utils.LogContext;
+import com.github.hanfeng21050.utils.LogLevel;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 日志过滤条件：显示的级别和关键字
+ * 关键字忽略大小写，匹配内容以及项目、环境、阶段字段
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class LogFilter {
+    public static final LogFilter ALL = new LogFilter(EnumSet.allOf(LogLevel.class), "");
+
+    private final Set<LogLevel> levels;
+    private final String query;
+
+    /**
+     * @param levels 显示的级别
+     * @param query  关键字，为空时不按关键字过滤
+     */
+    public LogFilter(Set<LogLevel> levels, String query) {
+        this.levels = Collections.unmodifiableSet(levels.isEmpty() ? EnumSet.noneOf(LogLevel.class) : EnumSet.copyOf(levels));
+        this.query = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public Set<LogLevel> getLevels() {
+        return levels;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * 不过滤任何行
+     */
+    public boolean isAll() {
+        return levels.size() == LogLevel.values().length && query.isEmpty();
+    }
+
+    public boolean matches(LogEntry entry) {
+        return levels.contains(entry.getLevel()) && matchesQuery(entry);
+    }
+
+    /**
+     * 只检查关键字
+     */
+    public boolean matchesQuery(LogEntry entry) {
+        if (query.isEmpty()) {
+            return true;
+        }
+        LogContext context = entry.getContext();
+        return containsIgnoreCase(entry.getMessage()) || containsIgnoreCase(context.getProject())
+                || containsIgnoreCase(context.getEnvironment()) || containsIgnoreCase(context.getPhase());
+    }
+
+    /**
+     * 本条件的结果是否一定是 previous 结果的子集，此时只需在 previous 的结果中过滤
+     */
+    public boolean narrows(LogFilter previous) {
+        return previous.levels.containsAll(levels) && query.contains(previous.query);
+    }
+
+    /**
+     * 不为每行创建小写副本，先比较首字符再逐段比较
+     */
+    private boolean containsIgnoreCase(String text) {
+        if (text == null || text.length() < query.length()) {
+            return false;
+        }
+        char first = query.charAt(0);
+        char firstUpper = Character.toUpperCase(first);
+        for (int i = 0, last = text.length() - query.length(); i <= last; i++) {
+            char c = text.charAt(i);
+            if ((Character.toLowerCase(c) == first || Character.toUpperCase(c) == firstUpper)
+                    && text.regionMatches(true, i, query, 0, query.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
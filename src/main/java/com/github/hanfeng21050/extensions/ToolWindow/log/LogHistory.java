@@ -0,0 +1,290 @@
+package com.github.hanfeng21050.extensions.ToolWindow.log;
+
+import com.github.hanfeng21050.utils.LogContext;
+import com.github.hanfeng21050.utils.LogLevel;
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 日志文件中的历史，从新到旧分页读取
+ * 先读打开时当前文件的副本，读完后依次解压更早的轮转文件；每次只从文件末尾向前按块读取一页，内存中不保留整个文件
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class LogHistory {
+    private static final Logger LOGGER = Logger.getInstance(LogHistory.class);
+
+    private static final Pattern HEADER = Pattern.compile(
+            "^(\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}\\.\\d{3}) \\[(INFO|WARN|ERROR)] (?:\\{((?:\\w+=[^;}]*;?)+)} )?");
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * 还未读取的轮转文件，从新到旧
+     */
+    private final Deque<Path> olderFiles;
+    /**
+     * 正在读取的临时文件，读完后删除
+     */
+    private Path segment;
+    /**
+     * segment 中 [0, end) 的字节还未读取
+     */
+    private long end;
+    /**
+     * 已读取但未能显示、退回的行，从旧到新，下次读取时先返回
+     */
+    private final List<LogEntry> pushedBack = new ArrayList<>();
+
+    /**
+     * @param activeSnapshot 当前文件截止到打开时的副本，没有时为null
+     * @param length         副本的长度
+     * @param rotatedFiles   轮转出的文件，从新到旧
+     */
+    LogHistory(Path activeSnapshot, long length, List<Path> rotatedFiles) {
+        this.segment = activeSnapshot;
+        this.end = activeSnapshot == null ? 0 : length;
+        this.olderFiles = new ArrayDeque<>(rotatedFiles);
+    }
+
+    public synchronized boolean hasMore() {
+        return !pushedBack.isEmpty() || end > 0 || !olderFiles.isEmpty();
+    }
+
+    /**
+     * 退回读取后未能显示的行，下次读取时重新返回
+     *
+     * @param entries 退回的行，从旧到新，应早于之前退回的行
+     */
+    public synchronized void pushBack(List<LogEntry> entries) {
+        pushedBack.addAll(0, entries);
+    }
+
+    /**
+     * 读取更早的一页，应在后台线程调用
+     *
+     * @param maxLines 最多读取的行数，为保持日志完整可能略多
+     * @param detector 查找行中的文件路径
+     * @return 日志行，从旧到新
+     */
+    public synchronized List<LogEntry> readOlder(int maxLines, LogLinkDetector detector) throws IOException {
+        List<LogEntry> entries = new ArrayList<>();
+        int remaining = maxLines;
+        if (!pushedBack.isEmpty()) {
+            // 先返回退回的行
+            List<LogEntry> newest = pushedBack.subList(Math.max(0, pushedBack.size() - remaining), pushedBack.size());
+            entries.addAll(newest);
+            remaining -= newest.size();
+            newest.clear();
+        }
+        while (remaining > 0) {
+            if (end == 0) {
+                deleteSegment();
+                if (olderFiles.isEmpty()) {
+                    break;
+                }
+                segment = decompress(olderFiles.poll());
+                end = segment == null ? 0 : Files.size(segment);
+                continue;
+            }
+            List<String> lines = readLinesBefore(remaining);
+            entries.addAll(0, parse(lines, detector));
+            remaining -= lines.size();
+        }
+        if (end == 0 && olderFiles.isEmpty()) {
+            deleteSegment();
+        }
+        return entries;
+    }
+
+    /**
+     * 从 end 向前读取至少 count 行，并继续读到一条日志的首行为止，续行才能取得时间和级别
+     *
+     * @return 读取的行，从旧到新
+     */
+    private List<String> readLinesBefore(int count) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ReverseLineReader reader = new ReverseLineReader(channel, end);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                if (lines.size() >= count && HEADER.matcher(line).find()) {
+                    break;
+                }
+            }
+            end = reader.getPosition();
+        }
+        Collections.reverse(lines);
+        return lines;
+    }
+
+    /**
+     * 创建读取历史用的临时文件，IDE退出时删除
+     */
+    static Path createTempFile() throws IOException {
+        Path file = Files.createTempFile("easy-env-history", ".log");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    /**
+     * 将轮转文件解压到临时文件，gzip 无法从末尾向前读取
+     *
+     * @return 临时文件，轮转文件已被清理时为null
+     */
+    private static Path decompress(Path file) throws IOException {
+        Path temp = createTempFile();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file), CHUNK_SIZE)) {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            return temp;
+        } catch (NoSuchFileException e) {
+            // 已被轮转清理
+            Files.deleteIfExists(temp);
+            return null;
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private void deleteSegment() {
+        if (segment == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(segment);
+        } catch (IOException e) {
+            LOGGER.debug("删除临时文件失败: " + segment, e);
+        }
+        segment = null;
+    }
+
+    private static List<LogEntry> parse(List<String> lines, LogLinkDetector detector) {
+        List<LogEntry> entries = new ArrayList<>(lines.size());
+        long time = 0;
+        LogLevel level = LogLevel.INFO;
+        LogContext context = LogContext.EMPTY;
+        for (String line : lines) {
+            Matcher matcher = HEADER.matcher(line);
+            String message;
+            boolean continuation;
+            if (matcher.find()) {
+                try {
+                    time = Instant.from(LogFileSink.TIMESTAMP_FORMATTER.parse(matcher.group(1))).toEpochMilli();
+                } catch (DateTimeParseException e) {
+                    time = 0;
+                }
+                level = LogLevel.valueOf(matcher.group(2));
+                context = matcher.group(3) == null ? LogContext.EMPTY : LogContext.decode(matcher.group(3));
+                message = line.substring(matcher.end());
+                continuation = false;
+            } else {
+                message = line.startsWith("\t") ? line.substring(1) : line;
+                continuation = true;
+            }
+            entries.add(new LogEntry(time, level, context, message, continuation, detector.findLinks(message)));
+        }
+        return entries;
+    }
+
+    /**
+     * 从指定位置向前逐行读取，每次读取一块
+     * UTF-8 多字节字符中不会出现换行符的字节，可以直接按字节查找换行
+     */
+    private static class ReverseLineReader {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+        /**
+         * buffer 中的数据在文件中的起始位置
+         */
+        private long bufferStart;
+        private int bufferLength;
+        /**
+         * [0, position) 还未读取
+         */
+        private long position;
+
+        ReverseLineReader(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        long getPosition() {
+            return position;
+        }
+
+        /**
+         * 读取前一行
+         *
+         * @return 行内容，不含换行符，已到文件开头时为null
+         */
+        String readLine() throws IOException {
+            if (position == 0) {
+                return null;
+            }
+            long lineEnd = position;
+            if (byteAt(lineEnd - 1) == '\n') {
+                lineEnd--;
+            }
+            long lineStart = lineEnd;
+            while (lineStart > 0 && byteAt(lineStart - 1) != '\n') {
+                lineStart--;
+            }
+            position = lineStart;
+            String line = decode(lineStart, lineEnd);
+            return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+        }
+
+        private byte byteAt(long offset) throws IOException {
+            if (offset < bufferStart || offset >= bufferStart + bufferLength) {
+                // 读取以 offset 结尾的一块
+                bufferStart = Math.max(0, offset + 1 - CHUNK_SIZE);
+                buffer.clear();
+                buffer.limit((int) (offset + 1 - bufferStart));
+                readFully(buffer, bufferStart);
+                bufferLength = buffer.position();
+            }
+            return buffer.get((int) (offset - bufferStart));
+        }
+
+        private String decode(long start, long end) throws IOException {
+            int length = (int) (end - start);
+            if (start >= bufferStart && end <= bufferStart + bufferLength) {
+                return new String(buffer.array(), (int) (start - bufferStart), length, StandardCharsets.UTF_8);
+            }
+            // 超过一块的长行单独读取
+            ByteBuffer line = ByteBuffer.allocate(length);
+            readFully(line, start);
+            return new String(line.array(), 0, line.position(), StandardCharsets.UTF_8);
+        }
+
+        private void readFully(ByteBuffer target, long offset) throws IOException {
+            while (target.hasRemaining()) {
+                if (channel.read(target, offset + target.position()) < 0) {
+                    break;
+                }
+            }
+        }
+    }
+}
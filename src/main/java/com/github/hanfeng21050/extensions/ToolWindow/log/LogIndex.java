@@ -0,0 +1,310 @@
+package com.github.hanfeng21050.extensions.ToolWindow.log;
+
+import com.github.hanfeng21050.utils.LogContext;
+import com.github.hanfeng21050.utils.LogLevel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 日志缓冲区的级别和关键字索引
+ * 每个级别按顺序保存该级别各行的序号，按级别过滤时只需合并选中级别的序号，不必遍历所有行；
+ * 内容和项目、环境、阶段字段按字母数字切分成小写的词，每个词保存包含它的行的序号。
+ * 按关键字过滤时只遍历不重复的词，得到可能匹配的行，再逐行确认
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class LogIndex {
+    private final Map<LogLevel, SeqList> levelSeqs = new EnumMap<>(LogLevel.class);
+    /**
+     * 词 -> 包含该词的行
+     */
+    private final Map<String, SeqList> tokenSeqs = new HashMap<>();
+
+    public LogIndex() {
+        for (LogLevel level : LogLevel.values()) {
+            levelSeqs.put(level, new SeqList());
+        }
+    }
+
+    /**
+     * 追加一行，序号需递增
+     */
+    public void add(long seq, LogEntry entry) {
+        levelSeqs.get(entry.getLevel()).add(seq);
+        for (String token : tokens(entry)) {
+            SeqList seqs = tokenSeqs.computeIfAbsent(token, k -> new SeqList());
+            // 同一行中重复的词只记录一次
+            if (seqs.size() == 0 || seqs.get(seqs.size() - 1) != seq) {
+                seqs.add(seq);
+            }
+        }
+    }
+
+    /**
+     * 在开头插入更早的行
+     *
+     * @param firstSeq 第一行的序号
+     * @param older    更早的行，从旧到新
+     */
+    public void addFirst(long firstSeq, LogEntry[] older) {
+        Map<LogLevel, SeqList> prefixes = new EnumMap<>(LogLevel.class);
+        Map<String, SeqList> tokenPrefixes = new HashMap<>();
+        for (int i = 0; i < older.length; i++) {
+            long seq = firstSeq + i;
+            prefixes.computeIfAbsent(older[i].getLevel(), level -> new SeqList()).add(seq);
+            for (String token : tokens(older[i])) {
+                SeqList seqs = tokenPrefixes.computeIfAbsent(token, k -> new SeqList());
+                if (seqs.size() == 0 || seqs.get(seqs.size() - 1) != seq) {
+                    seqs.add(seq);
+                }
+            }
+        }
+        prefixes.forEach((level, prefix) -> levelSeqs.get(level).addFirst(prefix));
+        tokenPrefixes.forEach((token, prefix) -> tokenSeqs.computeIfAbsent(token, k -> new SeqList()).addFirst(prefix));
+    }
+
+    /**
+     * 删除已被淘汰的行
+     *
+     * @param firstSeq 缓冲区中最旧一行的序号
+     * @param evicted  被淘汰的行，只需更新这些行中的词
+     */
+    public void removeBefore(long firstSeq, List<LogEntry> evicted) {
+        for (SeqList seqs : levelSeqs.values()) {
+            seqs.removeBefore(firstSeq);
+        }
+        for (LogEntry entry : evicted) {
+            for (String token : tokens(entry)) {
+                SeqList seqs = tokenSeqs.get(token);
+                if (seqs != null && seqs.removeBefore(firstSeq) > 0 && seqs.size() == 0) {
+                    tokenSeqs.remove(token);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        for (SeqList seqs : levelSeqs.values()) {
+            seqs.clear();
+        }
+        tokenSeqs.clear();
+    }
+
+    /**
+     * 属于指定级别的行
+     *
+     * @return 序号，升序
+     */
+    public SeqList select(Set<LogLevel> levels) {
+        SeqList result = new SeqList();
+        for (LogLevel level : levels) {
+            result = SeqList.merge(result, levelSeqs.get(level));
+        }
+        return result;
+    }
+
+    /**
+     * 可能包含关键字的行，结果包括所有匹配的行，需要再逐行确认
+     * 关键字中被非字母数字字符隔开的词，在行中也以同样的边界出现：左侧有分隔时行中的词以它开头，
+     * 右侧有分隔时以它结尾，两侧都有时相等，否则只需包含它
+     *
+     * @param query 小写的关键字
+     * @return 序号，升序；关键字中没有字母数字时为null，此时无法使用索引
+     */
+    public SeqList selectText(String query) {
+        SeqList result = null;
+        int i = 0;
+        while (i < query.length()) {
+            if (!Character.isLetterOrDigit(query.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < query.length() && Character.isLetterOrDigit(query.charAt(i))) {
+                i++;
+            }
+            SeqList matched = selectToken(query.substring(start, i), start > 0, i < query.length());
+            result = result == null ? matched : SeqList.intersect(result, matched);
+            if (result.size() == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private SeqList selectToken(String part, boolean atStart, boolean atEnd) {
+        if (atStart && atEnd) {
+            SeqList seqs = tokenSeqs.get(part);
+            return seqs == null ? new SeqList() : seqs;
+        }
+        List<SeqList> lists = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<String, SeqList> entry : tokenSeqs.entrySet()) {
+            String token = entry.getKey();
+            boolean matches = atStart ? token.startsWith(part) : atEnd ? token.endsWith(part) : token.contains(part);
+            if (matches) {
+                lists.add(entry.getValue());
+                total += entry.getValue().size();
+            }
+        }
+        // 匹配的词可能很多，一次排序去重，不逐个合并
+        long[] seqs = new long[total];
+        int n = 0;
+        for (SeqList list : lists) {
+            System.arraycopy(list.data, list.start, seqs, n, list.size());
+            n += list.size();
+        }
+        Arrays.sort(seqs);
+        SeqList result = new SeqList();
+        for (int k = 0; k < seqs.length; k++) {
+            if (k == 0 || seqs[k] != seqs[k - 1]) {
+                result.add(seqs[k]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 行中的词，与 {@link LogFilter#matchesQuery} 检查的字段一致
+     */
+    private static List<String> tokens(LogEntry entry) {
+        List<String> tokens = new ArrayList<>();
+        LogContext context = entry.getContext();
+        tokenize(entry.getMessage(), tokens);
+        tokenize(context.getProject(), tokens);
+        tokenize(context.getEnvironment(), tokens);
+        tokenize(context.getPhase(), tokens);
+        return tokens;
+    }
+
+    private static void tokenize(String text, List<String> tokens) {
+        if (text == null) {
+            return;
+        }
+        int i = 0;
+        while (i < text.length()) {
+            if (!Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            StringBuilder token = new StringBuilder();
+            while (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+                token.append(Character.toLowerCase(text.charAt(i)));
+                i++;
+            }
+            tokens.add(token.toString());
+        }
+    }
+
+    /**
+     * 升序的行序号，支持从开头删除
+     */
+    public static class SeqList {
+        private long[] data = new long[16];
+        private int start;
+        private int end;
+
+        public int size() {
+            return end - start;
+        }
+
+        public long get(int index) {
+            return data[start + index];
+        }
+
+        public void add(long seq) {
+            if (end == data.length) {
+                if (start > data.length / 2) {
+                    // 开头空出的位置超过一半，整体前移
+                    System.arraycopy(data, start, data, 0, size());
+                } else {
+                    data = Arrays.copyOfRange(data, start, Math.max(16, data.length * 2) + start);
+                }
+                end -= start;
+                start = 0;
+            }
+            data[end++] = seq;
+        }
+
+        public void addAll(SeqList other) {
+            for (int i = 0; i < other.size(); i++) {
+                add(other.get(i));
+            }
+        }
+
+        /**
+         * 在开头插入，other 中的序号都小于现有的
+         */
+        public void addFirst(SeqList other) {
+            long[] merged = new long[Math.max(16, other.size() + size())];
+            System.arraycopy(other.data, other.start, merged, 0, other.size());
+            System.arraycopy(data, start, merged, other.size(), size());
+            end = other.size() + size();
+            start = 0;
+            data = merged;
+        }
+
+        /**
+         * 删除小于 seq 的序号
+         *
+         * @return 删除的个数
+         */
+        public int removeBefore(long seq) {
+            int removed = 0;
+            while (start < end && data[start] < seq) {
+                start++;
+                removed++;
+            }
+            return removed;
+        }
+
+        public void clear() {
+            start = 0;
+            end = 0;
+        }
+
+        static SeqList intersect(SeqList a, SeqList b) {
+            SeqList result = new SeqList();
+            int i = 0;
+            int j = 0;
+            while (i < a.size() && j < b.size()) {
+                long x = a.get(i);
+                long y = b.get(j);
+                if (x == y) {
+                    result.add(x);
+                    i++;
+                    j++;
+                } else if (x < y) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return result;
+        }
+
+        static SeqList merge(SeqList a, SeqList b) {
+            SeqList result = new SeqList();
+            result.data = new long[Math.max(16, a.size() + b.size())];
+            int i = 0;
+            int j = 0;
+            while (i < a.size() && j < b.size()) {
+                result.data[result.end++] = a.get(i) <= b.get(j) ? a.get(i++) : b.get(j++);
+            }
+            while (i < a.size()) {
+                result.data[result.end++] = a.get(i++);
+            }
+            while (j < b.size()) {
+                result.data[result.end++] = b.get(j++);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.hanfeng21050.extensions.ToolWindow.log;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 查找日志行中存在的文件路径
+ * 支持 Windows 盘符路径（反斜杠已由 Logger 转为正斜杠）和 Linux/macOS 绝对路径，
+ * 文件是否存在的结果缓存一段时间，同一路径反复出现时不再访问磁盘
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class LogLinkDetector {
+    /**
+     * 盘符路径：C:/a/b.txt；绝对路径：/a/b.txt，需位于行首、空白、引号、括号、冒号或等号之后，避免匹配 URL 和相对路径
+     */
+    private static final Pattern FILE_PATTERN = Pattern.compile(
+            "(?:(?<![A-Za-z0-9])[A-Za-z]:|(?<![^\\s\"'(\\[=:：]))(?:/[^\\s/\"'<>|]+)+");
+    /**
+     * 路径后紧跟的标点不属于路径
+     */
+    private static final String TRAILING_PUNCTUATION = ".,;:)]}，。；：）";
+    private static final long EXISTS_TTL_MILLIS = 5_000;
+    private static final int MAX_CACHED_PATHS = 4096;
+    private static final int[] NO_LINKS = new int[0];
+
+    private final Map<String, CachedExists> existsCache = new ConcurrentHashMap<>();
+
+    /**
+     * 行中存在的文件路径，应在后台线程调用
+     *
+     * @param line 单行日志
+     * @return 依次为 起始, 结束，按起始位置排序
+     */
+    public int[] findLinks(String line) {
+        if (line.indexOf('/') < 0) {
+            return NO_LINKS;
+        }
+        Matcher matcher = FILE_PATTERN.matcher(line);
+        int[] spans = NO_LINKS;
+        int count = 0;
+        while (matcher.find()) {
+            int end = matcher.end();
+            while (end > matcher.start() && TRAILING_PUNCTUATION.indexOf(line.charAt(end - 1)) >= 0) {
+                end--;
+            }
+            if (exists(line.substring(matcher.start(), end))) {
+                if (count == spans.length) {
+                    spans = Arrays.copyOf(spans, Math.max(4, spans.length * 2));
+                }
+                spans[count++] = matcher.start();
+                spans[count++] = end;
+            }
+        }
+        return count == spans.length ? spans : Arrays.copyOf(spans, count);
+    }
+
+    private boolean exists(String path) {
+        long now = System.currentTimeMillis();
+        CachedExists cached = existsCache.get(path);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.exists;
+        }
+        if (existsCache.size() >= MAX_CACHED_PATHS) {
+            existsCache.clear();
+        }
+        boolean exists = new File(path).exists();
+        existsCache.put(path, new CachedExists(exists, now + EXISTS_TTL_MILLIS));
+        return exists;
+    }
+
+    private static class CachedExists {
+        private final boolean exists;
+        private final long expiresAt;
+
+        CachedExists(boolean exists, long expiresAt) {
+            this.exists = exists;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.github.hanfeng21050.extensions.ToolWindow.log;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于 {@link LogBuffer} 的列表模型
+ * 追加和淘汰都只通知变化的区间，配合固定行高的列表，只绘制可见的行
+ * <p>
+ * 设置过滤条件后只显示匹配的行：按级别和关键字使用 {@link LogIndex} 选出可能匹配的行，再逐行确认，
+ * 条件在上一次基础上收窄时只在上一次的结果中匹配；新追加的行逐行检查后追加到结果末尾
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class LogListModel extends AbstractListModel<LogEntry> {
+    private final LogBuffer buffer;
+    private final LogIndex index = new LogIndex();
+    private LogFilter filter = LogFilter.ALL;
+    /**
+     * 过滤后可见行的序号，不过滤时为null
+     */
+    private LogIndex.SeqList visible;
+
+    public LogListModel(int capacity) {
+        this.buffer = new LogBuffer(capacity);
+    }
+
+    public LogBuffer getBuffer() {
+        return buffer;
+    }
+
+    public LogFilter getFilter() {
+        return filter;
+    }
+
+    @Override
+    public int getSize() {
+        return visible == null ? buffer.size() : visible.size();
+    }
+
+    @Override
+    public LogEntry getElementAt(int index) {
+        return visible == null ? buffer.get(index) : buffer.getBySeq(visible.get(index));
+    }
+
+    /**
+     * 批量追加，超过容量时淘汰最旧的行
+     */
+    public void addAll(List<LogEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        // 超过容量的部分追加后也会被淘汰，直接跳过
+        List<LogEntry> added = entries.subList(Math.max(0, entries.size() - buffer.getCapacity()), entries.size());
+        LogIndex.SeqList matched = new LogIndex.SeqList();
+        List<LogEntry> evicted = new ArrayList<>();
+        for (LogEntry entry : added) {
+            LogEntry evictedEntry = buffer.add(entry);
+            if (evictedEntry != null) {
+                evicted.add(evictedEntry);
+            }
+            long seq = buffer.getFirstSeq() + buffer.size() - 1;
+            index.add(seq, entry);
+            if (visible != null && filter.matches(entry)) {
+                matched.add(seq);
+            }
+        }
+        index.removeBefore(buffer.getFirstSeq(), evicted);
+
+        if (visible == null) {
+            if (!evicted.isEmpty()) {
+                fireIntervalRemoved(this, 0, evicted.size() - 1);
+            }
+            fireIntervalAdded(this, buffer.size() - added.size(), buffer.size() - 1);
+            return;
+        }
+        int removed = visible.removeBefore(buffer.getFirstSeq());
+        if (removed > 0) {
+            fireIntervalRemoved(this, 0, removed - 1);
+        }
+        if (matched.size() > 0) {
+            visible.addAll(matched);
+            fireIntervalAdded(this, visible.size() - matched.size(), visible.size() - 1);
+        }
+    }
+
+    /**
+     * 在开头插入更早的行，缓冲区已满时只插入能容纳的部分
+     *
+     * @param older 更早的行，从旧到新
+     * @return 插入的行数
+     */
+    public int addFirst(List<LogEntry> older) {
+        int count = buffer.addFirst(older);
+        if (count == 0) {
+            return 0;
+        }
+        LogEntry[] inserted = older.subList(older.size() - count, older.size()).toArray(new LogEntry[0]);
+        index.addFirst(buffer.getFirstSeq(), inserted);
+
+        if (visible == null) {
+            fireIntervalAdded(this, 0, count - 1);
+            return count;
+        }
+        LogIndex.SeqList matched = new LogIndex.SeqList();
+        for (int i = 0; i < inserted.length; i++) {
+            if (filter.matches(inserted[i])) {
+                matched.add(buffer.getFirstSeq() + i);
+            }
+        }
+        if (matched.size() > 0) {
+            visible.addFirst(matched);
+            fireIntervalAdded(this, 0, matched.size() - 1);
+        }
+        return count;
+    }
+
+    /**
+     * 设置过滤条件
+     *
+     * @param newFilter 过滤条件
+     */
+    public void setFilter(LogFilter newFilter) {
+        int oldSize = getSize();
+        LogIndex.SeqList result = null;
+        if (!newFilter.isAll()) {
+            LogIndex.SeqList candidates = visible != null && newFilter.narrows(filter) ? visible : index.select(newFilter.getLevels());
+            if (newFilter.getQuery().isEmpty()) {
+                result = candidates;
+            } else {
+                LogIndex.SeqList textSeqs = index.selectText(newFilter.getQuery());
+                if (textSeqs != null) {
+                    candidates = LogIndex.SeqList.intersect(candidates, textSeqs);
+                }
+                result = new LogIndex.SeqList();
+                for (int i = 0; i < candidates.size(); i++) {
+                    long seq = candidates.get(i);
+                    if (newFilter.matches(buffer.getBySeq(seq))) {
+                        result.add(seq);
+                    }
+                }
+            }
+        }
+        filter = newFilter;
+        visible = result;
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        if (getSize() > 0) {
+            fireIntervalAdded(this, 0, getSize() - 1);
+        }
+    }
+
+    public void clear() {
+        int size = getSize();
+        buffer.clear();
+        index.clear();
+        if (visible != null) {
+            visible.clear();
+        }
+        if (size > 0) {
+            fireIntervalRemoved(this, 0, size - 1);
+        }
+    }
+}
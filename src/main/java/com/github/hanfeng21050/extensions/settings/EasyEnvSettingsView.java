@@ -4,6 +4,7 @@ import com.github.hanfeng21050.config.EasyEnvConfig;
 import com.github.hanfeng21050.config.SeeConfig;
 import com.github.hanfeng21050.controller.EnvConfigController;
 import com.github.hanfeng21050.controller.SeeRequestController;
+import com.github.hanfeng21050.controller.session.SeeSessionManager;
 import com.github.hanfeng21050.utils.EasyIcons;
 import com.github.hanfeng21050.utils.ObjectUtil;
 import com.github.hanfeng21050.utils.PasswordUtil;
@@ -32,6 +33,7 @@ import javax.xml.bind.Unmarshaller;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Vector;
 import java.util.function.Consumer;
 
@@ -132,6 +134,8 @@ public class EasyEnvSettingsView extends AbstractTemplateSettingsView {
                     Credentials credentials = new Credentials(seeConnectInfo.getUuid(), seeConnectInfo.getPassword());
                     PasswordSafe.getInstance().set(easyEnv, credentials);
                     seeConnectInfo.setPassword("");
+                    // 密码已更新，旧会话不再可用
+                    SeeSessionManager.removeSession(seeConnectInfo.getUuid());
                 }
                 // 在这里处理导入的配置对象
                 handleImportedConfig(importedConfig);
@@ -438,6 +442,7 @@ public class EasyEnvSettingsView extends AbstractTemplateSettingsView {
      */
     public void apply() {
         try {
+            removeChangedSessions();
             this.oldSeeConnectInfos = ObjectUtil.deepCopyList(config.getSeeConnectInfos());
             this.isModify = false;
         } catch (IOException | ClassNotFoundException e) {
@@ -445,6 +450,21 @@ public class EasyEnvSettingsView extends AbstractTemplateSettingsView {
         }
     }
 
+    /**
+     * 移除被删除或地址、用户名被修改的环境的会话
+     */
+    private void removeChangedSessions() {
+        for (EasyEnvConfig.SeeConnectInfo old : oldSeeConnectInfos) {
+            boolean unchanged = config.getSeeConnectInfos().stream()
+                    .anyMatch(x -> x.getUuid().equals(old.getUuid())
+                            && Objects.equals(x.getAddress(), old.getAddress())
+                            && Objects.equals(x.getUsername(), old.getUsername()));
+            if (!unchanged) {
+                SeeSessionManager.removeSession(old.getUuid());
+            }
+        }
+    }
+
     /**
      * 显示信息提示框的方法。
      *
@@ -0,0 +1,527 @@
+package com.github.hanfeng21050.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.Consts;
+import org.apache.http.HttpResponse;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.ssl.SSLContexts;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.security.KeyManagementException;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步http客户端工具类
+ * httpasyncclient，使用独立的I/O reactor，结果以{@link CompletableFuture}返回
+ * <p>
+ * 未指定请求上下文时与{@link HttpClientUtil}共用同一个cookie，同时在途的请求数受{@link #MAX_IN_FLIGHT}限制，
+ * 超出的请求排队等待，不会占用调用方线程；响应体较大时可使用 {@link #httpPostJSONStreamAsync} 边接收边解析
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class HttpAsyncClientUtil {
+
+    private final static Logger log = LoggerFactory.getLogger(HttpAsyncClientUtil.class);
+
+    /**
+     * 同时在途的最大请求数
+     */
+    private static final int MAX_IN_FLIGHT = 64;
+
+    /**
+     * 在途请求许可
+     */
+    private static final Semaphore IN_FLIGHT = new Semaphore(MAX_IN_FLIGHT);
+
+    /**
+     * 等待发送的请求
+     */
+    private static final Queue<Runnable> PENDING = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 回调线程池，避免在I/O reactor线程和公共线程池中执行后续处理
+     */
+    private static final ExecutorService CALLBACK_EXECUTOR = createCallbackExecutor();
+
+    /**
+     * 流式解析线程池，解析时阻塞等待数据，不与回调线程池共用；
+     * 响应接收完后解析可能仍在进行，线程数不受在途请求数限制
+     */
+    private static final ExecutorService STREAM_EXECUTOR = createStreamExecutor();
+
+    /**
+     * 异步连接池
+     */
+    private static PoolingNHttpClientConnectionManager manager = null;
+
+    /**
+     * 异步http客户端
+     */
+    private static volatile CloseableHttpAsyncClient httpAsyncClient = null;
+
+    private static ExecutorService createCallbackExecutor() {
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(4, 4, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "easy-env-http-callback-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ExecutorService createStreamExecutor() {
+        AtomicInteger index = new AtomicInteger();
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread thread = new Thread(r, "easy-env-http-stream-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 解析响应体
+     */
+    public interface ResponseParser<T> {
+        /**
+         * 在后台线程中调用，读取时阻塞等待数据
+         *
+         * @param response 响应，没有响应体时 getEntity() 为null
+         * @param content  响应体
+         * @return 解析结果
+         */
+        T parse(HttpResponse response, InputStream content) throws IOException;
+    }
+
+    /**
+     * 初始化
+     */
+    private static CloseableHttpAsyncClient init() {
+        // 默认请求配置，与同步客户端保持一致
+        RequestConfig defaultRequestConfig = RequestConfig.custom()
+                .setConnectTimeout(2000)
+                .setSocketTimeout(3 * 60 * 1000)
+                .setConnectionRequestTimeout(60 * 1000)
+                .build();
+
+        // I/O reactor配置，线程数不超过4个
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(Math.min(4, Runtime.getRuntime().availableProcessors()))
+                .setConnectTimeout(2000)
+                .setSoTimeout(3 * 60 * 1000)
+                .setTcpNoDelay(true)
+                .setSoKeepAlive(true)
+                .build();
+
+        try {
+            // 解决https自签名证书的问题
+            SSLIOSessionStrategy sslStrategy = new SSLIOSessionStrategy(
+                    SSLContexts.custom().loadTrustMaterial(null, new TrustSelfSignedStrategy()).build(),
+                    NoopHostnameVerifier.INSTANCE);
+            Registry<SchemeIOSessionStrategy> strategyRegistry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                    .register("http", NoopIOSessionStrategy.INSTANCE)
+                    .register("https", sslStrategy).build();
+
+            DefaultConnectingIOReactor ioReactor = new DefaultConnectingIOReactor(ioReactorConfig);
+            manager = new PoolingNHttpClientConnectionManager(ioReactor, strategyRegistry);
+            // 连接数与在途请求数保持一致
+            manager.setMaxTotal(MAX_IN_FLIGHT);
+            manager.setDefaultMaxPerRoute(20);
+
+            CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                    .setConnectionManager(manager)
+                    .setDefaultRequestConfig(defaultRequestConfig)
+                    .setDefaultCookieStore(HttpClientUtil.getCookieStore())
+                    .build();
+            client.start();
+
+            // JVM停止或重启时 关闭连接池释放掉连接
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    client.close();
+                } catch (IOException e) {
+                    log.error(e.getMessage(), e);
+                }
+            }));
+            return client;
+        } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException | IOReactorException e) {
+            log.error(e.getMessage(), e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 得到异步http客户端
+     *
+     * @return {@link CloseableHttpAsyncClient}
+     */
+    public static CloseableHttpAsyncClient getHttpAsyncClient() {
+        // 双检锁, 保证只有一个实例
+        if (httpAsyncClient == null) {
+            synchronized (HttpAsyncClientUtil.class) {
+                if (httpAsyncClient == null) {
+                    httpAsyncClient = init();
+                }
+            }
+        }
+        return httpAsyncClient;
+    }
+
+    /**
+     * 设置指定地址的路由最大连接数
+     *
+     * @param url         地址
+     * @param maxPerRoute 最大连接数
+     */
+    public static void setMaxPerRoute(String url, int maxPerRoute) {
+        getHttpAsyncClient();
+        manager.setMaxPerRoute(HttpClientUtil.toRoute(url), maxPerRoute);
+    }
+
+    /**
+     * 设置请求头
+     *
+     * @param httpRequestBase 请求
+     * @param header          请求头
+     */
+    private static void setRequestHeader(HttpRequestBase httpRequestBase, Map<String, String> header) {
+        if (header != null && header.size() > 0) {
+            for (Map.Entry<String, String> entry : header.entrySet()) {
+                httpRequestBase.addHeader(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 异步get请求
+     *
+     * @param url    请求地址
+     * @param params 请求参数
+     * @param header 请求头
+     * @return 响应内容
+     */
+    public static CompletableFuture<String> httpGetAsync(String url, Map<String, String> params, Map<String, String> header) {
+        return httpGetAsync(url, params, header, null);
+    }
+
+    /**
+     * 异步get请求
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param header  请求头
+     * @param context 请求上下文，为空时使用默认cookie
+     * @return 响应内容
+     */
+    public static CompletableFuture<String> httpGetAsync(String url, Map<String, String> params, Map<String, String> header, HttpContext context) {
+        HttpGet httpGet;
+        try {
+            URIBuilder uriBuilder = new URIBuilder(url);
+            if (params != null && params.size() > 0) {
+                for (Map.Entry<String, String> entry : params.entrySet()) {
+                    uriBuilder.setParameter(entry.getKey(), entry.getValue());
+                }
+            }
+            httpGet = new HttpGet(uriBuilder.build());
+        } catch (URISyntaxException e) {
+            return failed(e);
+        }
+        setRequestHeader(httpGet, header);
+        return requestStringAsync(httpGet, context);
+    }
+
+    /**
+     * 异步post请求
+     *
+     * @param url    请求地址
+     * @param body   请求体
+     * @param header 请求头
+     * @return 响应内容
+     */
+    public static CompletableFuture<String> httpPostAsync(String url, Map<String, String> body, Map<String, String> header) {
+        return httpPostAsync(url, body, header, null);
+    }
+
+    /**
+     * 异步post请求
+     *
+     * @param url     请求地址
+     * @param body    请求体
+     * @param header  请求头
+     * @param context 请求上下文，为空时使用默认cookie
+     * @return 响应内容
+     */
+    public static CompletableFuture<String> httpPostAsync(String url, Map<String, String> body, Map<String, String> header, HttpContext context) {
+        List<NameValuePair> valuePairs = new LinkedList<>();
+        for (Map.Entry<String, String> entry : body.entrySet()) {
+            valuePairs.add(new BasicNameValuePair(entry.getKey(), entry.getValue()));
+        }
+        HttpPost httpPost = new HttpPost(url);
+        httpPost.setEntity(new UrlEncodedFormEntity(valuePairs, Consts.UTF_8));
+        setRequestHeader(httpPost, header);
+        return requestStringAsync(httpPost, context);
+    }
+
+    /**
+     * 异步post json请求
+     *
+     * @param url    请求地址
+     * @param body   请求体
+     * @param header 请求头
+     * @return 响应内容
+     */
+    public static CompletableFuture<String> httpPostJSONAsync(String url, Map<String, Object> body, Map<String, String> header) {
+        return httpPostJSONAsync(url, body, header, null);
+    }
+
+    /**
+     * 异步post json请求
+     *
+     * @param url     请求地址
+     * @param body    请求体
+     * @param header  请求头
+     * @param context 请求上下文，为空时使用默认cookie
+     * @return 响应内容
+     */
+    public static CompletableFuture<String> httpPostJSONAsync(String url, Map<String, Object> body, Map<String, String> header, HttpContext context) {
+        HttpPost httpPost = new HttpPost(url);
+        try {
+            String jsonBody = new ObjectMapper().writeValueAsString(body);
+            httpPost.setEntity(new StringEntity(jsonBody, Consts.UTF_8));
+        } catch (IOException e) {
+            return failed(e);
+        }
+        httpPost.setHeader("Content-Type", "application/json");
+        setRequestHeader(httpPost, header);
+        return requestStringAsync(httpPost, context);
+    }
+
+    /**
+     * 异步post json请求，边接收边解析响应体
+     *
+     * @param url     请求地址
+     * @param body    请求体
+     * @param header  请求头
+     * @param context 请求上下文，为空时使用默认cookie
+     * @param parser  解析响应
+     * @return 解析结果
+     */
+    public static <T> CompletableFuture<T> httpPostJSONStreamAsync(String url, Map<String, Object> body, Map<String, String> header,
+                                                                   HttpContext context, ResponseParser<T> parser) {
+        HttpPost httpPost = new HttpPost(url);
+        try {
+            String jsonBody = new ObjectMapper().writeValueAsString(body);
+            httpPost.setEntity(new StringEntity(jsonBody, Consts.UTF_8));
+        } catch (IOException e) {
+            return failed(e);
+        }
+        httpPost.setHeader("Content-Type", "application/json");
+        setRequestHeader(httpPost, header);
+        return requestStreamAsync(httpPost, context, parser);
+    }
+
+    /**
+     * 发送请求并以字符串形式读取响应
+     *
+     * @param httpRequest 请求
+     * @param context     请求上下文
+     * @return 响应内容
+     */
+    private static CompletableFuture<String> requestStringAsync(HttpRequestBase httpRequest, HttpContext context) {
+        CompletableFuture<HttpResponse> response = requestAsync(httpRequest, context);
+        return propagateCancel(response, response.thenApplyAsync(r -> {
+            try {
+                return EntityUtils.toString(r.getEntity(), Consts.UTF_8);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, CALLBACK_EXECUTOR));
+    }
+
+    /**
+     * 后续阶段被取消时同时取消源future，使取消能够传递到请求本身
+     *
+     * @param source  源future
+     * @param derived 由源future派生的future
+     * @return derived
+     */
+    public static <T> CompletableFuture<T> propagateCancel(CompletableFuture<?> source, CompletableFuture<T> derived) {
+        derived.whenComplete((result, ex) -> {
+            if (derived.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return derived;
+    }
+
+    /**
+     * 异步发送请求
+     * 在途请求数达到上限时进入队列，取消返回的future会中止对应的请求
+     *
+     * @param httpRequest 请求
+     * @param context     请求上下文，为空时使用默认cookie
+     * @return {@link HttpResponse}
+     */
+    public static CompletableFuture<HttpResponse> requestAsync(HttpRequestBase httpRequest, HttpContext context) {
+        CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+        PENDING.offer(() -> execute(httpRequest, context, result));
+        drain();
+        return result;
+    }
+
+    /**
+     * 异步发送请求，边接收边解析响应体
+     * 与 {@link #requestAsync} 共用在途请求的限制，取消返回的future会中止请求和解析
+     *
+     * @param httpRequest 请求
+     * @param context     请求上下文，为空时使用默认cookie
+     * @param parser      解析响应
+     * @return 解析结果
+     */
+    public static <T> CompletableFuture<T> requestStreamAsync(HttpRequestBase httpRequest, HttpContext context, ResponseParser<T> parser) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        PENDING.offer(() -> executeStream(httpRequest, context, parser, result));
+        drain();
+        return result;
+    }
+
+    private static <T> void executeStream(HttpRequestBase httpRequest, HttpContext context, ResponseParser<T> parser, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            release();
+            return;
+        }
+        Future<Void> future;
+        try {
+            // 结果由解析线程完成，回调只负责释放许可
+            future = getHttpAsyncClient().execute(HttpAsyncMethods.create(httpRequest),
+                    new StreamingResponseConsumer<>(parser, result, STREAM_EXECUTOR), context, new FutureCallback<Void>() {
+                        @Override
+                        public void completed(Void v) {
+                            release();
+                        }
+
+                        @Override
+                        public void failed(Exception ex) {
+                            release();
+                        }
+
+                        @Override
+                        public void cancelled() {
+                            release();
+                        }
+                    });
+        } catch (RuntimeException e) {
+            release();
+            result.completeExceptionally(e);
+            return;
+        }
+        result.whenComplete((value, ex) -> {
+            if (result.isCancelled()) {
+                future.cancel(true);
+                httpRequest.abort();
+            }
+        });
+    }
+
+    private static void execute(HttpRequestBase httpRequest, HttpContext context, CompletableFuture<HttpResponse> result) {
+        // 排队期间已被取消
+        if (result.isDone()) {
+            release();
+            return;
+        }
+        Future<HttpResponse> future;
+        try {
+            future = getHttpAsyncClient().execute(httpRequest, context, new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(HttpResponse response) {
+                    release();
+                    CALLBACK_EXECUTOR.execute(() -> result.complete(response));
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    release();
+                    CALLBACK_EXECUTOR.execute(() -> result.completeExceptionally(ex));
+                }
+
+                @Override
+                public void cancelled() {
+                    release();
+                    result.cancel(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            release();
+            result.completeExceptionally(e);
+            return;
+        }
+        result.whenComplete((response, ex) -> {
+            if (result.isCancelled()) {
+                future.cancel(true);
+                httpRequest.abort();
+            }
+        });
+    }
+
+    /**
+     * 在许可允许的范围内发送排队中的请求
+     */
+    private static void drain() {
+        while (!PENDING.isEmpty() && IN_FLIGHT.tryAcquire()) {
+            Runnable task = PENDING.poll();
+            if (task == null) {
+                IN_FLIGHT.release();
+                continue;
+            }
+            task.run();
+        }
+    }
+
+    private static void release() {
+        IN_FLIGHT.release();
+        drain();
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+}
@@ -3,8 +3,10 @@ package com.github.hanfeng21050.utils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.Consts;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.CookieStore;
+import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
@@ -33,12 +35,14 @@ import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.impl.conn.SystemDefaultDnsResolver;
 import org.apache.http.impl.io.DefaultHttpRequestWriterFactory;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.protocol.HttpContext;
 import org.apache.http.ssl.SSLContexts;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
@@ -211,6 +215,19 @@ public class HttpClientUtil {
      * @return {@link String}
      */
     public static String httpPost(String url, Map<String, String> body, Map<String, String> header) throws IOException {
+        return httpPost(url, body, header, null);
+    }
+
+    /**
+     * post请求
+     *
+     * @param url     请求地址
+     * @param body    请求体
+     * @param header  请求头
+     * @param context 请求上下文，为空时使用默认cookie
+     * @return {@link String}
+     */
+    public static String httpPost(String url, Map<String, String> body, Map<String, String> header, HttpContext context) throws IOException {
         List<NameValuePair> valuePairs = new LinkedList<NameValuePair>();
         for (Map.Entry<String, String> entry : body.entrySet()) {
             String key = entry.getKey();
@@ -222,7 +239,7 @@ public class HttpClientUtil {
         setRequestHeader(httpPost, header);
         CloseableHttpResponse response = null;
         try {
-            response = request(httpPost);
+            response = request(httpPost, context);
             return EntityUtils.toString(response.getEntity(), Consts.UTF_8);
         } finally {
             if (null != response) {
@@ -232,7 +249,43 @@ public class HttpClientUtil {
     }
 
 
+    /**
+     * post请求，由 handler 直接读取响应流
+     *
+     * @param url     请求地址
+     * @param body    请求体
+     * @param header  请求头
+     * @param context 请求上下文，为空时使用默认cookie
+     * @param handler 响应处理
+     * @return 处理结果
+     */
+    public static <T> T httpPost(String url, Map<String, String> body, Map<String, String> header, HttpContext context,
+                                 ResponseHandler<? extends T> handler) throws IOException {
+        List<NameValuePair> valuePairs = new LinkedList<NameValuePair>();
+        for (Map.Entry<String, String> entry : body.entrySet()) {
+            valuePairs.add(new BasicNameValuePair(entry.getKey(), entry.getValue()));
+        }
+        HttpPost httpPost = new HttpPost(url);
+        httpPost.setEntity(new UrlEncodedFormEntity(valuePairs, Consts.UTF_8));
+        setRequestHeader(httpPost, header);
+        return getHttpClient().execute(httpPost, handler, context);
+    }
+
+
     public static String httpPostJSON(String url, Map<String, Object> body, Map<String, String> header) throws IOException {
+        return httpPostJSON(url, body, header, null);
+    }
+
+    /**
+     * post json请求
+     *
+     * @param url     请求地址
+     * @param body    请求体
+     * @param header  请求头
+     * @param context 请求上下文，为空时使用默认cookie
+     * @return {@link String}
+     */
+    public static String httpPostJSON(String url, Map<String, Object> body, Map<String, String> header, HttpContext context) throws IOException {
         HttpPost httpPost = new HttpPost(url);
         ObjectMapper objectMapper = new ObjectMapper();
         String jsonBody = objectMapper.writeValueAsString(body);
@@ -242,7 +295,7 @@ public class HttpClientUtil {
         setRequestHeader(httpPost, header);
         CloseableHttpResponse response = null;
         try {
-            response = request(httpPost);
+            response = request(httpPost, context);
             return EntityUtils.toString(response.getEntity(), Consts.UTF_8);
         } finally {
             if (null != response) {
@@ -252,6 +305,27 @@ public class HttpClientUtil {
     }
 
 
+    /**
+     * post json请求，由 handler 直接读取响应流
+     *
+     * @param url     请求地址
+     * @param body    请求体
+     * @param header  请求头
+     * @param context 请求上下文，为空时使用默认cookie
+     * @param handler 响应处理
+     * @return 处理结果
+     */
+    public static <T> T httpPostJSON(String url, Map<String, Object> body, Map<String, String> header, HttpContext context,
+                                     ResponseHandler<? extends T> handler) throws IOException {
+        HttpPost httpPost = new HttpPost(url);
+        ObjectMapper objectMapper = new ObjectMapper();
+        httpPost.setEntity(new StringEntity(objectMapper.writeValueAsString(body), Consts.UTF_8));
+        httpPost.setHeader("Content-Type", "application/json");
+        setRequestHeader(httpPost, header);
+        return getHttpClient().execute(httpPost, handler, context);
+    }
+
+
     /**
      * post请求
      *
@@ -366,6 +440,19 @@ public class HttpClientUtil {
      * @return {@link String}
      */
     public static String httpGet(String url, Map<String, String> params, Map<String, String> header) throws URISyntaxException, IOException {
+        return httpGet(url, params, header, null);
+    }
+
+    /**
+     * http get请求
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param header  请求头
+     * @param context 请求上下文，为空时使用默认cookie
+     * @return {@link String}
+     */
+    public static String httpGet(String url, Map<String, String> params, Map<String, String> header, HttpContext context) throws URISyntaxException, IOException {
         URIBuilder uriBuilder = new URIBuilder(url);
         // 设置请求参数
         if (params != null && params.size() > 0) {
@@ -380,7 +467,7 @@ public class HttpClientUtil {
 
         CloseableHttpResponse response = null;
         try {
-            response = request(httpGet);
+            response = request(httpGet, context);
             return EntityUtils.toString(response.getEntity(), Consts.UTF_8);
         } finally {
             if (null != response) {
@@ -390,11 +477,15 @@ public class HttpClientUtil {
     }
 
     public static CloseableHttpResponse httpGetResponse(String url) throws URISyntaxException, IOException {
+        return httpGetResponse(url, null);
+    }
+
+    public static CloseableHttpResponse httpGetResponse(String url, HttpContext context) throws URISyntaxException, IOException {
         URIBuilder uriBuilder = new URIBuilder(url);
         // 设置请求参数
         HttpGet httpGet = new HttpGet(uriBuilder.build());
         httpGet.getParams().setParameter("http.protocol.allow-circular-redirects", true);
-        return request(httpGet);
+        return request(httpGet, context);
     }
 
 
@@ -405,8 +496,45 @@ public class HttpClientUtil {
      * @return {@link String}
      */
     public static CloseableHttpResponse request(HttpRequestBase httpRequest) throws IOException {
+        return request(httpRequest, null);
+    }
+
+    /**
+     * 使用指定上下文发送请求
+     *
+     * @param httpRequest http请求
+     * @param context     请求上下文，为空时使用默认cookie
+     * @return {@link CloseableHttpResponse}
+     */
+    public static CloseableHttpResponse request(HttpRequestBase httpRequest, HttpContext context) throws IOException {
         CloseableHttpClient closeableHttpClient = getHttpClient();
-        return closeableHttpClient.execute(httpRequest);
+        return closeableHttpClient.execute(httpRequest, context);
+    }
+
+    /**
+     * 设置指定地址的路由最大连接数
+     *
+     * @param url         地址
+     * @param maxPerRoute 最大连接数
+     */
+    public static synchronized void setMaxPerRoute(String url, int maxPerRoute) {
+        if (manager == null) {
+            init();
+        }
+        manager.setMaxPerRoute(toRoute(url), maxPerRoute);
+    }
+
+    /**
+     * 根据地址构建连接池路由
+     *
+     * @param url 地址
+     * @return {@link HttpRoute}
+     */
+    static HttpRoute toRoute(String url) {
+        URI uri = URI.create(url);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+        return new HttpRoute(new HttpHost(uri.getHost(), port, uri.getScheme()), null, secure);
     }
 
     /**
@@ -415,4 +543,13 @@ public class HttpClientUtil {
     public static void clearCookie() {
         cookieStore.clear();
     }
+
+    /**
+     * 获取cookie，供异步客户端共用
+     *
+     * @return {@link CookieStore}
+     */
+    static CookieStore getCookieStore() {
+        return cookieStore;
+    }
 }
@@ -0,0 +1,135 @@
+package com.github.hanfeng21050.utils;
+
+import java.util.Objects;
+
+/**
+ * 日志的结构化字段：项目、环境、阶段和耗时
+ * 由 {@link Logger#withContext} 和 {@link Logger#phase} 设置在当前线程上，该线程之后输出的日志都带有这些字段
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class LogContext {
+    public static final LogContext EMPTY = new LogContext(null, null, null, -1);
+
+    private final String project;
+    private final String environment;
+    private final String phase;
+    /**
+     * 阶段耗时（毫秒），只在阶段结束的日志上有，否则为-1
+     */
+    private final long durationMillis;
+
+    public LogContext(String project, String environment, String phase, long durationMillis) {
+        this.project = project;
+        this.environment = environment;
+        this.phase = phase;
+        this.durationMillis = durationMillis;
+    }
+
+    public String getProject() {
+        return project;
+    }
+
+    public String getEnvironment() {
+        return environment;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public boolean isEmpty() {
+        return project == null && environment == null && phase == null && durationMillis < 0;
+    }
+
+    public LogContext withPhase(String phase) {
+        return new LogContext(project, environment, phase, -1);
+    }
+
+    public LogContext withDuration(long durationMillis) {
+        return new LogContext(project, environment, phase, durationMillis);
+    }
+
+    /**
+     * 编码为 project=a;environment=b;phase=c;duration=12，省略为空的字段
+     */
+    public String encode() {
+        StringBuilder sb = new StringBuilder();
+        appendField(sb, "project", project);
+        appendField(sb, "environment", environment);
+        appendField(sb, "phase", phase);
+        appendField(sb, "duration", durationMillis < 0 ? null : String.valueOf(durationMillis));
+        return sb.toString();
+    }
+
+    /**
+     * 解析 {@link #encode()} 的结果，忽略无法识别的字段
+     */
+    public static LogContext decode(String text) {
+        String project = null;
+        String environment = null;
+        String phase = null;
+        long duration = -1;
+        for (String field : text.split(";")) {
+            int separator = field.indexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            String value = field.substring(separator + 1);
+            switch (field.substring(0, separator)) {
+                case "project":
+                    project = value;
+                    break;
+                case "environment":
+                    environment = value;
+                    break;
+                case "phase":
+                    phase = value;
+                    break;
+                case "duration":
+                    try {
+                        duration = Long.parseLong(value);
+                    } catch (NumberFormatException ignored) {
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        LogContext context = new LogContext(project, environment, phase, duration);
+        return context.isEmpty() ? EMPTY : context;
+    }
+
+    private static void appendField(StringBuilder sb, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        if (sb.length() > 0) {
+            sb.append(';');
+        }
+        sb.append(name).append('=').append(value.replaceAll("[;=}\\r\\n]", "_"));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LogContext)) {
+            return false;
+        }
+        LogContext that = (LogContext) o;
+        return durationMillis == that.durationMillis && Objects.equals(project, that.project)
+                && Objects.equals(environment, that.environment) && Objects.equals(phase, that.phase);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(project, environment, phase, durationMillis);
+    }
+}
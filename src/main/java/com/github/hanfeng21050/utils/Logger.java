@@ -1,17 +1,61 @@
 package com.github.hanfeng21050.utils;
 
 import com.github.hanfeng21050.extensions.ToolWindow.EasyEnvLogWindow;
+import com.github.hanfeng21050.extensions.ToolWindow.log.LogFileSink;
+import com.github.hanfeng21050.extensions.ToolWindow.log.LogHistory;
 import com.intellij.openapi.wm.ToolWindow;
 
 import javax.swing.*;
+import java.util.concurrent.CompletableFuture;
 
 public class Logger {
-    private static EasyEnvLogWindow easyEnvLogWindowInstance;
-    private static ToolWindow toolWindow;
+    /**
+     * 当前线程日志的结构化字段
+     */
+    private static final ThreadLocal<LogContext> CONTEXT = ThreadLocal.withInitial(() -> LogContext.EMPTY);
+    /**
+     * 追加日志与接入窗口互斥，每条日志要么在窗口的历史中，要么实时显示
+     */
+    private static final Object LOCK = new Object();
+
+    private static volatile EasyEnvLogWindow easyEnvLogWindowInstance;
+    private static volatile ToolWindow toolWindow;
 
     public static void setViewBarsInstance(EasyEnvLogWindow instance, ToolWindow window) {
-        easyEnvLogWindowInstance = instance;
-        toolWindow = window;
+        CompletableFuture<LogHistory> history;
+        synchronized (LOCK) {
+            easyEnvLogWindowInstance = instance;
+            toolWindow = window;
+            // 之前的日志（包括日志窗口创建前的）从文件中载入，之后的实时显示
+            history = LogFileSink.getInstance().openHistory();
+        }
+        instance.loadHistory(history);
+    }
+
+    /**
+     * 设置当前线程之后日志的项目和环境，关闭后恢复
+     *
+     * @param project     项目
+     * @param environment 环境
+     * @return 作用域，在 try-with-resources 中使用
+     */
+    public static Scope withContext(String project, String environment) {
+        LogContext previous = CONTEXT.get();
+        CONTEXT.set(new LogContext(project, environment, previous.getPhase(), -1));
+        return new Scope(previous, null);
+    }
+
+    /**
+     * 开始一个阶段，期间的日志带有阶段名，关闭时输出一条带耗时的日志
+     * 阶段执行成功时需调用 {@link Scope#success()}，否则关闭时记为失败
+     *
+     * @param phase 阶段名
+     * @return 作用域，在 try-with-resources 中使用
+     */
+    public static Scope phase(String phase) {
+        LogContext previous = CONTEXT.get();
+        CONTEXT.set(previous.withPhase(phase));
+        return new Scope(previous, phase);
     }
 
     public static void info(String message) {
@@ -48,15 +92,67 @@ public class Logger {
     }
 
     private static void log(String message, LogLevel level) {
-        if (easyEnvLogWindowInstance != null && toolWindow != null) {
-            easyEnvLogWindowInstance.appendLog(message, level);
-            if (!toolWindow.isVisible()) {
+        log(message, level, CONTEXT.get());
+    }
+
+    private static void log(String message, LogLevel level, LogContext context) {
+        EasyEnvLogWindow logWindow;
+        ToolWindow window;
+        synchronized (LOCK) {
+            // 总是写入日志文件，在后台线程中完成
+            LogFileSink.getInstance().append(System.currentTimeMillis(), level, context, message);
+            logWindow = easyEnvLogWindowInstance;
+            window = toolWindow;
+        }
+        if (logWindow != null && window != null) {
+            logWindow.appendLog(message, level, context);
+            if (!window.isVisible()) {
                 SwingUtilities.invokeLater(() -> {
-                    if (!toolWindow.isVisible()) {
-                        toolWindow.activate(null);
+                    if (!window.isVisible()) {
+                        window.activate(null);
                     }
                 });
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * {@link #withContext} 和 {@link #phase} 的作用域
+     */
+    public static class Scope implements AutoCloseable {
+        private final LogContext previous;
+        private final String phase;
+        private final long startNanos = System.nanoTime();
+        private boolean succeeded;
+
+        Scope(LogContext previous, String phase) {
+            this.previous = previous;
+            this.phase = phase;
+        }
+
+        /**
+         * 标记阶段执行成功，在作用域结束前调用
+         */
+        public void success() {
+            succeeded = true;
+        }
+
+        @Override
+        public void close() {
+            if (phase != null) {
+                long durationMillis = (System.nanoTime() - startNanos) / 1_000_000;
+                LogContext context = CONTEXT.get().withDuration(durationMillis);
+                if (succeeded) {
+                    log(phase + "完成", LogLevel.INFO, context);
+                } else {
+                    log(phase + "失败", LogLevel.WARN, context);
+                }
+            }
+            if (previous == LogContext.EMPTY) {
+                CONTEXT.remove();
+            } else {
+                CONTEXT.set(previous);
+            }
+        }
+    }
+}
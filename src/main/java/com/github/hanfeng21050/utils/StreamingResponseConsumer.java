@@ -0,0 +1,212 @@
+package com.github.hanfeng21050.utils;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 边接收边解析的异步响应
+ * I/O reactor 线程把收到的数据放入有界的缓冲，解析在单独的线程中从缓冲读取；缓冲已满时暂停读取连接，
+ * 内存中只保留 {@link #MAX_BUFFERED} 字节左右的数据，不会把整个响应体读入内存
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+class StreamingResponseConsumer<T> extends AbstractAsyncResponseConsumer<Void> {
+    private static final int CHUNK_SIZE = 16 * 1024;
+    /**
+     * 缓冲中未解析的最大字节数，超过时暂停读取，降到一半以下时恢复
+     */
+    static final int MAX_BUFFERED = 1024 * 1024;
+
+    private final HttpAsyncClientUtil.ResponseParser<T> parser;
+    private final CompletableFuture<T> result;
+    private final Executor executor;
+    private final ContentPipe pipe = new ContentPipe();
+    private HttpResponse response;
+    private boolean parsing;
+    private boolean received;
+
+    /**
+     * @param parser   解析响应
+     * @param result   解析完成或失败时完成
+     * @param executor 执行解析的线程池，解析会阻塞等待数据
+     */
+    StreamingResponseConsumer(HttpAsyncClientUtil.ResponseParser<T> parser, CompletableFuture<T> result, Executor executor) {
+        this.parser = parser;
+        this.result = result;
+        this.executor = executor;
+    }
+
+    @Override
+    protected void onResponseReceived(HttpResponse response) {
+        this.response = response;
+    }
+
+    @Override
+    protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) {
+        startParsing();
+    }
+
+    @Override
+    protected void onContentReceived(ContentDecoder decoder, IOControl ioControl) throws IOException {
+        while (true) {
+            ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+            if (decoder.read(chunk) <= 0) {
+                return;
+            }
+            chunk.flip();
+            pipe.offer(chunk, ioControl);
+        }
+    }
+
+    @Override
+    protected Void buildResult(HttpContext context) {
+        // 没有响应体时此时才开始解析
+        startParsing();
+        received = true;
+        pipe.finish();
+        return null;
+    }
+
+    @Override
+    protected void releaseResources() {
+        Exception ex = getException();
+        if (ex != null) {
+            pipe.fail(ex instanceof IOException ? (IOException) ex : new IOException(ex.getMessage(), ex));
+            result.completeExceptionally(ex);
+        } else if (!received) {
+            // 请求被取消
+            pipe.fail(new InterruptedIOException("请求已取消"));
+            result.cancel(false);
+        }
+    }
+
+    private void startParsing() {
+        if (parsing) {
+            return;
+        }
+        parsing = true;
+        HttpResponse httpResponse = response;
+        executor.execute(() -> {
+            try (InputStream content = pipe) {
+                result.complete(parser.parse(httpResponse, content));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * 连接线程写入、解析线程读取的有界缓冲
+     */
+    private static class ContentPipe extends InputStream {
+        private final Deque<ByteBuffer> chunks = new ArrayDeque<>();
+        private ByteBuffer current;
+        private int buffered;
+        private boolean finished;
+        private boolean closed;
+        private IOException failure;
+        /**
+         * 因缓冲已满而暂停的连接
+         */
+        private IOControl suspended;
+
+        synchronized void offer(ByteBuffer chunk, IOControl ioControl) {
+            if (closed) {
+                // 解析已结束，丢弃剩余的数据
+                return;
+            }
+            chunks.add(chunk);
+            buffered += chunk.remaining();
+            if (buffered >= MAX_BUFFERED && suspended == null) {
+                ioControl.suspendInput();
+                suspended = ioControl;
+            }
+            notifyAll();
+        }
+
+        synchronized void finish() {
+            finished = true;
+            notifyAll();
+        }
+
+        synchronized void fail(IOException e) {
+            if (!finished && failure == null) {
+                failure = e;
+            }
+            notifyAll();
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (current == null || !current.hasRemaining()) {
+                current = chunks.poll();
+                if (current != null) {
+                    continue;
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+                if (finished || closed) {
+                    return -1;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("读取响应被中断");
+                }
+            }
+            int n = Math.min(len, current.remaining());
+            current.get(b, off, n);
+            buffered -= n;
+            resumeIfDrained();
+            return n;
+        }
+
+        @Override
+        public synchronized int available() {
+            return current == null ? 0 : current.remaining();
+        }
+
+        @Override
+        public synchronized void close() {
+            // 解析提前结束时继续接收并丢弃剩余的数据，连接才能完成并释放
+            closed = true;
+            chunks.clear();
+            current = null;
+            buffered = 0;
+            resumeIfDrained();
+        }
+
+        private void resumeIfDrained() {
+            if (suspended != null && buffered < MAX_BUFFERED / 2) {
+                suspended.requestInput();
+                suspended = null;
+            }
+        }
+    }
+}
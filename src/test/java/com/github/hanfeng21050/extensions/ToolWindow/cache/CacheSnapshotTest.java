@@ -0,0 +1,156 @@
+package com.github.hanfeng21050.extensions.ToolWindow.cache;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.intellij.openapi.progress.util.ProgressIndicatorBase;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 快照的写入、读取、查找和对比
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class CacheSnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writesRowsSortedByKey() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("table." + CacheSnapshot.EXTENSION);
+        CacheSnapshot snapshot;
+        try (CacheSnapshotWriter writer = new CacheSnapshotWriter(file, "127.0.0.1:8080", "t_user", 1000L)) {
+            writer.add("id#3", row("id", "3", "name", "c"));
+            writer.add("id#1", row("id", "1", "name", "a"));
+            writer.add("id#2", row("id", "2", "name", null));
+            snapshot = writer.finish();
+        }
+
+        assertEquals("127.0.0.1:8080", snapshot.getNode());
+        assertEquals("t_user", snapshot.getTableName());
+        assertEquals(1000L, snapshot.getCreatedAt());
+        assertEquals(Arrays.asList("id", "name"), snapshot.getColumnKeys());
+        assertEquals(3, snapshot.getRowCount());
+        assertEquals(Arrays.asList("id#1", "id#2", "id#3"), readKeys(snapshot));
+
+        CacheSnapshot reopened = CacheSnapshot.open(file);
+        assertEquals(3, reopened.getRowCount());
+        assertNull(reopened.find("id#2").getValue(1));
+        assertEquals("c", reopened.find("id#3").getValue(1));
+    }
+
+    @Test
+    public void mergesSpilledRunsAndFindsAcrossBlocks() throws IOException {
+        int rowCount = CacheSnapshotWriter.RUN_ROWS * 2 + CacheSnapshotWriter.BLOCK_ROWS + 7;
+        Path file = folder.getRoot().toPath().resolve("large." + CacheSnapshot.EXTENSION);
+        CacheSnapshot snapshot;
+        try (CacheSnapshotWriter writer = new CacheSnapshotWriter(file, "node", "t_large", 0L)) {
+            // 倒序写入，排序和归并后应为升序
+            for (int i = rowCount - 1; i >= 0; i--) {
+                writer.add(key(i), row("id", String.valueOf(i)));
+            }
+            snapshot = writer.finish();
+        }
+
+        assertEquals(rowCount, snapshot.getRowCount());
+        List<String> keys = readKeys(snapshot);
+        assertEquals(rowCount, keys.size());
+        List<String> sorted = new ArrayList<>(keys);
+        Collections.sort(sorted);
+        assertEquals(sorted, keys);
+
+        assertEquals("0", snapshot.find(key(0)).getValue(0));
+        assertEquals(String.valueOf(CacheSnapshotWriter.BLOCK_ROWS), snapshot.find(key(CacheSnapshotWriter.BLOCK_ROWS)).getValue(0));
+        assertEquals(String.valueOf(rowCount - 1), snapshot.find(key(rowCount - 1)).getValue(0));
+        assertNull(snapshot.find("id#missing"));
+
+        // 排序用的临时文件已删除
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void comparesSnapshots() throws IOException {
+        CacheSnapshot before = write("before", Arrays.asList(
+                new Object[]{"id#1", row("id", "1", "name", "a")},
+                new Object[]{"id#2", row("id", "2", "name", "b")},
+                new Object[]{"id#3", row("id", "3", "name", "c")}));
+        CacheSnapshot after = write("after", Arrays.asList(
+                new Object[]{"id#2", row("id", "2", "name", "b2", "age", "20")},
+                new Object[]{"id#3", row("id", "3", "name", "c", "age", "30")},
+                new Object[]{"id#4", row("id", "4", "name", "d", "age", "40")}));
+
+        SnapshotDiff diff = SnapshotDiff.compare(before, after, new ProgressIndicatorBase());
+
+        assertEquals(Arrays.asList("id", "name", "age"), diff.getColumnKeys());
+        assertEquals(1, diff.getCount(SnapshotDiff.Kind.ADDED));
+        assertEquals(1, diff.getCount(SnapshotDiff.Kind.REMOVED));
+        assertEquals(1, diff.getCount(SnapshotDiff.Kind.CHANGED));
+        // 只在新快照中的列不算修改
+        assertEquals(1, diff.getUnchangedCount());
+        assertFalse(diff.isTruncated());
+
+        List<SnapshotDiff.Entry> entries = diff.getEntries();
+        assertEquals(3, entries.size());
+        assertEquals(SnapshotDiff.Kind.REMOVED, entries.get(0).getKind());
+        assertEquals("id#1", entries.get(0).getRowKey());
+        assertNull(entries.get(0).getAfter(1));
+
+        SnapshotDiff.Entry changed = entries.get(1);
+        assertEquals(SnapshotDiff.Kind.CHANGED, changed.getKind());
+        assertEquals("b", changed.getBefore(1));
+        assertEquals("b2", changed.getAfter(1));
+        assertTrue(changed.isChanged(1));
+        assertFalse(changed.isChanged(0));
+        assertFalse(changed.isChanged(2));
+
+        assertEquals(SnapshotDiff.Kind.ADDED, entries.get(2).getKind());
+        assertEquals("40", entries.get(2).getAfter(2));
+    }
+
+    private CacheSnapshot write(String name, List<Object[]> rows) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(name + "." + CacheSnapshot.EXTENSION);
+        try (CacheSnapshotWriter writer = new CacheSnapshotWriter(file, "node", "t_user", 0L)) {
+            for (Object[] row : rows) {
+                writer.add((String) row[0], (JSONObject) row[1]);
+            }
+            return writer.finish();
+        }
+    }
+
+    private static List<String> readKeys(CacheSnapshot snapshot) throws IOException {
+        List<String> keys = new ArrayList<>();
+        try (CacheSnapshot.Cursor cursor = snapshot.cursor()) {
+            CacheSnapshot.Row row;
+            while ((row = cursor.next()) != null) {
+                keys.add(row.getRowKey());
+            }
+        }
+        return keys;
+    }
+
+    private static String key(int i) {
+        return String.format("id#%08d", i);
+    }
+
+    private static JSONObject row(String... keyValues) {
+        JSONObject row = new JSONObject();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            row.put(keyValues[i], keyValues[i + 1]);
+        }
+        return row;
+    }
+}
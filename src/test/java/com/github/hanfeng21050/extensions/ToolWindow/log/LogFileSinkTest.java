@@ -0,0 +1,110 @@
+package com.github.hanfeng21050.extensions.ToolWindow.log;
+
+import com.github.hanfeng21050.utils.LogContext;
+import com.github.hanfeng21050.utils.LogLevel;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 日志文件的轮转和打开历史时的截止位置
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class LogFileSinkTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void rotatesOnDateChangeAndReadsBackAcrossFiles() throws Exception {
+        LogFileSink sink = new LogFileSink(folder.getRoot().toPath());
+        long yesterday = LocalDate.of(2026, 10, 17).atTime(LocalTime.NOON).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long today = yesterday + TimeUnit.DAYS.toMillis(1);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sink.append(yesterday + i, LogLevel.INFO, LogContext.EMPTY, "day1 " + i);
+            expected.add("day1 " + i);
+        }
+        sink.append(today, LogLevel.ERROR, new LogContext("demo", "dev", null, -1), "day2 first\nsecond line");
+        expected.add("day2 first");
+        expected.add("second line");
+
+        LogHistory history = sink.openHistory().get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, countRotatedFiles());
+        assertTrue(Files.exists(folder.getRoot().toPath().resolve(LogFileSink.ACTIVE_FILE)));
+        List<LogEntry> entries = readAll(history);
+        assertEquals(expected, messages(entries));
+        LogEntry first = entries.get(5);
+        assertEquals(LogLevel.ERROR, first.getLevel());
+        assertEquals(today, first.getTime());
+        assertEquals("demo", first.getContext().getProject());
+        assertEquals("dev", first.getContext().getEnvironment());
+        assertTrue(entries.get(6).isContinuation());
+    }
+
+    @Test
+    public void historyStopsAtLogsAppendedBeforeOpening() throws Exception {
+        LogFileSink sink = new LogFileSink(folder.getRoot().toPath());
+        long time = System.currentTimeMillis();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            sink.append(time, LogLevel.INFO, LogContext.EMPTY, "before " + i);
+            expected.add("before " + i);
+        }
+        CompletableFuture<LogHistory> opening = sink.openHistory();
+        for (int i = 0; i < 100; i++) {
+            sink.append(time, LogLevel.INFO, LogContext.EMPTY, "after " + i);
+        }
+
+        LogHistory history = opening.get(10, TimeUnit.SECONDS);
+        assertEquals(expected, messages(readAll(history)));
+
+        // 之后打开的历史包含全部日志
+        List<LogEntry> all = readAll(sink.openHistory().get(10, TimeUnit.SECONDS));
+        assertEquals(200, all.size());
+        assertEquals("after 99", all.get(199).getMessage());
+    }
+
+    private int countRotatedFiles() throws Exception {
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder.getRoot().toPath(),
+                LogFileSink.ROTATED_PREFIX + "*" + LogFileSink.ROTATED_SUFFIX)) {
+            for (Path ignored : files) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static List<LogEntry> readAll(LogHistory history) throws Exception {
+        LogLinkDetector detector = new LogLinkDetector();
+        List<LogEntry> entries = new ArrayList<>();
+        while (history.hasMore()) {
+            entries.addAll(0, history.readOlder(3, detector));
+        }
+        return entries;
+    }
+
+    private static List<String> messages(List<LogEntry> entries) {
+        List<String> messages = new ArrayList<>();
+        for (LogEntry entry : entries) {
+            messages.add(entry.getMessage());
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.hanfeng21050.extensions.ToolWindow.log;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 跨轮转文件分页读取历史
+ *
+ * @author hanfeng21050
+ * @date 2026/10/18
+ */
+public class LogHistoryTest {
+    private static final long TIME = 1_700_000_000_000L;
+    /**
+     * 超过一次读取的块大小，需要跨块拼接
+     */
+    private static final String LONG_LINE = repeat('x', 150 * 1024);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final LogLinkDetector detector = new LogLinkDetector();
+
+    @Test
+    public void readsAllFilesFromNewestToOldest() throws IOException {
+        List<String> expected = new ArrayList<>();
+        Path oldest = writeRotated("easy-env-1.log.gz", 0, 100, expected);
+        Path older = writeRotated("easy-env-2.log.gz", 100, 200, expected);
+        Path active = folder.getRoot().toPath().resolve("active.log");
+        byte[] activeBytes = lines(200, 250, expected).getBytes(StandardCharsets.UTF_8);
+        // 截止位置之后追加的内容不属于历史
+        Files.write(active, concat(activeBytes, line(999, "after cutoff").getBytes(StandardCharsets.UTF_8)));
+
+        LogHistory history = new LogHistory(active, activeBytes.length, Arrays.asList(older, oldest));
+        List<LogEntry> entries = new ArrayList<>();
+        while (history.hasMore()) {
+            List<LogEntry> page = history.readOlder(30, detector);
+            assertFalse("每页都从一条日志的首行开始", page.isEmpty() || page.get(0).isContinuation());
+            entries.addAll(0, page);
+        }
+
+        assertEquals(expected, messages(entries));
+        assertEquals(TIME + 10, entries.get(expected.indexOf("message 10")).getTime());
+        assertTrue(entries.get(expected.indexOf("continued 20")).isContinuation());
+        assertFalse(Files.exists(active));
+    }
+
+    @Test
+    public void returnsPushedBackEntriesFirst() throws IOException {
+        List<String> expected = new ArrayList<>();
+        Path active = folder.getRoot().toPath().resolve("active.log");
+        byte[] activeBytes = lines(0, 100, expected).getBytes(StandardCharsets.UTF_8);
+        Files.write(active, activeBytes);
+
+        LogHistory history = new LogHistory(active, activeBytes.length, Collections.emptyList());
+        List<LogEntry> newest = history.readOlder(40, detector);
+        // 只显示了较新的一部分，其余退回
+        int shown = 10;
+        history.pushBack(new ArrayList<>(newest.subList(0, newest.size() - shown)));
+
+        List<LogEntry> entries = new ArrayList<>(newest.subList(newest.size() - shown, newest.size()));
+        while (history.hasMore()) {
+            entries.addAll(0, history.readOlder(25, detector));
+        }
+        assertEquals(expected, messages(entries));
+    }
+
+    private Path writeRotated(String name, int from, int to, List<String> expected) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(name);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(lines(from, to, expected).getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    /**
+     * 生成日志，第 20 条为多行日志，第 50 条为超长的行
+     */
+    private static String lines(int from, int to, List<String> expected) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            if (i == 20) {
+                sb.append(line(i, "message " + i)).append('\t').append("continued ").append(i).append('\n');
+                expected.add("message " + i);
+                expected.add("continued " + i);
+            } else if (i == 50) {
+                sb.append(line(i, LONG_LINE));
+                expected.add(LONG_LINE);
+            } else {
+                sb.append(line(i, "message " + i));
+                expected.add("message " + i);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String line(int i, String message) {
+        return LogFileSink.TIMESTAMP_FORMATTER.format(Instant.ofEpochMilli(TIME + i)) + " [INFO] " + message + "\n";
+    }
+
+    private static List<String> messages(List<LogEntry> entries) {
+        List<String> messages = new ArrayList<>();
+        for (LogEntry entry : entries) {
+            messages.add(entry.getMessage());
+        }
+        return messages;
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}